@@ -0,0 +1,120 @@
+package com.example;
+
+import com.example.CucumberHtmlParser.ScenarioData;
+import com.example.CucumberHtmlParser.StatsResult;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * parseHtml 의 각 단계(마커 추출 -> JSON 배열 -> 요소별 추출/상관관계)와 통계, CSV/HTML 내보내기를 단계별로 잰다.
+ * 입력은 ReportGenerator 로 만든 HTML 리포트이고, 처리량(ops/s) 기준이며, 할당량은 -prof gc 의 gc.alloc.rate.norm 으로 본다.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class ParserPipelineBenchmark {
+
+    @Param({"1000", "10000", "50000"})
+    public int scenarios;
+
+    private String html;
+    private String messagesJson;
+    private List<?> messages;
+    private CucumberHtmlParser parsed;
+    private Collection<ScenarioData> rows;
+    private Path outputDirectory;
+    private String csvPath;
+    private String htmlPath;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        ReportGenerator.Options options = new ReportGenerator.Options();
+        options.scenarioCount = scenarios;
+        StringWriter writer = new StringWriter();
+        new ReportGenerator(options).write(writer, ReportGenerator.Format.HTML);
+        html = writer.toString();
+        CucumberHtmlParser parser = new CucumberHtmlParser();
+        messagesJson = parser.extractCucumberMessagesJson(html);
+        messages = parser.readJsonArray(messagesJson);
+        parsed = new CucumberHtmlParser();
+        parsed.parseHtml(html);
+        rows = new ArrayList<>(parsed.getRowIdToScenarioData().values());
+        if (rows.size() != scenarios) {
+            throw new IllegalStateException("expected " + scenarios + " rows but parsed " + rows.size());
+        }
+        outputDirectory = Files.createTempDirectory("parser-bench");
+        csvPath = outputDirectory.resolve("result.csv").toString();
+        htmlPath = outputDirectory.resolve("result.html").toString();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(outputDirectory.resolve("result.csv"));
+        Files.deleteIfExists(outputDirectory.resolve("result.html"));
+        Files.deleteIfExists(outputDirectory);
+    }
+
+    @Benchmark
+    public String extractCucumberMessagesJson() {
+        return new CucumberHtmlParser().extractCucumberMessagesJson(html);
+    }
+
+    @Benchmark
+    public List<?> readJsonArray() {
+        return new CucumberHtmlParser().readJsonArray(messagesJson);
+    }
+
+    // parseHtml 의 요소별 추출 루프 (JSON 파싱 제외)
+    @Benchmark
+    public CucumberHtmlParser processElements() {
+        CucumberHtmlParser parser = new CucumberHtmlParser();
+        for (Object message : messages) {
+            if (message instanceof Map) {
+                parser.processElement((Map) message);
+            }
+        }
+        parser.updateFinalStatuses();
+        return parser;
+    }
+
+    @Benchmark
+    public StatsResult calculateStats() {
+        return parsed.calculateStats(rows);
+    }
+
+    @Benchmark
+    public CucumberHtmlParser exportResultsToCsv() throws IOException {
+        parsed.exportResultsToCsv(csvPath);
+        return parsed;
+    }
+
+    @Benchmark
+    public CucumberHtmlParser exportResultsToHtml() throws IOException {
+        parsed.exportResultsToHtml(htmlPath);
+        return parsed;
+    }
+}
@@ -0,0 +1,474 @@
+package com.example;
+
+import com.example.CucumberHtmlParser.ScenarioData;
+import com.example.CucumberHtmlParser.StatsResult;
+import com.example.CucumberHtmlParser.TimeStats;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UnsupportedEncodingException;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 리포트 분석을 HTTP 로 제공하는 상주 서비스 (JDK 내장 com.sun.net.httpserver).
+ * <pre>
+ *   POST /analyze[?format=json|stats|csv]       본문 = HTML 리포트 또는 NDJSON 메시지 (첫 글자가 '{' 이면 NDJSON)
+ *   GET  /analyze?path=&lt;파일&gt;[&amp;format=...]   root 아래 파일만 허용 (root 가 없으면 403)
+ *   GET  /health                                  캐시 상태
+ * </pre>
+ * 결과(ParseResult)는 입력 내용의 SHA-256 을 키로 ResultCache 에 둔다. 파싱은 공유 ParserEngine 이 하므로 요청끼리 상태를 공유하지 않고,
+ * 같은 내용이 동시에 들어오면 뒤의 요청은 먼저 시작한 파싱 결과를 기다린다. 동시 파싱 수는 parseConcurrency 로 제한한다.
+ * 응답의 X-Cache 헤더: HIT (캐시에 있던 결과), SHARED (다른 요청이 진행 중이던 파싱 결과), MISS (이 요청이 파싱)
+ * 업로드 본문은 IN_MEMORY_UPLOAD_BYTES 까지만 힙에 읽고, 그보다 크면 임시 파일로 받아 path= 처럼 매핑한다.
+ * 파싱 슬롯을 기다리는 요청이 많아도 힙에는 요청당 최대 IN_MEMORY_UPLOAD_BYTES 만 남는다.
+ */
+public final class AnalysisServer {
+
+    static final long DEFAULT_CACHE_BYTES = 256L << 20;
+    static final int MAX_UPLOAD_BYTES = Integer.MAX_VALUE - 8;
+    static final int IN_MEMORY_UPLOAD_BYTES = 1 << 20;
+    private static final int RESPONSE_BUFFER_SIZE = 1 << 16;
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final Path root;
+    private final ParserEngine engine = new ParserEngine();
+    private final ResultCache<String, ParseResult> cache;
+    private final ConcurrentHashMap<String, CompletableFuture<ParseResult>> inFlight = new ConcurrentHashMap<>();
+    private final Semaphore parsePermits;
+    private final AtomicLong parseCount = new AtomicLong();
+
+    /**
+     * @param root path= 요청을 허용할 디렉터리, null 이면 업로드만 받는다
+     */
+    public AnalysisServer(InetSocketAddress address, long cacheBytes, Path root, int parseConcurrency) throws IOException {
+        if (parseConcurrency < 1) {
+            throw new IllegalArgumentException("parseConcurrency must be >= 1: " + parseConcurrency);
+        }
+        this.root = root == null ? null : root.toRealPath();
+        this.cache = new ResultCache<>(cacheBytes);
+        this.parsePermits = new Semaphore(parseConcurrency);
+        this.server = HttpServer.create(address, 0);
+        this.executor = BatchAnalyzer.newExecutor(parseConcurrency * 4);
+        server.setExecutor(executor);
+        server.createContext("/analyze", this::handleAnalyze);
+        server.createContext("/health", this::handleHealth);
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    public void stop() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    long getParseCount() {
+        return parseCount.get();
+    }
+
+    ResultCache<String, ParseResult> getCache() {
+        return cache;
+    }
+
+    private void handleAnalyze(HttpExchange exchange) throws IOException {
+        try {
+            Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+            String format = query.getOrDefault("format", "json");
+            if (!"json".equals(format) && !"stats".equals(format) && !"csv".equals(format)) {
+                throw new RequestException(400, "unknown format: " + format);
+            }
+            ByteBuffer content;
+            if (query.containsKey("path")) {
+                if (!"GET".equals(exchange.getRequestMethod()) && !"POST".equals(exchange.getRequestMethod())) {
+                    throw new RequestException(405, "method not allowed: " + exchange.getRequestMethod());
+                }
+                content = mapReport(query.get("path"));
+            } else if ("POST".equals(exchange.getRequestMethod())) {
+                content = readBody(exchange);
+            } else {
+                throw new RequestException(405, "POST a report body or GET with ?path=");
+            }
+            String key = sha256(content);
+            ParseResult result = cache.get(key);
+            String cacheStatus = "HIT";
+            if (result == null) {
+                Analysis analysis = analyzeOnce(key, content);
+                result = analysis.result;
+                cacheStatus = analysis.cacheStatus;
+            }
+            exchange.getResponseHeaders().set("X-Cache", cacheStatus);
+            exchange.getResponseHeaders().set("X-Content-SHA256", key);
+            writeResult(exchange, key, result, format);
+        } catch (RequestException e) {
+            sendError(exchange, e.status, e.getMessage());
+        } catch (IOException | RuntimeException e) {
+            sendError(exchange, 500, String.valueOf(e));
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void handleHealth(HttpExchange exchange) throws IOException {
+        try {
+            exchange.getResponseHeaders().set("Content-Type", "application/json; charset=UTF-8");
+            exchange.sendResponseHeaders(200, 0);
+            try (JsonGenerator json = JSON_FACTORY.createGenerator(exchange.getResponseBody(), JsonEncoding.UTF8)) {
+                json.writeStartObject();
+                json.writeStringField("status", "ok");
+                json.writeNumberField("cacheEntries", cache.size());
+                json.writeNumberField("cacheBytes", cache.getTotalBytes());
+                json.writeNumberField("cacheMaxBytes", cache.getMaxBytes());
+                json.writeNumberField("cacheHits", cache.getHits());
+                json.writeNumberField("cacheMisses", cache.getMisses());
+                json.writeNumberField("cacheEvictions", cache.getEvictions());
+                json.writeNumberField("parses", parseCount.get());
+                json.writeEndObject();
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * 같은 key 의 파싱이 진행 중이면 그 결과를 기다리고, 아니면 직접 파싱해서 캐시에 넣는다.
+     * 결과를 어디서 얻었는지(X-Cache 값)도 함께 돌려준다.
+     */
+    Analysis analyzeOnce(String key, ByteBuffer content) throws IOException {
+        CompletableFuture<ParseResult> mine = new CompletableFuture<>();
+        CompletableFuture<ParseResult> running = inFlight.putIfAbsent(key, mine);
+        if (running != null) {
+            return new Analysis(await(running), "SHARED");
+        }
+        try {
+            // get 과 putIfAbsent 사이에 다른 요청이 끝냈을 수 있다
+            ParseResult result = cache.peek(key);
+            String cacheStatus = "HIT";
+            if (result == null) {
+                result = parse(content);
+                cache.put(key, result, result.estimatedBytes());
+                cacheStatus = "MISS";
+            }
+            mine.complete(result);
+            return new Analysis(result, cacheStatus);
+        } catch (IOException | RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    private ParseResult parse(ByteBuffer content) throws IOException {
+        try {
+            parsePermits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("interrupted while waiting for a parse slot", e);
+        }
+        try {
+            parseCount.incrementAndGet();
+            return engine.parseBytes(content);
+        } finally {
+            parsePermits.release();
+        }
+    }
+
+    private static ParseResult await(CompletableFuture<ParseResult> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("interrupted while waiting for a running parse", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException("parse failed", e.getCause());
+        }
+    }
+
+    private ByteBuffer mapReport(String pathParameter) throws IOException {
+        if (root == null) {
+            throw new RequestException(403, "path access is disabled (no --serve-root)");
+        }
+        Path path;
+        try {
+            path = root.resolve(pathParameter).toRealPath();
+        } catch (NoSuchFileException e) {
+            throw new RequestException(404, "no such report: " + pathParameter);
+        }
+        if (!path.startsWith(root) || !Files.isRegularFile(path)) {
+            throw new RequestException(403, "path is outside the serve root: " + pathParameter);
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > MAX_UPLOAD_BYTES) {
+                throw new RequestException(413, "report larger than 2GB: " + pathParameter);
+            }
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+
+    // Content-Length 가 없으면(chunked) -1. JDK 서버가 먼저 걸러내기도 하지만, 잘못된 값은 500 이 아니라 400 으로 돌려준다
+    static long declaredLength(String lengthHeader) throws RequestException {
+        if (lengthHeader == null) {
+            return -1;
+        }
+        long declared;
+        try {
+            declared = Long.parseLong(lengthHeader.trim());
+        } catch (NumberFormatException e) {
+            throw new RequestException(400, "invalid Content-Length: " + lengthHeader);
+        }
+        if (declared < 0) {
+            throw new RequestException(400, "invalid Content-Length: " + lengthHeader);
+        }
+        if (declared > MAX_UPLOAD_BYTES) {
+            throw new RequestException(413, "report larger than 2GB");
+        }
+        return declared;
+    }
+
+    private static ByteBuffer readBody(HttpExchange exchange) throws IOException {
+        long declared = declaredLength(exchange.getRequestHeaders().getFirst("Content-Length"));
+        try (InputStream in = exchange.getRequestBody()) {
+            byte[] head = in.readNBytes((int) Math.min(declared < 0 ? IN_MEMORY_UPLOAD_BYTES : declared, IN_MEMORY_UPLOAD_BYTES));
+            boolean complete = declared >= 0 ? declared <= IN_MEMORY_UPLOAD_BYTES : head.length < IN_MEMORY_UPLOAD_BYTES;
+            if (!complete) {
+                return spoolBody(head, in, declared);
+            }
+            if (declared >= 0 && head.length != declared) {
+                throw new RequestException(400, "request body shorter than Content-Length");
+            }
+            return ByteBuffer.wrap(head);
+        }
+    }
+
+    /**
+     * 큰 업로드: 이미 읽은 head 와 나머지를 임시 파일에 쓰고 읽기 전용으로 매핑한다.
+     * 매핑한 뒤 바로 지우므로 POSIX 에서는 요청이 끝나거나 비정상 종료해도 파일이 남지 않는다. (실패하면 종료 시 삭제)
+     */
+    private static ByteBuffer spoolBody(byte[] head, InputStream in, long declared) throws IOException {
+        Path file = Files.createTempFile("upload-", ".report");
+        try {
+            long size = head.length;
+            try (OutputStream out = Files.newOutputStream(file)) {
+                out.write(head);
+                byte[] buffer = new byte[RESPONSE_BUFFER_SIZE];
+                int read;
+                while ((read = in.read(buffer)) > 0) {
+                    if (size > MAX_UPLOAD_BYTES - read) {
+                        throw new RequestException(413, "report larger than 2GB");
+                    }
+                    out.write(buffer, 0, read);
+                    size += read;
+                }
+            }
+            if (declared >= 0 && size != declared) {
+                throw new RequestException(400, "request body shorter than Content-Length");
+            }
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                return channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            }
+        } finally {
+            try {
+                Files.delete(file);
+            } catch (IOException e) {
+                file.toFile().deleteOnExit();
+            }
+        }
+    }
+
+    static String sha256(ByteBuffer content) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+        digest.update(content.duplicate());
+        StringBuilder hex = new StringBuilder(64);
+        for (byte b : digest.digest()) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
+
+    static Map<String, String> parseQuery(String rawQuery) throws UnsupportedEncodingException {
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        Map<String, String> query = new HashMap<>();
+        for (String pair : rawQuery.split("&")) {
+            int eq = pair.indexOf('=');
+            String name = eq < 0 ? pair : pair.substring(0, eq);
+            String value = eq < 0 ? "" : pair.substring(eq + 1);
+            query.put(URLDecoder.decode(name, "UTF-8"), URLDecoder.decode(value, "UTF-8"));
+        }
+        return query;
+    }
+
+    private static void writeResult(HttpExchange exchange, String key, ParseResult result, String format) throws IOException {
+        if ("csv".equals(format)) {
+            exchange.getResponseHeaders().set("Content-Type", "text/csv; charset=UTF-8");
+            exchange.sendResponseHeaders(200, 0);
+            try (CsvReportWriter csvWriter = new CsvReportWriter(new OutputStreamWriter(
+                    new BufferedOutputStream(exchange.getResponseBody(), RESPONSE_BUFFER_SIZE), StandardCharsets.UTF_8))) {
+                csvWriter.writeHeader();
+                for (ScenarioData scenarioData : result.rowsForOutput()) {
+                    csvWriter.writeRow(scenarioData);
+                }
+                csvWriter.writeStatsSection(result.getStats());
+            }
+            return;
+        }
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=UTF-8");
+        exchange.sendResponseHeaders(200, 0);
+        OutputStream out = new BufferedOutputStream(exchange.getResponseBody(), RESPONSE_BUFFER_SIZE);
+        try (JsonGenerator json = JSON_FACTORY.createGenerator(out, JsonEncoding.UTF8)) {
+            json.writeStartObject();
+            json.writeStringField("sha256", key);
+            json.writeFieldName("stats");
+            writeStats(json, result.getStats());
+            if ("json".equals(format)) {
+                json.writeArrayFieldStart("rows");
+                for (ScenarioData scenarioData : result.rowsForOutput()) {
+                    json.writeStartObject();
+                    json.writeStringField("status", scenarioData.finalStatus);
+                    json.writeStringField("testcaseId", scenarioData.testcaseId);
+                    json.writeStringField("method", scenarioData.method);
+                    json.writeStringField("apiEndpoint", scenarioData.apiEndpoint);
+                    json.writeStringField("statusCode", scenarioData.statusCode);
+                    json.writeNumberField("durationSeconds", scenarioData.totalDurationSeconds);
+                    json.writeEndObject();
+                }
+                json.writeEndArray();
+            }
+            json.writeEndObject();
+        }
+    }
+
+    private static void writeStats(JsonGenerator json, StatsResult sr) throws IOException {
+        json.writeStartObject();
+        json.writeNumberField("totalCount", sr.totalCount);
+        json.writeNumberField("passedCount", sr.passedCount);
+        json.writeNumberField("failedCount", sr.failedCount);
+        json.writeNumberField("passRate", sr.passRate);
+        json.writeNumberField("totalTimeSec", sr.totalTimeSec);
+        json.writeNumberField("avgTimePerTc", sr.avgTimePerTc);
+        json.writeNumberField("totalApiCount", sr.totalApiCount);
+        json.writeNumberField("avgTcPerApi", sr.avgTcPerApi);
+        json.writeNumberField("avgApiPassRate", sr.avgApiPassRate);
+        json.writeNumberField("avgApiExecTime", sr.avgApiExecTime);
+        json.writeFieldName("latency");
+        writeLatency(json, sr.latency);
+        json.writeObjectFieldStart("methods");
+        for (Map.Entry<String, TimeStats> entry : sr.methodStatsMap.entrySet()) {
+            json.writeFieldName(String.valueOf(entry.getKey()));
+            writeTimeStats(json, entry.getValue());
+        }
+        json.writeEndObject();
+        json.writeObjectFieldStart("endpoints");
+        for (Map.Entry<String, TimeStats> entry : sr.endpointStatsMap.entrySet()) {
+            json.writeFieldName(String.valueOf(entry.getKey()));
+            writeTimeStats(json, entry.getValue());
+        }
+        json.writeEndObject();
+        json.writeEndObject();
+    }
+
+    private static void writeTimeStats(JsonGenerator json, TimeStats ts) throws IOException {
+        json.writeStartObject();
+        json.writeNumberField("totalCount", ts.totalCount);
+        json.writeNumberField("passedCount", ts.passedCount);
+        json.writeNumberField("failedCount", ts.failedCount);
+        json.writeNumberField("passRate", ts.getPassRate());
+        json.writeNumberField("totalTimeSec", ts.totalTimeSec);
+        json.writeNumberField("avgTimeSec", ts.avgTimeSec);
+        if (ts.distinctApiCount > 0) {
+            json.writeNumberField("distinctApiCount", ts.distinctApiCount);
+            json.writeNumberField("avgTcPerApi", ts.avgTcPerApi);
+            json.writeNumberField("avgApiPassRate", ts.avgApiPassRate);
+            json.writeNumberField("avgApiExecTime", ts.avgApiExecTime);
+        }
+        json.writeFieldName("latency");
+        writeLatency(json, ts.latency);
+        json.writeEndObject();
+    }
+
+    private static void writeLatency(JsonGenerator json, LatencyHistogram latency) throws IOException {
+        json.writeStartObject();
+        for (double percentile : LatencyHistogram.REPORTED_PERCENTILES) {
+            json.writeNumberField("p" + (int) percentile, latency.getPercentileSeconds(percentile));
+        }
+        json.writeNumberField("max", latency.getMaxSeconds());
+        json.writeEndObject();
+    }
+
+    private static void sendError(HttpExchange exchange, int status, String message) throws IOException {
+        if (exchange.getResponseCode() != -1) {
+            // 이미 응답을 쓰기 시작했으면 연결만 닫는다
+            return;
+        }
+        byte[] body = (message + "\n").getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=UTF-8");
+        exchange.sendResponseHeaders(status, body.length);
+        exchange.getResponseBody().write(body);
+    }
+
+    // analyzeOnce 결과와 X-Cache 값
+    static final class Analysis {
+        final ParseResult result;
+        final String cacheStatus;
+
+        Analysis(ParseResult result, String cacheStatus) {
+            this.result = result;
+            this.cacheStatus = cacheStatus;
+        }
+    }
+
+    // 상태 코드를 가진 요청 오류
+    static final class RequestException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        final int status;
+
+        RequestException(int status, String message) {
+            super(message);
+            this.status = status;
+        }
+    }
+}
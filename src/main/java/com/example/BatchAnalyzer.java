@@ -0,0 +1,216 @@
+package com.example;
+
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * 샤드별 리포트 여러 개를 병렬로 파싱해서 하나의 CucumberHtmlParser 로 합친다.
+ * 각 리포트는 별도 parser 에서 파싱되고, 합칠 때는 ScenarioData 행만 옮기므로 ID 맵들은 샤드 단위로 버려진다.
+ * run 이 필요한 재시도/스텝 집계는 샤드 parser 에서 미리 계산해 행과 함께 합친다. (행별 스텝 시간은 남지 않는다)
+ * 동시에 메모리에 있는 리포트 수는 maxInFlight 로 제한한다. (완료됐지만 아직 합치지 않은 결과 포함)
+ * 합치는 순서는 완료 순서가 아니라 리포트 번호 순서라서, 합친 행 순서(입력 순서)가 실행마다 같다.
+ */
+public class BatchAnalyzer {
+
+    private final int maxInFlight;
+    private final List<String> failedReports = new ArrayList<>();
+    private long memoryBudget;
+    private Path spillDirectory;
+    private boolean stepTiming;
+
+    public BatchAnalyzer(int maxInFlight) {
+        if (maxInFlight < 1) {
+            throw new IllegalArgumentException("maxInFlight must be >= 1: " + maxInFlight);
+        }
+        this.maxInFlight = maxInFlight;
+    }
+
+    // 합친 결과의 행 메모리 예산 (CucumberHtmlParser.setMemoryBudget). 샤드 parser 는 한 번에 maxInFlight 개뿐이라 그대로 둔다.
+    public void setMemoryBudget(long budgetBytes, Path spillDirectory) {
+        this.memoryBudget = budgetBytes;
+        this.spillDirectory = spillDirectory;
+    }
+
+    // 샤드 parser 가 스텝별 시간을 기록할지 (CucumberHtmlParser.setStepTimingEnabled, 기본: 끔)
+    public void setStepTimingEnabled(boolean enabled) {
+        this.stepTiming = enabled;
+    }
+
+    public CucumberHtmlParser analyze(List<Path> reportPaths) throws IOException {
+        CucumberHtmlParser combined = new CucumberHtmlParser();
+        combined.setMemoryBudget(memoryBudget, spillDirectory);
+        ExecutorService executor = newExecutor(maxInFlight);
+        try {
+            CompletionService<ShardResult> completionService = new ExecutorCompletionService<>(executor);
+            // 제출했지만 아직 합치지 않은 리포트는 [merged, submitted) 이고 maxInFlight 개 이하이므로
+            // 번호를 maxInFlight 로 나눈 나머지 칸에 겹치지 않게 둔다
+            ShardResult[] finished = new ShardResult[maxInFlight];
+            int submitted = 0;
+            int merged = 0;
+            while (merged < reportPaths.size()) {
+                while (submitted < reportPaths.size() && submitted - merged < maxInFlight) {
+                    int reportIndex = submitted;
+                    Path reportPath = reportPaths.get(submitted);
+                    completionService.submit(() -> parseShard(reportIndex, reportPath));
+                    submitted++;
+                }
+                ShardResult result = takeNext(completionService);
+                finished[result.reportIndex % maxInFlight] = result;
+                // 다음 번호가 도착했으면 거기서부터 이어진 것들을 번호 순으로 합친다
+                while (merged < submitted && finished[merged % maxInFlight] != null) {
+                    ShardResult next = finished[merged % maxInFlight];
+                    finished[merged % maxInFlight] = null;
+                    merge(next, combined);
+                    merged++;
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        return combined;
+    }
+
+    public List<String> getFailedReports() {
+        return failedReports;
+    }
+
+    private ShardResult parseShard(int reportIndex, Path reportPath) {
+        CucumberHtmlParser shardParser = new CucumberHtmlParser();
+        shardParser.setStepTimingEnabled(stepTiming);
+        try {
+            if (CucumberHtmlParser.isCompressedPath(reportPath.toString())) {
+                shardParser.parseCompressedFile(reportPath.toString());
+            } else if (CucumberHtmlParser.isNdjsonPath(reportPath.toString())) {
+                // 샤드 단위로 이미 병렬이므로 청크 디코딩은 단일 스레드
+                shardParser.parseNdjsonFile(reportPath.toString(), 1);
+            } else {
+                shardParser.parseFileMapped(reportPath.toString());
+            }
+            // 집계는 샤드 스레드에서 미리 계산한다
+            return new ShardResult(reportIndex, reportPath, shardParser.getRowIdToScenarioData(), shardParser.metrics(),
+                    shardParser.getRetryStats(), shardParser.getStepStats(), null);
+        } catch (IOException | RuntimeException e) {
+            return new ShardResult(reportIndex, reportPath, null, null, null, null, e);
+        }
+    }
+
+    private static ShardResult takeNext(CompletionService<ShardResult> completionService) throws IOException {
+        try {
+            Future<ShardResult> future = completionService.take();
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("batch analysis interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IOException("batch analysis failed", e.getCause());
+        }
+    }
+
+    private void merge(ShardResult result, CucumberHtmlParser combined) {
+        if (result.error != null) {
+            System.err.println("[batch] 파싱 실패: " + result.reportPath + " (" + result.error + ")");
+            failedReports.add(result.reportPath.toString());
+            return;
+        }
+        // rowId 는 샤드 간에 겹칠 수 있으므로 리포트 번호를 붙인다
+        combined.mergeScenarioRows(result.reportIndex + ":", result.rows);
+        combined.mergeShardStats(result.retryStats, result.stepStats);
+        combined.metrics().add(result.metrics);
+    }
+
+    /**
+     * JDK 21+ 이면 가상 스레드, 아니면 고정 크기 풀. (컴파일 타깃이 11 이라 리플렉션으로 확인)
+     */
+    static ExecutorService newExecutor(int poolSize) {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newFixedThreadPool(poolSize);
+        }
+    }
+
+    /**
+     * 디렉터리면 그 안의 *.html / *.ndjson / *.jsonl (및 .gz / .zip 보관본), 아니면 glob 패턴(예: reports/shard-*.html)으로 해석한다.
+     */
+    public static List<Path> resolveReports(String dirOrGlob) throws IOException {
+        int firstGlobIndex = indexOfGlob(dirOrGlob);
+        if (firstGlobIndex < 0) {
+            Path path = Paths.get(dirOrGlob);
+            if (Files.isDirectory(path)) {
+                return listMatching(path, FileSystems.getDefault().getPathMatcher("glob:*.{html,ndjson,jsonl,gz,zip}"), false);
+            }
+            return Files.isRegularFile(path) ? List.of(path) : List.of();
+        }
+        // glob 문자가 나오기 전까지의 디렉터리를 탐색 시작점으로 사용
+        int lastSeparator = dirOrGlob.lastIndexOf('/', firstGlobIndex);
+        Path root = lastSeparator < 0 ? Paths.get(".") : Paths.get(dirOrGlob.substring(0, lastSeparator + 1));
+        PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + dirOrGlob);
+        return listMatching(root, matcher, true);
+    }
+
+    private static List<Path> listMatching(Path root, PathMatcher matcher, boolean matchFullPath) throws IOException {
+        if (!Files.isDirectory(root)) {
+            return List.of();
+        }
+        try (Stream<Path> paths = matchFullPath ? Files.walk(root) : Files.list(root)) {
+            return paths
+                    .filter(Files::isRegularFile)
+                    .filter(p -> matcher.matches(matchFullPath ? normalize(root, p) : p.getFileName()))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    // Files.walk(".") 는 "./a.html" 을 돌려주므로 패턴과 같은 형태로 맞춘다
+    private static Path normalize(Path root, Path path) {
+        return ".".equals(root.toString()) ? root.relativize(path) : path;
+    }
+
+    private static int indexOfGlob(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '*' || c == '?' || c == '[' || c == '{') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static final class ShardResult {
+        final int reportIndex;
+        final Path reportPath;
+        final Map<String, CucumberHtmlParser.ScenarioData> rows;
+        final ParseMetrics metrics;
+        final RetryStats retryStats;
+        final Collection<StepTimingStore.StepStats> stepStats;
+        final Exception error;
+
+        ShardResult(int reportIndex, Path reportPath, Map<String, CucumberHtmlParser.ScenarioData> rows,
+                    ParseMetrics metrics, RetryStats retryStats, Collection<StepTimingStore.StepStats> stepStats,
+                    Exception error) {
+            this.reportIndex = reportIndex;
+            this.reportPath = reportPath;
+            this.rows = rows;
+            this.metrics = metrics;
+            this.retryStats = retryStats;
+            this.stepStats = stepStats;
+            this.error = error;
+        }
+    }
+}
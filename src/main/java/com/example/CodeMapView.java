@@ -0,0 +1,102 @@
+package com.example;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * int 코드 컬럼을 예전 getter 들이 돌려주던 Map&lt;String, String&gt; 모양으로 보여주는 뷰.
+ * put 은 양쪽 ID 를 사전에 등록하고 컬럼에 기록한다. (remove 는 지원하지 않음)
+ */
+final class CodeMapView extends AbstractMap<String, String> {
+
+    // keyCode -> valueCode (없으면 -1)
+    interface CodeColumn {
+        int get(int keyCode);
+
+        void set(int keyCode, int valueCode);
+    }
+
+    private final IdDictionary keys;
+    private final CodeColumn column;
+    private final IdDictionary values;
+
+    CodeMapView(IdDictionary keys, CodeColumn column, IdDictionary values) {
+        this.keys = keys;
+        this.column = column;
+        this.values = values;
+    }
+
+    @Override
+    public String get(Object key) {
+        if (!(key instanceof String)) {
+            return null;
+        }
+        return values.idOf(column.get(keys.find((String) key)));
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return get(key) != null;
+    }
+
+    @Override
+    public String put(String key, String value) {
+        int keyCode = keys.intern(key);
+        if (keyCode < 0) {
+            throw new IllegalArgumentException("null key");
+        }
+        String previous = values.idOf(column.get(keyCode));
+        column.set(keyCode, values.intern(value));
+        return previous;
+    }
+
+    @Override
+    public Set<Map.Entry<String, String>> entrySet() {
+        return new AbstractSet<Map.Entry<String, String>>() {
+            @Override
+            public Iterator<Map.Entry<String, String>> iterator() {
+                return new Iterator<Map.Entry<String, String>>() {
+                    private int nextCode = advance(0);
+
+                    @Override
+                    public boolean hasNext() {
+                        return nextCode < keys.size();
+                    }
+
+                    @Override
+                    public Map.Entry<String, String> next() {
+                        if (!hasNext()) {
+                            throw new NoSuchElementException();
+                        }
+                        int code = nextCode;
+                        nextCode = advance(code + 1);
+                        return new SimpleImmutableEntry<>(keys.idOf(code), values.idOf(column.get(code)));
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                int count = 0;
+                for (int code = 0; code < keys.size(); code++) {
+                    if (column.get(code) >= 0) {
+                        count++;
+                    }
+                }
+                return count;
+            }
+        };
+    }
+
+    private int advance(int fromCode) {
+        int code = fromCode;
+        while (code < keys.size() && column.get(code) < 0) {
+            code++;
+        }
+        return code;
+    }
+}
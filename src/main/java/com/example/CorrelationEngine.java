@@ -0,0 +1,992 @@
+package com.example;
+
+import com.example.CucumberHtmlParser.ScenarioData;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.AbstractCollection;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+
+/**
+ * runId -> testCaseId -> pickleId -> rowId -> ScenarioData 조인을 메시지 순서와 무관하게 수행한다.
+ * 아직 상대편이 도착하지 않은 참조는 pending 큐에 (누적 시간 + 실패 여부만) 쌓아두었다가,
+ * 빠진 메시지가 도착하는 시점에 해소한다. 그래서 샤드별 메시지 스트림을 이어 붙이거나 섞어서 넣어도 결과가 같다.
+ *
+ * 같은 testCase 를 재시도하면 testCaseStarted(run) 가 attempt 번호와 함께 여러 번 온다. run 마다 attempt / 실패 여부 / 실행 시간을
+ * 컬럼으로 두고, testCase 상태는 attempt 가 가장 큰 run 의 결과를 따른다. (행의 실행 시간은 모든 시도의 합)
+ *
+ * 각 ID 는 종류별 IdDictionary 에서 한 번만 int 코드로 바뀌고, 조인은 코드로 인덱싱되는 int 배열(IntColumn),
+ * 상태는 byte 로 저장한다. getter 용 Map 들은 이 컬럼들 위의 뷰다.
+ *
+ * 메모리 예산을 정하면 (행 객체 + 내보낼 수 없는 부분) 추정 크기가 예산을 넘을 때마다 메모리의 행을 RowSpillStore 로 내보낸다.
+ * 내보낸 행은 누적 실행 시간(double)과 이후 정해지는 최종 상태(byte)만 메모리에 남겨 계속 갱신하므로,
+ * 행이 언제 내보내졌든 결과는 메모리에만 둔 경우와 같다. ID 사전, 조인 컬럼, 대기 큐는 늦게 도착하는 메시지를 위해
+ * 메모리에 그대로 두므로 예산에 포함해 세기만 한다(unspillableBytes). 이 부분만으로 예산을 넘으면 그만큼은 예산을 넘는다.
+ */
+final class CorrelationEngine {
+
+    // statusNames 의 코드
+    static final int STATUS_PASSED = 0;
+    static final int STATUS_FAILED = 1;
+
+    private final IdDictionary rowIds = new IdDictionary();
+    private final IdDictionary pickleIds = new IdDictionary();
+    private final IdDictionary testCaseIds = new IdDictionary();
+    private final IdDictionary runIds = new IdDictionary();
+    private final IdDictionary statusNames = IdDictionary.of("PASSED", "FAILED");
+
+    // rowCode -> ScenarioData (행이 아직 없는 코드는 null)
+    private ScenarioData[] rows = new ScenarioData[16];
+    private int rowCount;
+    private final IntColumn pickleToRow = new IntColumn();
+    private final IntColumn testCaseToPickle = new IntColumn();
+    private final StatusColumn testCaseStatus = new StatusColumn();
+    private final IntColumn runToTestCase = new IntColumn();
+    // run 코드 -> attempt 번호 (모르면 -1) / 이 시도의 상태 / 이 시도의 실행 시간
+    private final IntColumn runAttempt = new IntColumn();
+    private final StatusColumn runStatus = new StatusColumn();
+    private double[] runSeconds = new double[16];
+    // testCase 코드 -> 마지막 시도(attempt 가 가장 큰, 같으면 나중에 온) run 코드
+    private final IntColumn lastRun = new IntColumn();
+    // 행마다 반복되는 method/endpoint/status code 문자열을 하나로 공유
+    private final Map<String, String> cellValues = new HashMap<>();
+    // 스텝별 실행 시간 (testStepId -> pickle 스텝 텍스트), setStepTimingEnabled(true) 일 때만 기록
+    private final StepTimingStore steps = new StepTimingStore();
+    private boolean stepTimingEnabled;
+    // mergeShardStats 로 합친 다른 parser(샤드)의 스텝 텍스트별 합계 / 재시도 집계. 옮겨온 행은 run 이 없어 여기서 센다.
+    private final Map<String, StepTimingStore.StepStats> mergedSteps = new HashMap<>();
+    private final RetryStats mergedRetries = new RetryStats();
+    private long mergedStepBytes;
+
+    // 0 이하이면 내보내지 않음
+    private long memoryBudgetBytes;
+    private Path spillDirectory;
+    private RowSpillStore spill;
+    // 마지막 rowsInOrder 결과. 순서와 modificationCount 가 같으면 정렬과 순위 순 임시 파일을 다시 만들지 않는다
+    private SortedRows sortedRows;
+    // 내보낸 행을 출력 순위 순으로 다시 쓴 임시 파일들 (새 정렬 결과로 바뀌거나 closeSpill 에서 닫는다)
+    private final List<RowSpillStore> orderedSpills = new ArrayList<>();
+    // 메모리에 있는 행 객체의 추정 바이트
+    private long residentBytes;
+    // 내보낸 행: rowCode -> 누적 실행 시간 / updateFinalStatuses 로 정해진 상태
+    private double[] spilledDurations = new double[0];
+    private final StatusColumn spilledStatuses = new StatusColumn();
+
+    // row 가 아직 없는 pickle: 후보 nodeId -> pickle 코드 목록 ([0] 은 개수)
+    private final Map<String, int[]> pendingPicklesByNodeId = new HashMap<>();
+    private int pendingPickleCount;
+    // 조인 체인의 다음 단계가 아직 없는 스텝 결과 (코드 별로 합산)
+    private final Map<Integer, PendingResult> pendingByRun = new HashMap<>();
+    private final Map<Integer, PendingResult> pendingByTestCase = new HashMap<>();
+    private final Map<Integer, PendingResult> pendingByPickle = new HashMap<>();
+    // 행 데이터에 영향을 주는 변경이 있을 때마다 증가 (통계 캐시 무효화용)
+    private long modificationCount;
+
+    private final Map<String, ScenarioData> rowView = new RowMapView();
+    private final Map<String, String> pickleToRowView = new CodeMapView(pickleIds, pickleToRow, rowIds);
+    private final Map<String, String> testCaseToPickleView = new CodeMapView(testCaseIds, testCaseToPickle, pickleIds);
+    private final Map<String, String> testCaseStatusView = new CodeMapView(testCaseIds, testCaseStatus, statusNames);
+    private final Map<String, String> runToTestCaseView = new CodeMapView(runIds, runToTestCase, testCaseIds);
+
+    void addScenarioRow(String rowId, ScenarioData scenarioData) {
+        modificationCount++;
+        int rowCode = rowIds.intern(rowId);
+        if (rowCode < 0) {
+            return;
+        }
+        scenarioData.method = canonical(scenarioData.method);
+        scenarioData.apiEndpoint = canonical(scenarioData.apiEndpoint);
+        scenarioData.statusCode = canonical(scenarioData.statusCode);
+        setRow(rowCode, scenarioData);
+        int[] waitingPickles = pendingPicklesByNodeId.remove(rowId);
+        if (waitingPickles == null) {
+            spillIfOverBudget();
+            return;
+        }
+        for (int i = 1; i <= waitingPickles[0]; i++) {
+            int pickleCode = waitingPickles[i];
+            if (pickleToRow.get(pickleCode) < 0) {
+                pendingPickleCount--;
+                linkPickleToRow(pickleCode, rowCode);
+            }
+        }
+        if (pendingPickleCount == 0) {
+            // 남은 항목은 이미 해소된 pickle 의 다른 후보(step id 등)뿐이다
+            pendingPicklesByNodeId.clear();
+        }
+        spillIfOverBudget();
+    }
+
+    /**
+     * 행 객체(문자열 포함)와 unspillableBytes 를 합친 추정 크기가 budgetBytes 를 넘으면 행을 directory 의 임시 파일로 내보낸다.
+     * 행을 넣기 전에 호출한다.
+     */
+    void setMemoryBudget(long budgetBytes, Path directory) {
+        this.memoryBudgetBytes = budgetBytes;
+        this.spillDirectory = directory;
+    }
+
+    // 스텝별 시간을 기록할지 (기본: 끔). 스텝 수만큼 배열이 커지므로 필요할 때만 켠다. 메시지를 넣기 전에 호출한다.
+    void setStepTimingEnabled(boolean enabled) {
+        this.stepTimingEnabled = enabled;
+    }
+
+    boolean stepTimingEnabled() {
+        return stepTimingEnabled;
+    }
+
+    long memoryBudgetBytes() {
+        return memoryBudgetBytes;
+    }
+
+    Path spillDirectory() {
+        return spillDirectory;
+    }
+
+    /**
+     * 내보낼 수 없어 항상 메모리에 남는 부분의 추정 바이트: ID 사전 4개, 조인/상태/시도 컬럼, 셀 값 사전, 대기 큐,
+     * 내보낸 행의 시간/상태 컬럼과 임시 파일의 오프셋/값 사전, 스텝별 시간 배열. (사전 크기만으로 계산하므로 O(1))
+     */
+    long unspillableBytes() {
+        long bytes = rowIds.estimatedBytes() + pickleIds.estimatedBytes() + testCaseIds.estimatedBytes() + runIds.estimatedBytes();
+        // pickle -> row / testCase -> pickle, 상태, 마지막 시도 / run -> testCase, attempt, 상태, 시간
+        bytes += 4L * pickleIds.size() + 9L * testCaseIds.size() + 17L * runIds.size();
+        bytes += 9L * spilledDurations.length + 64L * cellValues.size();
+        // 대기 pickle 의 키는 후보 nodeId 문자열
+        bytes += 96L * pendingPicklesByNodeId.size() + 48L * (pendingByRun.size() + pendingByTestCase.size() + pendingByPickle.size());
+        bytes += steps.estimatedBytes() + mergedStepBytes + 96L * mergedRetries.endpointStatsMap.size();
+        bytes += sortedRows == null ? 0 : sortedRows.estimatedBytes();
+        return bytes + (spill == null ? 0 : spill.estimatedBytes());
+    }
+
+    int spilledRowCount() {
+        return spill == null ? 0 : spill.size();
+    }
+
+    long spilledFileBytes() {
+        return spill == null ? 0 : spill.getFileBytes();
+    }
+
+    // 임시 파일을 닫고 지운다. 이후에는 내보낸 행을 읽을 수 없다.
+    void closeSpill() throws IOException {
+        for (RowSpillStore ordered : new ArrayList<>(orderedSpills)) {
+            ordered.close();
+        }
+        orderedSpills.clear();
+        sortedRows = null;
+        if (spill != null) {
+            spill.close();
+        }
+    }
+
+    /**
+     * astNodeIds: pickle 스텝들의 astNodeIds 를 순서대로 이어 붙인 목록.
+     * 이미 알려진 row 가 있으면 바로 연결하고, 없으면 모든 후보 nodeId 로 대기시킨다.
+     */
+    void linkPickle(String pickleId, List<String> astNodeIds) {
+        modificationCount++;
+        // 행이 다 들어온 뒤에도 ID 사전은 자라므로 여기서도 예산을 확인한다
+        spillIfOverBudget();
+        int pickleCode = pickleIds.intern(pickleId);
+        if (pickleCode < 0 || pickleToRow.get(pickleCode) >= 0) {
+            return;
+        }
+        for (String nodeId : astNodeIds) {
+            int rowCode = rowIds.find(nodeId);
+            if (rowExists(rowCode)) {
+                linkPickleToRow(pickleCode, rowCode);
+                return;
+            }
+        }
+        Set<String> candidates = new LinkedHashSet<>(astNodeIds);
+        candidates.remove(null);
+        if (candidates.isEmpty()) {
+            return;
+        }
+        for (String nodeId : candidates) {
+            pendingPicklesByNodeId.merge(nodeId, new int[]{1, pickleCode}, CorrelationEngine::appendCodes);
+        }
+        pendingPickleCount++;
+    }
+
+    // pickle 스텝 ID / 텍스트 (같은 순서). 스텝별 시간 집계에만 쓰인다.
+    void registerPickleSteps(String pickleId, List<String> stepIds, List<String> texts) {
+        if (!stepTimingEnabled) {
+            return;
+        }
+        steps.addPickleSteps(pickleIds.intern(pickleId), stepIds, texts);
+    }
+
+    // testCase 의 스텝 ID 와 그 스텝이 가리키는 pickleStepId (hook 이면 null)
+    void registerTestSteps(String testCaseId, String pickleId, List<String> testStepIds, List<String> pickleStepIds) {
+        if (!stepTimingEnabled) {
+            return;
+        }
+        steps.addTestSteps(testCaseIds.intern(testCaseId), pickleIds.intern(pickleId), testStepIds, pickleStepIds);
+    }
+
+    void registerTestCase(String testCaseId, String pickleId) {
+        modificationCount++;
+        spillIfOverBudget();
+        int testCaseCode = testCaseIds.intern(testCaseId);
+        if (testCaseCode < 0) {
+            return;
+        }
+        // 스텝 결과가 먼저 도착해 FAILED 로 기록된 경우를 덮어쓰지 않는다
+        if (testCaseStatus.get(testCaseCode) < 0) {
+            testCaseStatus.set(testCaseCode, STATUS_PASSED);
+        }
+        int pickleCode = pickleIds.intern(pickleId);
+        testCaseToPickle.set(testCaseCode, pickleCode);
+        PendingResult pending = pendingByTestCase.remove(testCaseCode);
+        if (pending != null && pickleCode >= 0) {
+            addDurationToPickle(pickleCode, pending.seconds);
+        }
+    }
+
+    void registerTestCaseStarted(String runId, String testCaseId) {
+        registerTestCaseStarted(runId, testCaseId, -1);
+    }
+
+    // attempt: 0 부터 시작하는 시도 번호 (없으면 -1, 이 경우 나중에 온 run 을 마지막 시도로 본다)
+    void registerTestCaseStarted(String runId, String testCaseId, int attempt) {
+        modificationCount++;
+        spillIfOverBudget();
+        int runCode = runIds.intern(runId);
+        if (runCode < 0) {
+            return;
+        }
+        int testCaseCode = testCaseIds.intern(testCaseId);
+        runToTestCase.set(runCode, testCaseCode);
+        runAttempt.set(runCode, attempt);
+        if (stepTimingEnabled) {
+            steps.linkRun(runCode, testCaseCode);
+        }
+        if (testCaseCode >= 0) {
+            int previous = lastRun.get(testCaseCode);
+            if (previous < 0 || attempt >= runAttempt.get(previous)) {
+                lastRun.set(testCaseCode, runCode);
+                applyLastAttemptStatus(testCaseCode);
+            }
+        }
+        PendingResult pending = pendingByRun.remove(runCode);
+        if (pending != null && testCaseCode >= 0) {
+            applyToTestCase(testCaseCode, pending.seconds);
+        }
+    }
+
+    void registerStepFinished(String runId, String stepStatus, double stepTimeSeconds) {
+        registerStepFinished(runId, null, stepStatus, stepTimeSeconds, 0);
+    }
+
+    // testStepId 가 있으면 stepNanos 를 그 스텝의 시간으로도 기록한다
+    void registerStepFinished(String runId, String testStepId, String stepStatus, double stepTimeSeconds, long stepNanos) {
+        modificationCount++;
+        boolean failed = !"PASSED".equals(stepStatus);
+        int runCode = runIds.intern(runId);
+        if (runCode < 0) {
+            return;
+        }
+        int testCaseCode = runToTestCase.get(runCode);
+        if (stepTimingEnabled) {
+            steps.recordStep(runCode, testCaseCode, testStepId, stepNanos);
+        }
+        addToRun(runCode, failed, stepTimeSeconds);
+        if (testCaseCode < 0) {
+            pendingByRun.computeIfAbsent(runCode, k -> new PendingResult()).add(stepTimeSeconds);
+            return;
+        }
+        if (lastRun.get(testCaseCode) < 0) {
+            // testCaseStarted 없이 (뷰의 put 등으로) 연결된 run
+            lastRun.set(testCaseCode, runCode);
+        }
+        if (failed && lastRun.get(testCaseCode) == runCode) {
+            applyLastAttemptStatus(testCaseCode);
+        }
+        applyToTestCase(testCaseCode, stepTimeSeconds);
+    }
+
+    void updateFinalStatuses() {
+        modificationCount++;
+        for (int testCaseCode = 0; testCaseCode < testCaseIds.size(); testCaseCode++) {
+            int status = testCaseStatus.get(testCaseCode);
+            if (status < 0) {
+                continue;
+            }
+            int rowCode = pickleToRow.get(testCaseToPickle.get(testCaseCode));
+            if (rowCode < 0) {
+                continue;
+            }
+            if (rowCode < rows.length && rows[rowCode] != null) {
+                rows[rowCode].finalStatus = statusNames.idOf(status);
+            } else if (isSpilled(rowCode)) {
+                spilledStatuses.set(rowCode, status);
+            }
+        }
+    }
+
+    long modificationCount() {
+        return modificationCount;
+    }
+
+    // 엔진 밖에서 행 필드를 직접 고친 코드가 호출한다 (엔진의 변경 메서드는 스스로 올린다)
+    void markModified() {
+        modificationCount++;
+    }
+
+    // 아직 상대편이 도착하지 않은 참조 수 (pickle + 스텝 결과 묶음)
+    int pendingReferenceCount() {
+        return pendingPickleCount + pendingByRun.size() + pendingByTestCase.size() + pendingByPickle.size();
+    }
+
+    private void addToRun(int runCode, boolean failed, double seconds) {
+        if (runCode >= runSeconds.length) {
+            runSeconds = Arrays.copyOf(runSeconds, Math.max(runSeconds.length * 2, runCode + 1));
+        }
+        runSeconds[runCode] += seconds;
+        if (failed) {
+            runStatus.set(runCode, STATUS_FAILED);
+        }
+    }
+
+    // 마지막 시도가 실패했으면 FAILED, 아니면 (testCase 가 이미 알려진 경우) PASSED. 앞선 시도의 실패는 덮어쓴다.
+    private void applyLastAttemptStatus(int testCaseCode) {
+        if (runStatus.get(lastRun.get(testCaseCode)) == STATUS_FAILED) {
+            testCaseStatus.set(testCaseCode, STATUS_FAILED);
+        } else if (testCaseStatus.get(testCaseCode) >= 0) {
+            testCaseStatus.set(testCaseCode, STATUS_PASSED);
+        }
+    }
+
+    private void applyToTestCase(int testCaseCode, double seconds) {
+        int pickleCode = testCaseToPickle.get(testCaseCode);
+        if (pickleCode < 0) {
+            pendingByTestCase.computeIfAbsent(testCaseCode, k -> new PendingResult()).add(seconds);
+            return;
+        }
+        addDurationToPickle(pickleCode, seconds);
+    }
+
+    private void addDurationToPickle(int pickleCode, double seconds) {
+        int rowCode = pickleToRow.get(pickleCode);
+        if (rowCode < 0) {
+            pendingByPickle.computeIfAbsent(pickleCode, k -> new PendingResult()).add(seconds);
+            return;
+        }
+        addDurationToRow(rowCode, seconds);
+    }
+
+    private void linkPickleToRow(int pickleCode, int rowCode) {
+        pickleToRow.set(pickleCode, rowCode);
+        PendingResult pending = pendingByPickle.remove(pickleCode);
+        if (pending != null) {
+            addDurationToRow(rowCode, pending.seconds);
+        }
+    }
+
+    private void addDurationToRow(int rowCode, double seconds) {
+        ScenarioData scenarioData = rowCode < rows.length ? rows[rowCode] : null;
+        if (scenarioData != null) {
+            scenarioData.totalDurationSeconds += seconds;
+        } else if (isSpilled(rowCode)) {
+            spilledDurations[rowCode] += seconds;
+        }
+    }
+
+    private void setRow(int rowCode, ScenarioData scenarioData) {
+        if (rowCode >= rows.length) {
+            rows = Arrays.copyOf(rows, Math.max(rows.length * 2, rowCode + 1));
+        }
+        if (rows[rowCode] != null) {
+            residentBytes -= estimatedBytes(rows[rowCode]);
+        } else if (isSpilled(rowCode)) {
+            // 내보낸 행을 새 행으로 교체
+            spill.remove(rowCode);
+            spilledStatuses.set(rowCode, -1);
+        } else {
+            rowCount++;
+        }
+        rows[rowCode] = scenarioData;
+        residentBytes += estimatedBytes(scenarioData);
+    }
+
+    private boolean rowExists(int rowCode) {
+        return rowCode >= 0 && (rowCode < rows.length && rows[rowCode] != null || isSpilled(rowCode));
+    }
+
+    private boolean isSpilled(int rowCode) {
+        return spill != null && spill.contains(rowCode);
+    }
+
+    /**
+     * 메모리의 행을 모두 하나의 run 으로 내보낸다 (아직 조인 중인 행도 시간/상태는 메모리 컬럼으로 계속 갱신된다).
+     * 행에 쓸 수 있는 몫은 예산에서 내보낼 수 없는 부분을 뺀 나머지지만, 그 부분이 예산을 거의 다 차지해도
+     * 행 하나마다 run 을 만들지 않도록 예산의 1/8 까지는 모아서 내보낸다.
+     */
+    private void spillIfOverBudget() {
+        if (sortedRows != null && sortedRows.version != modificationCount) {
+            // 행이 바뀐 뒤의 정렬 결과는 다시 쓰이지 않으므로 예산에서 바로 뺀다
+            discardSortedRows();
+        }
+        if (memoryBudgetBytes <= 0 || residentBytes == 0) {
+            return;
+        }
+        long rowAllowance = Math.max(memoryBudgetBytes - unspillableBytes(), memoryBudgetBytes / 8);
+        if (residentBytes <= rowAllowance) {
+            return;
+        }
+        int[] rowCodes = new int[rowCount];
+        int count = 0;
+        for (int rowCode = 0; rowCode < rows.length; rowCode++) {
+            if (rows[rowCode] != null) {
+                rowCodes[count++] = rowCode;
+            }
+        }
+        try {
+            if (spill == null) {
+                spill = new RowSpillStore(spillDirectory);
+            }
+            spill.writeRun(rowCodes, count, rows);
+        } catch (IOException e) {
+            throw new UncheckedIOException("failed to spill rows to " + spillDirectory, e);
+        }
+        if (spilledDurations.length < rows.length) {
+            spilledDurations = Arrays.copyOf(spilledDurations, rows.length);
+        }
+        for (int i = 0; i < count; i++) {
+            int rowCode = rowCodes[i];
+            spilledDurations[rowCode] = rows[rowCode].totalDurationSeconds;
+            rows[rowCode] = null;
+        }
+        residentBytes = 0;
+    }
+
+    // 디스크에서 읽은 행에 메모리에 남은 시간/상태를 반영
+    private ScenarioData withSpilledState(int rowCode, ScenarioData row) {
+        row.totalDurationSeconds = spilledDurations[rowCode];
+        int status = spilledStatuses.get(rowCode);
+        if (status >= 0) {
+            row.finalStatus = statusNames.idOf(status);
+        }
+        return row;
+    }
+
+    // 객체 헤더/필드 + 배열 칸 + testcaseId (나머지 셀 값은 행 사이에 공유된다)
+    private static long estimatedBytes(ScenarioData row) {
+        return 56 + (row.testcaseId == null ? 0 : 40 + row.testcaseId.length());
+    }
+
+    private String canonical(String value) {
+        if (value == null) {
+            return null;
+        }
+        String existing = cellValues.putIfAbsent(value, value);
+        return existing == null ? value : existing;
+    }
+
+    private static int compareNullsFirst(String a, String b) {
+        if (a == null || b == null) {
+            return a == null ? (b == null ? 0 : -1) : 1;
+        }
+        return a.compareTo(b);
+    }
+
+    private static int[] appendCodes(int[] codes, int[] added) {
+        int count = codes[0];
+        int[] result = count + 1 < codes.length ? codes : Arrays.copyOf(codes, codes.length * 2);
+        result[count + 1] = added[1];
+        result[0] = count + 1;
+        return result;
+    }
+
+    Map<String, ScenarioData> rowIdToScenarioData() {
+        return rowView;
+    }
+
+    /**
+     * order 순서로 행을 돌려주는 읽기 전용 컬렉션. INPUT 은 등록 순서 (샤드를 합친 경우 합친 쪽이 리포트 번호 순으로 등록한다).
+     * INPUT 이 아니면 행을 한 번 훑어 rowCode 배열과 정렬 키 컬럼
+     * (double 또는 문자열 참조)만 만들고 인덱스 배열을 안정 정렬한다. 메모리의 행 객체는 복사하지 않는다.
+     * 내보낸 행은 처음 순회할 때 출력 순위를 코드로 해서 run 단위로 다시 쓰고(spillInOrder), 순위 순 병합 읽기로 꺼낸다.
+     * 결과는 행이 바뀔 때까지 같은 order 의 다음 호출(출력/CSV/HTML)에 그대로 돌려준다. 다른 order 로 호출하면
+     * 이전 결과의 임시 파일은 닫히므로, 이전 결과를 순회하는 중에는 다른 order 로 부르지 않는다.
+     */
+    Collection<ScenarioData> rowsInOrder(RowOrder order) {
+        if (order == RowOrder.INPUT) {
+            return rowView.values();
+        }
+        if (sortedRows != null && sortedRows.order == order && sortedRows.version == modificationCount) {
+            return sortedRows;
+        }
+        discardSortedRows();
+        int[] codes = new int[rowCount];
+        double[] durations = order == RowOrder.DURATION ? new double[rowCount] : null;
+        String[] primaryKeys = order == RowOrder.DURATION ? null : new String[rowCount];
+        String[] secondaryKeys = order == RowOrder.ENDPOINT ? new String[rowCount] : null;
+        int count = 0;
+        RowMapView.RowIterator iterator = ((RowMapView) rowView).new RowIterator();
+        while (iterator.hasNext()) {
+            ScenarioData row = iterator.next().getValue();
+            codes[count] = iterator.currentCode;
+            switch (order) {
+                case TESTCASE_ID:
+                    primaryKeys[count] = row.testcaseId;
+                    break;
+                case DURATION:
+                    durations[count] = row.totalDurationSeconds;
+                    break;
+                case STATUS:
+                    primaryKeys[count] = row.finalStatus;
+                    break;
+                default:
+                    primaryKeys[count] = row.apiEndpoint;
+                    secondaryKeys[count] = row.method;
+                    break;
+            }
+            count++;
+        }
+        int[] positions = new int[count];
+        for (int i = 0; i < count; i++) {
+            positions[i] = i;
+        }
+        if (durations != null) {
+            IntSort.stableSort(positions, count, (a, b) -> Double.compare(durations[b], durations[a]));
+        } else if (secondaryKeys != null) {
+            IntSort.stableSort(positions, count, (a, b) -> {
+                int compared = compareNullsFirst(primaryKeys[a], primaryKeys[b]);
+                return compared != 0 ? compared : compareNullsFirst(secondaryKeys[a], secondaryKeys[b]);
+            });
+        } else {
+            IntSort.stableSort(positions, count, (a, b) -> compareNullsFirst(primaryKeys[a], primaryKeys[b]));
+        }
+        sortedRows = new SortedRows(order, modificationCount, codes, positions, count);
+        return sortedRows;
+    }
+
+    private void discardSortedRows() {
+        if (sortedRows != null && sortedRows.ordered != null) {
+            closeOrderedSpill(sortedRows.ordered);
+            sortedRows.ordered = null;
+        }
+        sortedRows = null;
+    }
+
+    // 열려 있는 순위 순 임시 파일 수
+    int orderedSpillCount() {
+        return orderedSpills.size();
+    }
+
+    /**
+     * rowsInOrder 의 결과. codes 는 rowCode 오름차순, positions[rank] 는 codes 의 인덱스다.
+     * 내보낸 행이 있으면 처음 순회할 때 순위 순 임시 파일을 한 번 만들고, 이후 순회는 그 파일을 다시 읽기만 한다.
+     */
+    private final class SortedRows extends AbstractCollection<ScenarioData> {
+        final RowOrder order;
+        final long version;
+        private final int[] codes;
+        private final int[] positions;
+        private final int size;
+        RowSpillStore ordered;
+
+        SortedRows(RowOrder order, long version, int[] codes, int[] positions, int size) {
+            this.order = order;
+            this.version = version;
+            this.codes = codes;
+            this.positions = positions;
+            this.size = size;
+        }
+
+        long estimatedBytes() {
+            return 4L * (codes.length + positions.length) + (ordered == null ? 0 : ordered.estimatedBytes());
+        }
+
+        @Override
+        public Iterator<ScenarioData> iterator() {
+            if (ordered == null && spill != null && spill.size() > 0) {
+                ordered = spillInOrder(codes, positions, size);
+            }
+            RowSpillStore.Reader orderedReader = ordered == null ? null : ordered.openReader();
+            return new Iterator<ScenarioData>() {
+                private int next;
+
+                @Override
+                public boolean hasNext() {
+                    return next < size;
+                }
+
+                @Override
+                public ScenarioData next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    int rank = next++;
+                    int rowCode = codes[positions[rank]];
+                    ScenarioData row = rows[rowCode];
+                    if (row == null) {
+                        row = withSpilledState(rowCode, orderedReader.next(rank));
+                    }
+                    return row;
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+
+    /**
+     * run 컬럼을 한 번 훑어 행별 시도 수와 낭비 시간(마지막이 아닌 실패한 시도의 시간)을 배열에 모은 뒤,
+     * 행을 순서대로 한 번 읽으며 엔드포인트별로 더한다. 시도가 없는 행(실행되지 않았거나 샤드에서 옮겨온 행)은 건너뛰고,
+     * 옮겨온 행은 mergeShardStats 로 합친 집계로 센다. updateFinalStatuses 뒤에 호출한다.
+     */
+    RetryStats retryStats() {
+        RetryStats stats = new RetryStats();
+        stats.merge(mergedRetries);
+        if (runIds.size() == 0) {
+            // 샤드를 합치기만 한 parser: 행을 읽을 필요가 없다
+            return stats;
+        }
+        int[] attempts = new int[rowIds.size()];
+        double[] wasted = new double[rowIds.size()];
+        for (int runCode = 0; runCode < runIds.size(); runCode++) {
+            int testCaseCode = runToTestCase.get(runCode);
+            int rowCode = testCaseCode < 0 ? -1 : pickleToRow.get(testCaseToPickle.get(testCaseCode));
+            if (rowCode < 0 || rowCode >= attempts.length) {
+                continue;
+            }
+            attempts[rowCode]++;
+            if (lastRun.get(testCaseCode) != runCode && runStatus.get(runCode) == STATUS_FAILED) {
+                wasted[rowCode] += runCode < runSeconds.length ? runSeconds[runCode] : 0.0;
+            }
+        }
+        // 행마다 키 문자열을 만들지 않도록 원본 method -> endpoint 로 모은 뒤 키는 조합 수만큼만 만든다
+        Map<String, Map<String, RetryStats.Counts>> byMethod = new HashMap<>();
+        RowMapView.RowIterator iterator = ((RowMapView) rowView).new RowIterator();
+        while (iterator.hasNext()) {
+            ScenarioData row = iterator.next().getValue();
+            int rowCode = iterator.currentCode;
+            if (attempts[rowCode] == 0) {
+                continue;
+            }
+            boolean passed = "PASSED".equalsIgnoreCase(row.finalStatus);
+            stats.total.add(attempts[rowCode], passed, wasted[rowCode], row.totalDurationSeconds);
+            byMethod.computeIfAbsent(row.method == null ? "" : row.method, k -> new HashMap<>())
+                    .computeIfAbsent(row.apiEndpoint == null ? "" : row.apiEndpoint, k -> new RetryStats.Counts())
+                    .add(attempts[rowCode], passed, wasted[rowCode], row.totalDurationSeconds);
+        }
+        for (Map.Entry<String, Map<String, RetryStats.Counts>> methodEntry : byMethod.entrySet()) {
+            // StatsResult.endpointStatsMap 처럼 method 는 대문자로 묶는다
+            String methodKey = methodEntry.getKey().toUpperCase();
+            for (Map.Entry<String, RetryStats.Counts> endpointEntry : methodEntry.getValue().entrySet()) {
+                stats.endpointStatsMap.computeIfAbsent(methodKey + " " + endpointEntry.getKey(), k -> new RetryStats.Counts())
+                        .merge(endpointEntry.getValue());
+            }
+        }
+        return stats;
+    }
+
+    /**
+     * 내보낸 행을 출력 순위(rank)를 코드로 하는 새 임시 파일에 다시 쓴다. 원래 파일은 rowCode 순 병합 읽기로 한 번만 훑고,
+     * 메모리 예산의 절반만큼씩 모아 rank 순 run 으로 쓴다. 그래서 정렬된 출력도 행마다 위치를 찾아 읽지 않고
+     * run 수만큼의 커서로 순서대로 읽는다. codes 는 rowCode 오름차순, positions[rank] 는 codes 의 인덱스다.
+     */
+    private RowSpillStore spillInOrder(int[] codes, int[] positions, int count) {
+        int[] rankOf = new int[count];
+        for (int rank = 0; rank < count; rank++) {
+            rankOf[positions[rank]] = rank;
+        }
+        long chunkBudget = Math.max(memoryBudgetBytes / 2, 1);
+        int[] chunkRanks = new int[64];
+        ScenarioData[] chunkRows = new ScenarioData[64];
+        int chunkSize = 0;
+        long chunkBytes = 0;
+        RowSpillStore ordered = null;
+        try {
+            ordered = new RowSpillStore(spillDirectory);
+            orderedSpills.add(ordered);
+            RowSpillStore.Reader reader = spill.openReader();
+            for (int i = 0; i < count; i++) {
+                int rowCode = codes[i];
+                if (rows[rowCode] != null) {
+                    continue;
+                }
+                if (chunkSize == chunkRanks.length) {
+                    chunkRanks = Arrays.copyOf(chunkRanks, chunkSize * 2);
+                    chunkRows = Arrays.copyOf(chunkRows, chunkSize * 2);
+                }
+                ScenarioData row = reader.next(rowCode);
+                chunkRanks[chunkSize] = rankOf[i];
+                chunkRows[chunkSize] = row;
+                chunkSize++;
+                chunkBytes += estimatedBytes(row);
+                if (chunkBytes > chunkBudget) {
+                    ordered.writeRecords(chunkRanks, chunkRows, chunkSize);
+                    Arrays.fill(chunkRows, 0, chunkSize, null);
+                    chunkSize = 0;
+                    chunkBytes = 0;
+                }
+            }
+            if (chunkSize > 0) {
+                ordered.writeRecords(chunkRanks, chunkRows, chunkSize);
+            }
+            return ordered;
+        } catch (IOException e) {
+            if (ordered != null) {
+                closeOrderedSpill(ordered);
+            }
+            throw new UncheckedIOException("failed to write ordered rows to " + spillDirectory, e);
+        }
+    }
+
+    private void closeOrderedSpill(RowSpillStore ordered) {
+        orderedSpills.remove(ordered);
+        try {
+            ordered.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // 스텝 텍스트별 합계 (모든 시나리오 + 합친 샤드, 기록을 켜지 않았으면 비어 있다)
+    Collection<StepTimingStore.StepStats> stepStats() {
+        Collection<StepTimingStore.StepStats> own = steps.aggregate();
+        if (mergedSteps.isEmpty()) {
+            return own;
+        }
+        // aggregate 결과는 매번 새 객체이므로 거기에 더하고, mergedSteps 의 객체는 복사해서 돌려준다
+        Map<String, StepTimingStore.StepStats> byStep = new HashMap<>();
+        for (StepTimingStore.StepStats stats : own) {
+            byStep.put(stats.step, stats);
+        }
+        for (StepTimingStore.StepStats merged : mergedSteps.values()) {
+            byStep.computeIfAbsent(merged.step, StepTimingStore.StepStats::new).merge(merged);
+        }
+        return byStep.values();
+    }
+
+    /**
+     * 다른 parser(샤드)의 재시도/스텝 집계를 더한다. 행은 addScenarioRow 로 따로 옮기는데, 옮긴 행에는 run 이 없어
+     * retryStats / stepStats 가 직접 셀 수 없기 때문이다. (행별 stepTimings 는 옮긴 행에 대해 비어 있다)
+     */
+    void mergeShardStats(RetryStats retryStats, Collection<StepTimingStore.StepStats> stepStats) {
+        mergedRetries.merge(retryStats);
+        for (StepTimingStore.StepStats stats : stepStats) {
+            StepTimingStore.StepStats merged = mergedSteps.get(stats.step);
+            if (merged == null) {
+                merged = new StepTimingStore.StepStats(stats.step);
+                mergedSteps.put(stats.step, merged);
+                mergedStepBytes += 96 + stats.step.length();
+            }
+            long histogramBytes = merged.latency.estimatedBytes();
+            merged.merge(stats);
+            mergedStepBytes += merged.latency.estimatedBytes() - histogramBytes;
+        }
+    }
+
+    // 이 행에 연결된 testCase 들의 스텝별 시간 (testCase 코드 순, 스텝 순)
+    List<StepTimingStore.StepTiming> stepTimings(String rowId) {
+        List<StepTimingStore.StepTiming> timings = new ArrayList<>();
+        int rowCode = rowIds.find(rowId);
+        if (rowCode < 0) {
+            return timings;
+        }
+        for (int testCaseCode = 0; testCaseCode < testCaseIds.size(); testCaseCode++) {
+            if (pickleToRow.get(testCaseToPickle.get(testCaseCode)) == rowCode) {
+                steps.appendTimings(testCaseCode, timings);
+            }
+        }
+        return timings;
+    }
+
+    Map<String, String> pickleIdToRowId() {
+        return pickleToRowView;
+    }
+
+    Map<String, String> testCaseIdToPickleId() {
+        return testCaseToPickleView;
+    }
+
+    Map<String, String> testCaseIdToStatus() {
+        return testCaseStatusView;
+    }
+
+    Map<String, String> runIdToTestCaseId() {
+        return runToTestCaseView;
+    }
+
+    // 해소 대기 중인 스텝 시간 합계 (실패 여부는 run 컬럼에 바로 기록된다)
+    private static final class PendingResult {
+        double seconds;
+
+        void add(double stepSeconds) {
+            seconds += stepSeconds;
+        }
+    }
+
+    // testCase(또는 run) 코드 -> 상태 코드 (byte, 0 은 없음)
+    private static final class StatusColumn implements CodeMapView.CodeColumn {
+        private byte[] statuses = new byte[16];
+
+        @Override
+        public int get(int testCaseCode) {
+            return testCaseCode >= 0 && testCaseCode < statuses.length ? statuses[testCaseCode] - 1 : -1;
+        }
+
+        @Override
+        public void set(int testCaseCode, int statusCode) {
+            if (testCaseCode >= statuses.length) {
+                statuses = Arrays.copyOf(statuses, Math.max(statuses.length * 2, testCaseCode + 1));
+            }
+            statuses[testCaseCode] = (byte) (statusCode + 1);
+        }
+    }
+
+    /**
+     * rowId -> ScenarioData 뷰. values() 는 행 배열을 등록 순서대로 바로 순회한다.
+     * 내보낸 행이 있으면 메모리의 행과 디스크의 행을 rowCode 순으로 합쳐 순회하며, 디스크의 행은 매번 새로 읽은 사본이다.
+     */
+    private final class RowMapView extends AbstractMap<String, ScenarioData> {
+
+        @Override
+        public ScenarioData get(Object key) {
+            if (!(key instanceof String)) {
+                return null;
+            }
+            int rowCode = rowIds.find((String) key);
+            if (rowCode < 0) {
+                return null;
+            }
+            if (rowCode < rows.length && rows[rowCode] != null) {
+                return rows[rowCode];
+            }
+            return isSpilled(rowCode) ? withSpilledState(rowCode, spill.read(rowCode)) : null;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return get(key) != null;
+        }
+
+        @Override
+        public ScenarioData put(String key, ScenarioData value) {
+            ScenarioData previous = get(key);
+            addScenarioRow(key, value);
+            return previous;
+        }
+
+        @Override
+        public int size() {
+            return rowCount;
+        }
+
+        @Override
+        public Collection<ScenarioData> values() {
+            return new AbstractCollection<ScenarioData>() {
+                @Override
+                public Iterator<ScenarioData> iterator() {
+                    if (spill == null) {
+                        return Arrays.stream(rows, 0, usedLength()).filter(Objects::nonNull).iterator();
+                    }
+                    RowIterator rowIterator = new RowIterator();
+                    return new Iterator<ScenarioData>() {
+                        @Override
+                        public boolean hasNext() {
+                            return rowIterator.hasNext();
+                        }
+
+                        @Override
+                        public ScenarioData next() {
+                            return rowIterator.next().getValue();
+                        }
+                    };
+                }
+
+                @Override
+                public Spliterator<ScenarioData> spliterator() {
+                    if (spill == null) {
+                        return Arrays.stream(rows, 0, usedLength()).filter(Objects::nonNull).spliterator();
+                    }
+                    return Spliterators.spliterator(iterator(), rowCount, Spliterator.ORDERED | Spliterator.NONNULL);
+                }
+
+                @Override
+                public int size() {
+                    return rowCount;
+                }
+            };
+        }
+
+        @Override
+        public Set<Map.Entry<String, ScenarioData>> entrySet() {
+            return new AbstractSet<Map.Entry<String, ScenarioData>>() {
+                @Override
+                public Iterator<Map.Entry<String, ScenarioData>> iterator() {
+                    return new RowIterator();
+                }
+
+                @Override
+                public int size() {
+                    return rowCount;
+                }
+            };
+        }
+
+        // pickle 뷰의 put 으로 행 없이 코드만 생긴 경우가 있어 rows 길이와 사전 크기 중 작은 쪽까지만 본다
+        private int usedLength() {
+            return Math.min(rows.length, rowIds.size());
+        }
+
+        private int advance(int fromCode) {
+            int code = fromCode;
+            while (code < usedLength() && !rowExists(code)) {
+                code++;
+            }
+            return code;
+        }
+
+        // 메모리의 행은 배열에서, 내보낸 행은 RowSpillStore 의 병합 읽기에서 rowCode 순으로 꺼낸다
+        private final class RowIterator implements Iterator<Map.Entry<String, ScenarioData>> {
+            private final RowSpillStore.Reader spillReader = spill == null ? null : spill.openReader();
+            private int nextCode = advance(0);
+            // 마지막으로 next() 가 돌려준 행의 코드
+            int currentCode = -1;
+
+            @Override
+            public boolean hasNext() {
+                return nextCode < usedLength();
+            }
+
+            @Override
+            public Map.Entry<String, ScenarioData> next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                int code = nextCode;
+                currentCode = code;
+                nextCode = advance(code + 1);
+                ScenarioData row = rows[code];
+                if (row == null) {
+                    row = withSpilledState(code, spillReader.next(code));
+                }
+                return new SimpleImmutableEntry<>(rowIds.idOf(code), row);
+            }
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.example;
+
+import com.example.CucumberHtmlParser.ScenarioData;
+import com.example.CucumberHtmlParser.StatsResult;
+import com.example.CucumberHtmlParser.TimeStats;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+/**
+ * 결과 CSV 를 한 번에 (헤더 -> 행 -> 통계) 쓰는 writer. UTF-8, 64KB 버퍼.
+ * 한 줄을 재사용하는 StringBuilder 에 조립해 재사용하는 char[] 로 옮겨 쓰고 (줄마다 String 을 만들지 않는다),
+ * 숫자는 FixedDecimal 로 쓴다.
+ * 값은 RFC 4180 규칙(, " CR LF 포함 시 따옴표로 감싸고 " 는 "" 로)으로 이스케이프한다.
+ */
+final class CsvReportWriter implements Closeable {
+
+    static final String HEADER = "status,testcase_id,method,api_endpoint,total_duration(sec)\n";
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final Writer writer;
+    private final StringBuilder line = new StringBuilder(256);
+    private char[] lineChars = new char[256];
+
+    CsvReportWriter(Writer writer) {
+        this.writer = writer;
+    }
+
+    static CsvReportWriter open(Path path) throws IOException {
+        return new CsvReportWriter(new BufferedWriter(
+                new OutputStreamWriter(Files.newOutputStream(path), StandardCharsets.UTF_8), BUFFER_SIZE));
+    }
+
+    void writeHeader() throws IOException {
+        writer.write(HEADER);
+    }
+
+    void writeRow(ScenarioData scenarioData) throws IOException {
+        line.setLength(0);
+        appendEscaped(line, scenarioData.finalStatus).append(',');
+        appendEscaped(line, scenarioData.testcaseId).append(',');
+        appendEscaped(line, scenarioData.method).append(',');
+        appendEscaped(line, scenarioData.apiEndpoint).append(',');
+        FixedDecimal.append(line, scenarioData.totalDurationSeconds, 3).append('\n');
+        writeLine();
+    }
+
+    // line 의 내용을 그대로 쓴다 (StringBuilder.toString 없이)
+    private void writeLine() throws IOException {
+        int length = line.length();
+        if (length > lineChars.length) {
+            lineChars = new char[Math.max(length, lineChars.length * 2)];
+        }
+        line.getChars(0, length, lineChars, 0);
+        writer.write(lineChars, 0, length);
+    }
+
+    // 결과 CSV 뒤에 붙는 통계 구역 ("[Stats]" 표시 포함)
+    void writeStatsSection(StatsResult sr) throws IOException {
+        writer.write("\n[Stats]\n");
+        writeStats(sr);
+    }
+
+    void writeStats(StatsResult sr) throws IOException {
+        line.setLength(0);
+        line.append("Overall,").append(sr.totalCount)
+                .append(",passed=").append(sr.passedCount)
+                .append(",failed=").append(sr.failedCount)
+                .append(",passRate=");
+        FixedDecimal.append(line, sr.passRate, 1).append("%,totalTime=");
+        FixedDecimal.append(line, sr.totalTimeSec, 3).append(",avgTime=");
+        FixedDecimal.append(line, sr.avgTimePerTc, 3).append(",totalAPI=").append(sr.totalApiCount)
+                .append(",avgTcPerApi=");
+        FixedDecimal.append(line, sr.avgTcPerApi, 1).append(",avgApiPassRate=");
+        FixedDecimal.append(line, sr.avgApiPassRate, 1).append("%,avgApiExecTime=");
+        FixedDecimal.append(line, sr.avgApiExecTime, 3).append(',');
+        sr.latency.appendSummary(line, ",").append('\n');
+        writeLine();
+
+        writer.write("Method Stats:\n");
+        for (Map.Entry<String, TimeStats> e : sr.methodStatsMap.entrySet()) {
+            TimeStats ts = e.getValue();
+            line.setLength(0);
+            appendCounts(line.append(e.getKey()), ts);
+            line.append(",APIcount=").append(ts.distinctApiCount).append(",avgTcPerApi=");
+            FixedDecimal.append(line, ts.avgTcPerApi, 1).append(",avgApiPassRate=");
+            FixedDecimal.append(line, ts.avgApiPassRate, 1).append("%,avgApiExecTime=");
+            FixedDecimal.append(line, ts.avgApiExecTime, 3).append('\n');
+            writeLine();
+        }
+        writer.write("Endpoint Stats (method + endpoint):\n");
+        for (Map.Entry<String, TimeStats> e : sr.endpointStatsMap.entrySet()) {
+            line.setLength(0);
+            appendCounts(line.append(e.getKey()), e.getValue()).append('\n');
+            writeLine();
+        }
+    }
+
+    private static StringBuilder appendCounts(StringBuilder sb, TimeStats ts) {
+        sb.append(',').append(ts.totalCount)
+                .append(",passed=").append(ts.passedCount)
+                .append(",failed=").append(ts.failedCount)
+                .append(",passRate=");
+        FixedDecimal.append(sb, ts.getPassRate(), 1).append("%,totalTime=");
+        FixedDecimal.append(sb, ts.totalTimeSec, 3).append(",avgTime=");
+        FixedDecimal.append(sb, ts.avgTimeSec, 3).append(',');
+        return ts.latency.appendSummary(sb, ",");
+    }
+
+    static StringBuilder appendEscaped(StringBuilder sb, String value) {
+        if (value == null) {
+            return sb;
+        }
+        boolean needsQuote = false;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == ',' || c == '"' || c == '\r' || c == '\n') {
+                needsQuote = true;
+                break;
+            }
+        }
+        if (!needsQuote) {
+            return sb.append(value);
+        }
+        sb.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                sb.append('"');
+            }
+            sb.append(c);
+        }
+        return sb.append('"');
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+}
@@ -1,55 +1,728 @@
 package com.example;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
-import java.io.FileWriter;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.SequenceInputStream;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashMap;
+import java.util.Enumeration;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
 
 public class CucumberHtmlParser {
 
-    private final Map<String, ScenarioData> rowIdToScenarioDataMap = new HashMap<>();
-    private final Map<String, String> pickleIdToRowIdMap = new HashMap<>();
-    private final Map<String, String> testCaseIdToPickleIdMap = new HashMap<>();
-    private final Map<String, String> testCaseIdToStatusMap = new HashMap<>();
-    private final Map<String, String> runIdToTestCaseIdMap = new HashMap<>();
+    static final String MESSAGES_MARKER = "window.CUCUMBER_MESSAGES =";
+    private static final byte[] MESSAGES_MARKER_BYTES = MESSAGES_MARKER.getBytes(StandardCharsets.US_ASCII);
+
+    // 스트리밍 파싱용 (스레드 안전, 재사용)
+    private static final ObjectMapper STREAMING_MAPPER = new ObjectMapper();
+    // readJsonArray 용 (ObjectReader 는 불변이라 스레드 간 공유)
+    private static final ObjectReader JSON_ARRAY_READER = STREAMING_MAPPER.readerFor(List.class);
+
+    // diff 목록은 앞에서부터 이 개수까지만 출력
+    private static final int DIFF_LIST_LIMIT = 20;
+
+    // 스트리밍 경로에서 디코딩/상관관계 시간을 나눠 재는 단위 (envelope 수)
+    private static final int ENVELOPE_BATCH_SIZE = 256;
+
+    // 압축 해제 / 바이트 마커 탐색 버퍼
+    private static final int STREAM_BUFFER_SIZE = 1 << 16;
+
+    private final CorrelationEngine correlation = new CorrelationEngine();
+    private final ParseMetrics metrics = new ParseMetrics();
+    private RowOrder rowOrder = RowOrder.INPUT;
+
+    // 마지막으로 계산한 통계와, 그 시점의 correlation 변경 횟수
+    private StatsResult cachedStats;
+    private long cachedStatsVersion = -1;
 
     public static void main(String[] args) throws IOException {
-        CucumberHtmlParser parser = new CucumberHtmlParser();
-        parser.parseFile("cucumber_report.html");
+        String inputMode = "string";
+        String reportPath = "cucumber_report.html";
+        String batchPattern = null;
+        String csvStatsPath = null;
+        int htmlPageSize = 0;
+        boolean follow = false;
+        boolean profile = false;
+        int servePort = -1;
+        String serveRoot = null;
+        long cacheBytes = AnalysisServer.DEFAULT_CACHE_BYTES;
+        String historyDir = null;
+        String historyReportDir = null;
+        int historyRuns = 20;
+        double regressionThreshold = 20.0;
+        String diffBaselinePath = null;
+        String diffHistoryDir = null;
+        double maxLatencyIncrease = RunDiff.DEFAULT_MAX_LATENCY_INCREASE_PERCENT;
+        double maxPassRateDrop = RunDiff.DEFAULT_MAX_PASS_RATE_DROP;
+        int maxInFlight = Runtime.getRuntime().availableProcessors();
+        long memoryBudget = 0;
+        RowOrder rowOrder = RowOrder.INPUT;
+        int topK = 0;
+        int topSteps = 0;
+        Path spillDir = Paths.get(System.getProperty("java.io.tmpdir"));
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            if ("--stream".equals(arg)) {
+                inputMode = "stream";
+            } else if ("--mmap".equals(arg)) {
+                inputMode = "mmap";
+            } else if ("--ndjson".equals(arg)) {
+                inputMode = "ndjson";
+            } else if ("--follow".equals(arg)) {
+                follow = true;
+            } else if ("--profile".equals(arg)) {
+                profile = true;
+            } else if ("--serve".equals(arg)) {
+                servePort = Integer.parseInt(args[++i]);
+            } else if ("--serve-root".equals(arg)) {
+                serveRoot = args[++i];
+            } else if ("--cache-mb".equals(arg)) {
+                cacheBytes = Long.parseLong(args[++i]) << 20;
+            } else if ("--batch".equals(arg)) {
+                batchPattern = args[++i];
+            } else if ("--max-in-flight".equals(arg)) {
+                maxInFlight = Integer.parseInt(args[++i]);
+            } else if ("--memory-budget-mb".equals(arg)) {
+                memoryBudget = Long.parseLong(args[++i]) << 20;
+            } else if ("--spill-dir".equals(arg)) {
+                spillDir = Paths.get(args[++i]);
+            } else if ("--sort".equals(arg)) {
+                rowOrder = RowOrder.parse(args[++i]);
+            } else if ("--top".equals(arg)) {
+                topK = Integer.parseInt(args[++i]);
+            } else if ("--steps".equals(arg)) {
+                topSteps = Integer.parseInt(args[++i]);
+            } else if ("--csv-stats".equals(arg)) {
+                csvStatsPath = args[++i];
+            } else if ("--html-page-size".equals(arg)) {
+                htmlPageSize = Integer.parseInt(args[++i]);
+            } else if ("--history".equals(arg)) {
+                historyDir = args[++i];
+            } else if ("--history-report".equals(arg)) {
+                historyReportDir = args[++i];
+            } else if ("--history-runs".equals(arg)) {
+                historyRuns = Integer.parseInt(args[++i]);
+            } else if ("--regression-threshold".equals(arg)) {
+                regressionThreshold = Double.parseDouble(args[++i]);
+            } else if ("--diff".equals(arg)) {
+                diffBaselinePath = args[++i];
+            } else if ("--diff-history".equals(arg)) {
+                diffHistoryDir = args[++i];
+            } else if ("--max-latency-increase".equals(arg)) {
+                maxLatencyIncrease = Double.parseDouble(args[++i]);
+            } else if ("--max-pass-rate-drop".equals(arg)) {
+                maxPassRateDrop = Double.parseDouble(args[++i]);
+            } else {
+                reportPath = arg;
+            }
+        }
+        if (servePort >= 0) {
+            runServer(servePort, serveRoot, cacheBytes, maxInFlight);
+            return;
+        }
+        if (historyReportDir != null) {
+            printHistoryReport(new RunHistoryStore(Paths.get(historyReportDir)), historyRuns, regressionThreshold);
+            return;
+        }
+        if (batchPattern != null) {
+            runBatch(batchPattern, maxInFlight, csvStatsPath, htmlPageSize, historyDir, profile, memoryBudget, spillDir,
+                    rowOrder, topK, topSteps);
+            return;
+        }
+        if (follow) {
+            runFollow(reportPath, csvStatsPath, htmlPageSize, historyDir, profile, memoryBudget, spillDir, rowOrder, topK,
+                    topSteps);
+            return;
+        }
+        CucumberHtmlParser parser = parseReport(reportPath, inputMode, memoryBudget, spillDir, topSteps > 0);
+        parser.setRowOrder(rowOrder);
         parser.printResults();
-        parser.exportResultsToCsv("result.csv");
-        parser.exportResultsToHtml("result.html");
+        parser.printSlowest(topK);
+        parser.printSlowestSteps(topSteps);
+        parser.exportResultsToCsv("result.csv", csvStatsPath);
+        parser.exportResultsToHtml("result.html", htmlPageSize);
+        if (profile) {
+            System.out.print(parser.getMetrics().formatBreakdown());
+        }
+        printSpillSummary(parser);
+
+        // 이력에 이번 run 을 넣기 전에 기준 run 을 읽는다
+        boolean regression = false;
+        if (diffBaselinePath != null || diffHistoryDir != null) {
+            List<ScenarioData> baselineRows = diffBaselinePath != null
+                    ? new ArrayList<>(parseReport(diffBaselinePath, inputMode).correlation.rowIdToScenarioData().values())
+                    : readLatestRun(diffHistoryDir);
+            RunDiff.Result diff = new RunDiff(maxLatencyIncrease, maxPassRateDrop)
+                    .compare(baselineRows, parser.correlation.rowIdToScenarioData().values());
+            printDiff(diff, maxLatencyIncrease, maxPassRateDrop);
+            regression = diff.isRegression();
+        }
+        appendToHistory(parser, historyDir, reportPath);
+        if (regression) {
+            System.exit(1);
+        }
+    }
+
+    static CucumberHtmlParser parseReport(String reportPath, String inputMode) throws IOException {
+        return parseReport(reportPath, inputMode, 0, null, false);
+    }
+
+    static CucumberHtmlParser parseReport(String reportPath, String inputMode, long memoryBudget, Path spillDir,
+                                          boolean stepTiming) throws IOException {
+        CucumberHtmlParser parser = new CucumberHtmlParser();
+        parser.setMemoryBudget(memoryBudget, spillDir);
+        parser.setStepTimingEnabled(stepTiming);
+        if ("stream".equals(inputMode)) {
+            parser.parseFileStreaming(reportPath);
+        } else if ("mmap".equals(inputMode)) {
+            parser.parseFileMapped(reportPath);
+        } else if (isCompressedPath(reportPath)) {
+            parser.parseCompressedFile(reportPath);
+        } else if ("ndjson".equals(inputMode) || isNdjsonPath(reportPath)) {
+            parser.parseNdjsonFile(reportPath);
+        } else {
+            parser.parseFile(reportPath);
+        }
+        return parser;
+    }
+
+    private static void runBatch(String batchPattern, int maxInFlight, String csvStatsPath, int htmlPageSize,
+                                 String historyDir, boolean profile, long memoryBudget, Path spillDir,
+                                 RowOrder rowOrder, int topK, int topSteps) throws IOException {
+        List<Path> reportPaths = BatchAnalyzer.resolveReports(batchPattern);
+        System.out.println("[batch] 리포트 수: " + reportPaths.size() + ", 동시 처리: " + maxInFlight);
+        BatchAnalyzer batchAnalyzer = new BatchAnalyzer(maxInFlight);
+        batchAnalyzer.setMemoryBudget(memoryBudget, spillDir);
+        batchAnalyzer.setStepTimingEnabled(topSteps > 0);
+        CucumberHtmlParser combined = batchAnalyzer.analyze(reportPaths);
+        combined.setRowOrder(rowOrder);
+        combined.printStatsToConsole();
+        combined.printRetryStats();
+        combined.printSlowest(topK);
+        combined.printSlowestSteps(topSteps);
+        combined.exportResultsToCsv("result.csv", csvStatsPath);
+        combined.exportResultsToHtml("result.html", htmlPageSize);
+        if (profile) {
+            // 샤드 합계 (병렬로 처리되므로 벽시계 시간보다 클 수 있다)
+            System.out.print(combined.getMetrics().formatBreakdown());
+        }
+        printSpillSummary(combined);
+        appendToHistory(combined, historyDir, batchPattern);
+        if (!batchAnalyzer.getFailedReports().isEmpty()) {
+            System.err.println("[batch] 실패한 리포트 수: " + batchAnalyzer.getFailedReports().size());
+        }
+    }
+
+    // 종료 신호를 받을 때까지 HTTP 분석 서비스를 띄운다 (서버 스레드가 JVM 을 유지)
+    private static void runServer(int port, String serveRoot, long cacheBytes, int parseConcurrency) throws IOException {
+        AnalysisServer server = new AnalysisServer(new InetSocketAddress(port), cacheBytes,
+                serveRoot == null ? null : Paths.get(serveRoot), parseConcurrency);
+        server.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(server::stop));
+        System.out.println("[serve] http://localhost:" + server.getPort() + "/analyze (캐시 " + (cacheBytes >> 20)
+                + " MB, 동시 파싱 " + parseConcurrency + ", path 허용: " + (serveRoot == null ? "없음" : serveRoot) + ")");
+    }
+
+    // 실행 중인 NDJSON 메시지 파일을 따라가며 주기적으로 통계/CSV 를 갱신, testRunFinished 에서 종료
+    private static void runFollow(String reportPath, String csvStatsPath, int htmlPageSize, String historyDir,
+                                  boolean profile, long memoryBudget, Path spillDir, RowOrder rowOrder, int topK,
+                                  int topSteps) throws IOException {
+        CucumberHtmlParser parser = new CucumberHtmlParser();
+        parser.setMemoryBudget(memoryBudget, spillDir);
+        parser.setStepTimingEnabled(topSteps > 0);
+        parser.setRowOrder(rowOrder);
+        NdjsonTailer tailer = new NdjsonTailer(Paths.get(reportPath), parser);
+        System.out.println("[follow] " + reportPath + " 추적 시작 (testRunFinished 에서 종료)");
+        try {
+            tailer.follow(NdjsonTailer.DEFAULT_POLL_MILLIS, NdjsonTailer.DEFAULT_REPORT_MILLIS, () -> {
+                parser.printStatsToConsole();
+                parser.exportResultsToCsv("result.csv", csvStatsPath);
+            });
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("follow interrupted", e);
+        }
+        parser.exportResultsToHtml("result.html", htmlPageSize);
+        parser.printRetryStats();
+        parser.printSlowest(topK);
+        parser.printSlowestSteps(topSteps);
+        if (profile) {
+            System.out.print(parser.getMetrics().formatBreakdown());
+        }
+        printSpillSummary(parser);
+        appendToHistory(parser, historyDir, reportPath);
+    }
+
+    private static void printSpillSummary(CucumberHtmlParser parser) {
+        if (parser.getSpilledRowCount() > 0) {
+            System.out.println("[spill] 메모리 예산 초과로 " + parser.getSpilledRowCount() + " 행을 디스크로 내보냄 ("
+                    + (parser.correlation.spilledFileBytes() >> 10) + " KB)");
+        }
+        long budget = parser.correlation.memoryBudgetBytes();
+        long unspillable = parser.correlation.unspillableBytes();
+        if (budget > 0 && unspillable > budget) {
+            System.out.println("[spill] 경고: 내보낼 수 없는 ID 사전/조인 컬럼(약 " + (unspillable >> 20)
+                    + " MB)만으로 메모리 예산(" + (budget >> 20) + " MB)을 넘음");
+        }
+    }
+
+    // historyDir 가 지정된 경우에만 이번 실행 결과를 이력 저장소에 추가
+    private static void appendToHistory(CucumberHtmlParser parser, String historyDir, String label) throws IOException {
+        if (historyDir == null) {
+            return;
+        }
+        RunHistoryStore store = new RunHistoryStore(Paths.get(historyDir));
+        RunHistoryStore.RunInfo run = store.append(System.currentTimeMillis(), label,
+                parser.correlation.rowIdToScenarioData().values());
+        System.out.println("[history] " + historyDir + " 에 run #" + store.getRuns().size() + " 추가 (" + run.rowCount + " 행)");
+    }
+
+    private static List<ScenarioData> readLatestRun(String historyDir) throws IOException {
+        RunHistoryStore store = new RunHistoryStore(Paths.get(historyDir));
+        if (store.getRuns().isEmpty()) {
+            throw new IOException("no stored run to diff against in " + historyDir);
+        }
+        return store.readRun(store.getRuns().size() - 1);
+    }
+
+    static void printDiff(RunDiff.Result diff, double maxLatencyIncrease, double maxPassRateDrop) {
+        System.out.println("[diff] 기준 PASS_RATE: " + String.format("%.1f", diff.baselineStats.passRate)
+                + "% (" + diff.baselineStats.totalCount + " 건), 현재 PASS_RATE: "
+                + String.format("%.1f", diff.currentStats.passRate) + "% (" + diff.currentStats.totalCount + " 건)");
+        printDiffList("새로 실패", diff.newlyFailing);
+        printDiffList("새로 통과", diff.newlyPassing);
+        printDiffList("사라진 TC", diff.missing);
+        printDiffList("추가된 TC", diff.added);
+        System.out.println("--- 엔드포인트별 p95 변화 (허용: +" + String.format("%.1f", maxLatencyIncrease)
+                + "%, pass rate -" + String.format("%.1f", maxPassRateDrop) + "%p) ---");
+        for (RunDiff.EndpointDelta delta : diff.endpointDeltas) {
+            System.out.println((delta.regressed ? "[REGRESSION] " : "") + "api = " + delta.endpoint
+                    + ", p95 = " + String.format("%.3f", delta.baselineLatency)
+                    + " -> " + String.format("%.3f", delta.currentLatency)
+                    + " sec (" + String.format("%+.1f", delta.latencyChangePercent) + "%)"
+                    + ", passRate = " + String.format("%.1f", delta.baseline.getPassRate())
+                    + " -> " + String.format("%.1f", delta.current.getPassRate()) + "%");
+        }
+        System.out.println(diff.isRegression() ? "[diff] 회귀 있음" : "[diff] 회귀 없음");
+    }
+
+    private static void printDiffList(String title, List<String> testcaseIds) {
+        System.out.println("--- " + title + ": " + testcaseIds.size() + " 건 ---");
+        for (int i = 0; i < Math.min(DIFF_LIST_LIMIT, testcaseIds.size()); i++) {
+            System.out.println(testcaseIds.get(i));
+        }
+        if (testcaseIds.size() > DIFF_LIST_LIMIT) {
+            System.out.println("... 외 " + (testcaseIds.size() - DIFF_LIST_LIMIT) + " 건");
+        }
+    }
+
+    static void printHistoryReport(RunHistoryStore store, int lastRuns, double regressionThreshold) throws IOException {
+        System.out.println("[history] 저장된 run 수: " + store.getRuns().size());
+        System.out.println("--- 엔드포인트별 실행 시간 (최근 " + lastRuns + " run) ---");
+        for (Map.Entry<String, LatencyHistogram> entry : store.endpointLatency(lastRuns).entrySet()) {
+            System.out.println("api = " + entry.getKey()
+                    + ", total = " + entry.getValue().getTotalCount()
+                    + ", " + entry.getValue().appendSummary(new StringBuilder(), ", "));
+        }
+        System.out.println("--- 실행 시간 증가 TC (최근 run vs 직전 " + lastRuns + " run 평균, +"
+                + String.format("%.1f", regressionThreshold) + "% 초과) ---");
+        for (RunHistoryStore.DurationChange change : store.durationRegressions(lastRuns, regressionThreshold)) {
+            System.out.println("testcase = " + change.testcaseId
+                    + ", baseline = " + String.format("%.3f", change.baselineSeconds)
+                    + " sec, latest = " + String.format("%.3f", change.latestSeconds)
+                    + " sec, change = +" + String.format("%.1f", change.changePercent) + "%");
+        }
     }
 
     public void parseFile(String filePath) throws IOException {
-        String htmlContent = Files.readString(Paths.get(filePath));
+        long started = ParseMetrics.start();
+        Path path = Paths.get(filePath);
+        String htmlContent = Files.readString(path);
+        metrics.addBytesRead(Files.size(path));
+        metrics.stop(ParseMetrics.Phase.READ, started, 1);
         parseHtml(htmlContent);
     }
 
     public void parseHtml(String htmlContent) {
+        long started = ParseMetrics.start();
         String cucumberJsonArray = extractCucumberMessagesJson(htmlContent);
+        metrics.stop(ParseMetrics.Phase.MARKER_SEARCH, started, 1);
+        started = ParseMetrics.start();
         List<?> dataArray = readJsonArray(cucumberJsonArray);
+        metrics.stop(ParseMetrics.Phase.JSON_DECODE, started, dataArray.size());
+        started = ParseMetrics.start();
         for (Object element : dataArray) {
             if (element instanceof Map) {
-                Map elementMap = (Map) element;
-                extractGherkinRows(elementMap);
-                extractPickleMap(elementMap);
-                extractTestCaseMap(elementMap);
-                markTestCaseStart(elementMap);
-                markStepStatus(elementMap);
+                processElement((Map) element);
+            }
+        }
+        metrics.stop(ParseMetrics.Phase.CORRELATION, started, dataArray.size());
+        updateFinalStatuses();
+    }
+
+    /**
+     * 파일 전체를 String 으로 올리지 않고, 마커 이후의 배열을 원소 단위로 읽어 바로 처리한다.
+     * 결과(rowIdToScenarioDataMap)는 parseFile 과 동일하다.
+     */
+    public void parseFileStreaming(String filePath) throws IOException {
+        metrics.addBytesRead(Files.size(Paths.get(filePath)));
+        try (Reader reader = Files.newBufferedReader(Paths.get(filePath), StandardCharsets.UTF_8)) {
+            parseStream(reader);
+        }
+    }
+
+    public void parseStream(Reader reader) throws IOException {
+        long started = ParseMetrics.start();
+        boolean found = skipToMarker(reader, MESSAGES_MARKER);
+        metrics.stop(ParseMetrics.Phase.MARKER_SEARCH, started, 1);
+        if (found) {
+            try (JsonParser jsonParser = STREAMING_MAPPER.getFactory().createParser(reader)) {
+                parseMessageArray(jsonParser);
+            }
+        }
+        updateFinalStatuses();
+    }
+
+    /**
+     * 파일을 메모리 매핑해서 디코딩 없이 바이트 단위로 마커를 찾고,
+     * '[' 부터의 매핑 영역을 그대로 Jackson 에 넘긴다. (힙 복사 없음)
+     * 배열의 끝은 Jackson 이 대응하는 ']' 에서 멈추므로 "];" 를 따로 찾지 않는다.
+     */
+    public void parseFileMapped(String filePath) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(filePath), StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                // 단일 매핑 한계(2GB) 초과 시 스트리밍 경로 사용
+                parseFileStreaming(filePath);
+                return;
             }
+            long started = ParseMetrics.start();
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            metrics.addBytesRead(size);
+            metrics.stop(ParseMetrics.Phase.READ, started, 1);
+            parseHtmlBytes(mapped);
         }
+    }
+
+    /**
+     * HTML 리포트 바이트(매핑한 파일, 업로드 본문 등)에서 마커를 찾고 '[' 부터 바로 파싱한다. position 0 기준.
+     */
+    void parseHtmlBytes(ByteBuffer content) throws IOException {
+        long started = ParseMetrics.start();
+        int markerIndex = indexOf(content, MESSAGES_MARKER_BYTES, 0);
+        int openIndex = markerIndex < 0 ? -1 : indexOf(content, new byte[]{'['}, markerIndex + MESSAGES_MARKER_BYTES.length);
+        metrics.stop(ParseMetrics.Phase.MARKER_SEARCH, started, 1);
+        if (openIndex >= 0) {
+            ByteBuffer payload = content.duplicate();
+            payload.position(openIndex);
+            try (JsonParser jsonParser = STREAMING_MAPPER.getFactory()
+                    .createParser(new ByteBufferBackedInputStream(payload))) {
+                parseMessageArray(jsonParser);
+            }
+        }
+        updateFinalStatuses();
+    }
+
+    // NDJSON 바이트를 이 스레드에서 한 번에 디코딩/처리한다 (position 0 기준)
+    void parseNdjsonBytes(ByteBuffer content) throws IOException {
+        List<Envelope> envelopes = NdjsonReader.decode(content, 0, metrics);
+        long started = ParseMetrics.start();
+        for (Envelope envelope : envelopes) {
+            processEnvelope(envelope);
+        }
+        metrics.stop(ParseMetrics.Phase.CORRELATION, started, envelopes.size());
         updateFinalStatuses();
     }
 
+    /**
+     * Cucumber message 포매터의 NDJSON 출력(한 줄에 envelope 하나)을 HTML 렌더링 없이 바로 읽는다.
+     * 줄 단위 청크를 여러 스레드에서 디코딩하고, 상관관계 처리는 청크 순서대로 이 스레드에서 한다.
+     */
+    public void parseNdjsonFile(String filePath) throws IOException {
+        parseNdjsonFile(filePath, Runtime.getRuntime().availableProcessors());
+    }
+
+    public void parseNdjsonFile(String filePath, int parallelism) throws IOException {
+        Path path = Paths.get(filePath);
+        metrics.addBytesRead(Files.size(path));
+        new NdjsonReader(parallelism, NdjsonReader.DEFAULT_CHUNK_SIZE).read(path, this::processEnvelope, metrics);
+        updateFinalStatuses();
+    }
+
+    static boolean isNdjsonPath(String filePath) {
+        return filePath.endsWith(".ndjson") || filePath.endsWith(".jsonl");
+    }
+
+    static boolean isCompressedPath(String filePath) {
+        return filePath.endsWith(".gz") || filePath.endsWith(".zip");
+    }
+
+    /**
+     * gzip(.gz) 이나 zip(.zip) 으로 보관된 리포트를 디스크에 풀지 않고, 압축을 풀면서 바로 읽는다.
+     * 안쪽 이름(.gz 를 뗀 이름, zip 항목 이름)이 .ndjson / .jsonl 이면 NDJSON, 아니면 HTML 로 본다.
+     * zip 에 리포트 항목이 여러 개(샤드 묶음)면 항목마다 따로 파싱해서 rowId 앞에 항목 번호를 붙여 합친다.
+     * 재시도/스텝 집계도 합치지만, 옮긴 행의 행별 스텝 시간(getStepTimings)은 남지 않는다.
+     */
+    public void parseCompressedFile(String filePath) throws IOException {
+        Path path = Paths.get(filePath);
+        metrics.addBytesRead(Files.size(path));
+        if (filePath.endsWith(".gz")) {
+            try (InputStream in = new GZIPInputStream(Files.newInputStream(path), STREAM_BUFFER_SIZE)) {
+                parseInputStream(in, filePath.substring(0, filePath.length() - ".gz".length()));
+            }
+            return;
+        }
+        try (ZipFile zipFile = new ZipFile(path.toFile())) {
+            List<ZipEntry> reportEntries = new ArrayList<>();
+            Enumeration<? extends ZipEntry> entries = zipFile.entries();
+            while (entries.hasMoreElements()) {
+                ZipEntry entry = entries.nextElement();
+                if (!entry.isDirectory() && isReportEntry(entry.getName())) {
+                    reportEntries.add(entry);
+                }
+            }
+            if (reportEntries.size() == 1) {
+                try (InputStream in = zipFile.getInputStream(reportEntries.get(0))) {
+                    parseInputStream(in, reportEntries.get(0).getName());
+                }
+                return;
+            }
+            for (int i = 0; i < reportEntries.size(); i++) {
+                // 항목은 하나씩 파싱하므로 샤드 parser 도 같은 메모리 예산/임시 디렉터리/스텝 기록 설정을 쓴다
+                CucumberHtmlParser shardParser = new CucumberHtmlParser();
+                shardParser.setMemoryBudget(correlation.memoryBudgetBytes(), correlation.spillDirectory());
+                shardParser.setStepTimingEnabled(correlation.stepTimingEnabled());
+                try {
+                    try (InputStream in = zipFile.getInputStream(reportEntries.get(i))) {
+                        shardParser.parseInputStream(in, reportEntries.get(i).getName());
+                    }
+                    mergeScenarioRows(i + ":", shardParser.getRowIdToScenarioData());
+                    mergeShardStats(shardParser.getRetryStats(), shardParser.getStepStats());
+                    metrics.add(shardParser.metrics);
+                } finally {
+                    shardParser.closeSpill();
+                }
+            }
+        }
+    }
+
+    private static boolean isReportEntry(String name) {
+        return name.endsWith(".html") || name.endsWith(".htm") || isNdjsonPath(name);
+    }
+
+    // name 은 형식 판단에만 쓴다. in 은 다 읽으면 닫힌다
+    void parseInputStream(InputStream in, String name) throws IOException {
+        if (isNdjsonPath(name)) {
+            try (JsonParser jsonParser = STREAMING_MAPPER.getFactory().createParser(in)) {
+                parseEnvelopes(jsonParser);
+            }
+        } else {
+            long started = ParseMetrics.start();
+            InputStream payload = skipToMarker(in, MESSAGES_MARKER_BYTES);
+            metrics.stop(ParseMetrics.Phase.MARKER_SEARCH, started, 1);
+            if (payload != null) {
+                try (JsonParser jsonParser = STREAMING_MAPPER.getFactory().createParser(payload)) {
+                    parseMessageArray(jsonParser);
+                }
+            }
+        }
+        updateFinalStatuses();
+    }
+
+    /**
+     * in 을 marker 바로 뒤까지 읽고, 이어서 나머지를 읽는 스트림을 돌려준다. (바이트 단위 KMP, 블록 단위로 읽음)
+     * @return marker 가 없으면 null
+     */
+    static InputStream skipToMarker(InputStream in, byte[] marker) throws IOException {
+        int[] failure = new int[marker.length];
+        for (int i = 1, k = 0; i < marker.length; i++) {
+            while (k > 0 && marker[i] != marker[k]) {
+                k = failure[k - 1];
+            }
+            if (marker[i] == marker[k]) {
+                k++;
+            }
+            failure[i] = k;
+        }
+        byte[] buffer = new byte[STREAM_BUFFER_SIZE];
+        int matched = 0;
+        int read;
+        while ((read = in.read(buffer)) >= 0) {
+            for (int i = 0; i < read; i++) {
+                while (matched > 0 && buffer[i] != marker[matched]) {
+                    matched = failure[matched - 1];
+                }
+                if (buffer[i] == marker[matched]) {
+                    matched++;
+                    if (matched == marker.length) {
+                        return new SequenceInputStream(new ByteArrayInputStream(buffer, i + 1, read - i - 1), in);
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    static int indexOf(ByteBuffer buffer, byte[] pattern, int fromIndex) {
+        int last = buffer.limit() - pattern.length;
+        byte first = pattern[0];
+        for (int i = fromIndex; i <= last; i++) {
+            if (buffer.get(i) != first) {
+                continue;
+            }
+            int j = 1;
+            while (j < pattern.length && buffer.get(i + j) == pattern[j]) {
+                j++;
+            }
+            if (j == pattern.length) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // 현재 위치가 '[' 인 배열을 원소(envelope) 단위로 읽어 처리 후 버린다
+    void parseMessageArray(JsonParser jsonParser) throws IOException {
+        if (jsonParser.nextToken() != JsonToken.START_ARRAY) {
+            return;
+        }
+        parseEnvelopes(jsonParser);
+    }
+
+    /**
+     * 배열 끝(']') 이나 입력 끝까지 envelope 객체를 ENVELOPE_BATCH_SIZE 개씩 읽어 처리한다.
+     * 배열 원소와 NDJSON 의 루트 값 모두 이걸로 읽고, 객체가 아닌 값은 건너뛴다.
+     */
+    private void parseEnvelopes(JsonParser jsonParser) throws IOException {
+        List<Envelope> batch = new ArrayList<>(ENVELOPE_BATCH_SIZE);
+        boolean more = true;
+        while (more) {
+            long started = ParseMetrics.start();
+            while (batch.size() < ENVELOPE_BATCH_SIZE) {
+                JsonToken token = jsonParser.nextToken();
+                if (token == null || token == JsonToken.END_ARRAY) {
+                    more = false;
+                    break;
+                }
+                if (token != JsonToken.START_OBJECT) {
+                    jsonParser.skipChildren();
+                    continue;
+                }
+                Envelope envelope = EnvelopeReader.read(jsonParser);
+                if (envelope != null) {
+                    batch.add(envelope);
+                } else {
+                    metrics.countEnvelope(ParseMetrics.EnvelopeType.OTHER);
+                }
+            }
+            metrics.stop(ParseMetrics.Phase.JSON_DECODE, started, batch.size());
+            started = ParseMetrics.start();
+            for (Envelope envelope : batch) {
+                processEnvelope(envelope);
+            }
+            metrics.stop(ParseMetrics.Phase.CORRELATION, started, batch.size());
+            batch.clear();
+        }
+    }
+
+    void processElement(Map elementMap) {
+        metrics.countEnvelope(envelopeType(elementMap));
+        extractGherkinRows(elementMap);
+        extractPickleMap(elementMap);
+        extractTestCaseMap(elementMap);
+        markTestCaseStart(elementMap);
+        markStepStatus(elementMap);
+    }
+
+    private static ParseMetrics.EnvelopeType envelopeType(Map elementMap) {
+        if (elementMap.containsKey("gherkinDocument")) {
+            return ParseMetrics.EnvelopeType.GHERKIN_DOCUMENT;
+        } else if (elementMap.containsKey("pickle")) {
+            return ParseMetrics.EnvelopeType.PICKLE;
+        } else if (elementMap.containsKey("testCase")) {
+            return ParseMetrics.EnvelopeType.TEST_CASE;
+        } else if (elementMap.containsKey("testCaseStarted")) {
+            return ParseMetrics.EnvelopeType.TEST_CASE_STARTED;
+        } else if (elementMap.containsKey("testStepFinished")) {
+            return ParseMetrics.EnvelopeType.TEST_STEP_FINISHED;
+        } else if (elementMap.containsKey("testRunFinished")) {
+            return ParseMetrics.EnvelopeType.TEST_RUN_FINISHED;
+        }
+        return ParseMetrics.EnvelopeType.OTHER;
+    }
+
+    private static ParseMetrics.EnvelopeType envelopeType(Envelope envelope) {
+        if (envelope.gherkinDocument != null) {
+            return ParseMetrics.EnvelopeType.GHERKIN_DOCUMENT;
+        } else if (envelope.pickle != null) {
+            return ParseMetrics.EnvelopeType.PICKLE;
+        } else if (envelope.testCase != null) {
+            return ParseMetrics.EnvelopeType.TEST_CASE;
+        } else if (envelope.testCaseStarted != null) {
+            return ParseMetrics.EnvelopeType.TEST_CASE_STARTED;
+        } else if (envelope.testStepFinished != null) {
+            return ParseMetrics.EnvelopeType.TEST_STEP_FINISHED;
+        } else if (envelope.testRunFinished != null) {
+            return ParseMetrics.EnvelopeType.TEST_RUN_FINISHED;
+        }
+        return ParseMetrics.EnvelopeType.OTHER;
+    }
+
+    /**
+     * reader 를 marker 바로 뒤까지 소비한다. (KMP, 문자 단위)
+     * @return marker 를 찾았으면 true
+     */
+    static boolean skipToMarker(Reader reader, String marker) throws IOException {
+        int[] failure = new int[marker.length()];
+        for (int i = 1, k = 0; i < marker.length(); i++) {
+            while (k > 0 && marker.charAt(i) != marker.charAt(k)) {
+                k = failure[k - 1];
+            }
+            if (marker.charAt(i) == marker.charAt(k)) {
+                k++;
+            }
+            failure[i] = k;
+        }
+        int matched = 0;
+        int ch;
+        while ((ch = reader.read()) >= 0) {
+            while (matched > 0 && ch != marker.charAt(matched)) {
+                matched = failure[matched - 1];
+            }
+            if (ch == marker.charAt(matched)) {
+                matched++;
+                if (matched == marker.length()) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
     public String extractCucumberMessagesJson(String htmlContent) {
-        int startIndex = htmlContent.indexOf("window.CUCUMBER_MESSAGES =");
+        int startIndex = htmlContent.indexOf(MESSAGES_MARKER);
         if (startIndex < 0) {
             return "[]";
         }
@@ -63,8 +736,7 @@ public class CucumberHtmlParser {
 
     public List<?> readJsonArray(String jsonArrayString) {
         try {
-            ObjectMapper objectMapper = new ObjectMapper();
-            return objectMapper.readValue(jsonArrayString, List.class);
+            return JSON_ARRAY_READER.readValue(jsonArrayString);
         } catch (Exception e) {
             return Collections.emptyList();
         }
@@ -117,24 +789,12 @@ public class CucumberHtmlParser {
                 if (cellsList == null || cellsList.isEmpty()) {
                     continue;
                 }
-                ScenarioData scenarioData = new ScenarioData();
-                if (cellsList.size() >= 1) {
-                    Map cellMap = (Map) cellsList.get(0);
-                    scenarioData.testcaseId = (String) cellMap.get("value");
-                }
-                if (cellsList.size() >= 2) {
-                    Map cellMap = (Map) cellsList.get(1);
-                    scenarioData.method = (String) cellMap.get("value");
+                String[] cellValues = new String[Math.min(cellsList.size(), 4)];
+                for (int i = 0; i < cellValues.length; i++) {
+                    Map cellMap = (Map) cellsList.get(i);
+                    cellValues[i] = (String) cellMap.get("value");
                 }
-                if (cellsList.size() >= 3) {
-                    Map cellMap = (Map) cellsList.get(2);
-                    scenarioData.apiEndpoint = (String) cellMap.get("value");
-                }
-                if (cellsList.size() >= 4) {
-                    Map cellMap = (Map) cellsList.get(3);
-                    scenarioData.statusCode = (String) cellMap.get("value");
-                }
-                rowIdToScenarioDataMap.put(rowId, scenarioData);
+                addScenarioRow(rowId, cellValues);
             }
         }
     }
@@ -149,22 +809,25 @@ public class CucumberHtmlParser {
         if (stepsList == null) {
             return;
         }
+        List<String> stepNodeIds = new ArrayList<>();
+        List<String> stepIds = new ArrayList<>(stepsList.size());
+        List<String> stepTexts = new ArrayList<>(stepsList.size());
         for (Object step : stepsList) {
             if (step instanceof Map) {
                 Map stepMap = (Map) step;
+                stepIds.add((String) stepMap.get("id"));
+                stepTexts.add((String) stepMap.get("text"));
                 List astNodeIds = (List) stepMap.get("astNodeIds");
                 if (astNodeIds == null) {
                     continue;
                 }
-                for (Object nodeIdObj : astNodeIds) {
-                    String nodeId = (String) nodeIdObj;
-                    if (rowIdToScenarioDataMap.containsKey(nodeId)) {
-                        pickleIdToRowIdMap.put(pickleId, nodeId);
-                        break;
-                    }
+                for (Object astNodeId : astNodeIds) {
+                    stepNodeIds.add((String) astNodeId);
                 }
             }
         }
+        correlation.linkPickle(pickleId, stepNodeIds);
+        correlation.registerPickleSteps(pickleId, stepIds, stepTexts);
     }
 
     public void extractTestCaseMap(Map elementMap) {
@@ -174,8 +837,20 @@ public class CucumberHtmlParser {
         Map testCaseMap = (Map) elementMap.get("testCase");
         String testCaseId = (String) testCaseMap.get("id");
         String pickleId = (String) testCaseMap.get("pickleId");
-        testCaseIdToStatusMap.put(testCaseId, "PASSED");
-        testCaseIdToPickleIdMap.put(testCaseId, pickleId);
+        registerTestCase(testCaseId, pickleId);
+        List testSteps = (List) testCaseMap.get("testSteps");
+        if (testSteps == null || !correlation.stepTimingEnabled()) {
+            return;
+        }
+        List<String> testStepIds = new ArrayList<>(testSteps.size());
+        List<String> pickleStepIds = new ArrayList<>(testSteps.size());
+        for (Object step : testSteps) {
+            if (step instanceof Map) {
+                testStepIds.add((String) ((Map) step).get("id"));
+                pickleStepIds.add((String) ((Map) step).get("pickleStepId"));
+            }
+        }
+        correlation.registerTestSteps(testCaseId, pickleId, testStepIds, pickleStepIds);
     }
 
     public void markTestCaseStart(Map elementMap) {
@@ -183,9 +858,9 @@ public class CucumberHtmlParser {
             return;
         }
         Map testCaseStartedMap = (Map) elementMap.get("testCaseStarted");
-        String runId = (String) testCaseStartedMap.get("id");
-        String testCaseId = (String) testCaseStartedMap.get("testCaseId");
-        runIdToTestCaseIdMap.put(runId, testCaseId);
+        Object attempt = testCaseStartedMap.get("attempt");
+        registerTestCaseStarted((String) testCaseStartedMap.get("id"), (String) testCaseStartedMap.get("testCaseId"),
+                attempt instanceof Number ? ((Number) attempt).intValue() : -1);
     }
 
     public void markStepStatus(Map elementMap) {
@@ -211,47 +886,147 @@ public class CucumberHtmlParser {
                 durationNanos = ((Number) nanosObj).longValue();
             }
         }
-        double stepTimeSeconds = durationSeconds + (durationNanos / 1_000_000_000.0);
+        registerStepFinished(runId, (String) testStepFinishedMap.get("testStepId"), stepStatus, durationSeconds, durationNanos);
+    }
 
-        if (runIdToTestCaseIdMap.containsKey(runId)) {
-            String testCaseId = runIdToTestCaseIdMap.get(runId);
-            if (!"PASSED".equals(stepStatus)) {
-                testCaseIdToStatusMap.put(testCaseId, "FAILED");
-            }
-            String pickleId = testCaseIdToPickleIdMap.get(testCaseId);
-            if (pickleId != null) {
-                String rowId = pickleIdToRowIdMap.get(pickleId);
-                if (rowId != null) {
-                    ScenarioData scenarioData = rowIdToScenarioDataMap.get(rowId);
-                    if (scenarioData != null) {
-                        scenarioData.totalDurationSeconds += stepTimeSeconds;
-                    }
+    // 타입 모델(Envelope) 경로: Map 변환/캐스팅 없이 같은 상관관계 로직으로 바로 전달
+    void processEnvelope(Envelope envelope) {
+        metrics.countEnvelope(envelopeType(envelope));
+        if (envelope.gherkinDocument != null) {
+            extractGherkinRows(envelope.gherkinDocument);
+        }
+        if (envelope.pickle != null && envelope.pickle.steps != null) {
+            List<String> stepNodeIds = new ArrayList<>();
+            List<String> stepIds = new ArrayList<>(envelope.pickle.steps.size());
+            List<String> stepTexts = new ArrayList<>(envelope.pickle.steps.size());
+            for (Envelope.PickleStep step : envelope.pickle.steps) {
+                stepIds.add(step.id);
+                stepTexts.add(step.text);
+                if (step.astNodeIds != null) {
+                    stepNodeIds.addAll(step.astNodeIds);
+                }
+            }
+            correlation.linkPickle(envelope.pickle.id, stepNodeIds);
+            correlation.registerPickleSteps(envelope.pickle.id, stepIds, stepTexts);
+        }
+        if (envelope.testCase != null) {
+            registerTestCase(envelope.testCase.id, envelope.testCase.pickleId);
+            if (envelope.testCase.testSteps != null && correlation.stepTimingEnabled()) {
+                List<String> testStepIds = new ArrayList<>(envelope.testCase.testSteps.size());
+                List<String> pickleStepIds = new ArrayList<>(envelope.testCase.testSteps.size());
+                for (Envelope.TestStep step : envelope.testCase.testSteps) {
+                    testStepIds.add(step.id);
+                    pickleStepIds.add(step.pickleStepId);
                 }
+                correlation.registerTestSteps(envelope.testCase.id, envelope.testCase.pickleId, testStepIds, pickleStepIds);
             }
         }
+        if (envelope.testCaseStarted != null) {
+            registerTestCaseStarted(envelope.testCaseStarted.id, envelope.testCaseStarted.testCaseId,
+                    envelope.testCaseStarted.attempt == null ? -1 : envelope.testCaseStarted.attempt);
+        }
+        if (envelope.testStepFinished != null) {
+            Envelope.TestStepResult result = envelope.testStepFinished.testStepResult;
+            long durationSeconds = 0L;
+            long durationNanos = 0L;
+            if (result.duration != null) {
+                durationSeconds = result.duration.seconds;
+                durationNanos = result.duration.nanos;
+            }
+            registerStepFinished(envelope.testStepFinished.testCaseStartedId, envelope.testStepFinished.testStepId,
+                    result.status, durationSeconds, durationNanos);
+        }
     }
 
-    public void updateFinalStatuses() {
-        for (Map.Entry<String, String> entry : testCaseIdToStatusMap.entrySet()) {
-            String testCaseId = entry.getKey();
-            String finalStatus = entry.getValue();
-            String pickleId = testCaseIdToPickleIdMap.get(testCaseId);
-            if (pickleId == null) {
-                continue;
-            }
-            String rowId = pickleIdToRowIdMap.get(pickleId);
-            if (rowId == null) {
+    private void extractGherkinRows(Envelope.GherkinDocument gherkinDocument) {
+        if (gherkinDocument.feature == null || gherkinDocument.feature.children == null) {
+            return;
+        }
+        for (Envelope.FeatureChild child : gherkinDocument.feature.children) {
+            if (child.scenario == null || child.scenario.examples == null) {
                 continue;
             }
-            ScenarioData scenarioData = rowIdToScenarioDataMap.get(rowId);
-            if (scenarioData != null) {
-                scenarioData.finalStatus = finalStatus;
+            for (Envelope.Examples examples : child.scenario.examples) {
+                if (examples.tableBody == null) {
+                    continue;
+                }
+                for (Envelope.TableRow row : examples.tableBody) {
+                    if (row.cells == null || row.cells.isEmpty()) {
+                        continue;
+                    }
+                    String[] cellValues = new String[Math.min(row.cells.size(), 4)];
+                    for (int i = 0; i < cellValues.length; i++) {
+                        cellValues[i] = row.cells.get(i).value;
+                    }
+                    addScenarioRow(row.id, cellValues);
+                }
             }
         }
     }
 
+    // cellValues: testcase id / method / endpoint / status code 순 (앞에서부터 최대 4개)
+    // 다른 parser(샤드)의 최종 행을 rowId 앞에 keyPrefix 를 붙여 합친다. 입력 순서가 (리포트 번호, 리포트 안 순서) 가 되도록
+    // 호출하는 쪽이 리포트 번호 순으로 부른다.
+    void mergeScenarioRows(String keyPrefix, Map<String, ScenarioData> rows) {
+        for (Map.Entry<String, ScenarioData> entry : rows.entrySet()) {
+            correlation.addScenarioRow(keyPrefix + entry.getKey(), entry.getValue());
+        }
+    }
+
+    // 다른 parser(샤드)의 재시도/스텝 집계를 합친다 (옮긴 행에는 run 이 없으므로 행과 따로 합친다)
+    void mergeShardStats(RetryStats retryStats, Collection<StepTimingStore.StepStats> stepStats) {
+        correlation.mergeShardStats(retryStats, stepStats);
+    }
+
+    void addScenarioRow(String rowId, String[] cellValues) {
+        ScenarioData scenarioData = new ScenarioData();
+        if (cellValues.length >= 1) {
+            scenarioData.testcaseId = cellValues[0];
+        }
+        if (cellValues.length >= 2) {
+            scenarioData.method = cellValues[1];
+        }
+        if (cellValues.length >= 3) {
+            scenarioData.apiEndpoint = cellValues[2];
+        }
+        if (cellValues.length >= 4) {
+            scenarioData.statusCode = cellValues[3];
+        }
+        correlation.addScenarioRow(rowId, scenarioData);
+    }
+
+    void registerTestCase(String testCaseId, String pickleId) {
+        correlation.registerTestCase(testCaseId, pickleId);
+    }
+
+    void registerTestCaseStarted(String runId, String testCaseId) {
+        correlation.registerTestCaseStarted(runId, testCaseId);
+    }
+
+    void registerTestCaseStarted(String runId, String testCaseId, int attempt) {
+        correlation.registerTestCaseStarted(runId, testCaseId, attempt);
+    }
+
+    void registerStepFinished(String runId, String stepStatus, long durationSeconds, long durationNanos) {
+        registerStepFinished(runId, null, stepStatus, durationSeconds, durationNanos);
+    }
+
+    void registerStepFinished(String runId, String testStepId, String stepStatus, long durationSeconds, long durationNanos) {
+        double stepTimeSeconds = durationSeconds + (durationNanos / 1_000_000_000.0);
+        correlation.registerStepFinished(runId, testStepId, stepStatus, stepTimeSeconds,
+                durationSeconds * 1_000_000_000L + durationNanos);
+    }
+
+    public void updateFinalStatuses() {
+        long started = ParseMetrics.start();
+        correlation.updateFinalStatuses();
+        int rowCount = correlation.rowIdToScenarioData().size();
+        metrics.stop(ParseMetrics.Phase.FINAL_STATUS, started, rowCount);
+        metrics.recordFinalState(rowCount, correlation.pendingReferenceCount());
+    }
+
     public void printResults() {
-        for (ScenarioData scenarioData : rowIdToScenarioDataMap.values()) {
+        for (ScenarioData scenarioData : correlation.rowsInOrder(rowOrder)) {
             String line = scenarioData.finalStatus
                     + ", "
                     + scenarioData.testcaseId
@@ -264,57 +1039,127 @@ public class CucumberHtmlParser {
             System.out.println(line);
         }
         printStatsToConsole();
+        printRetryStats();
     }
 
     public void exportResultsToCsv(String csvFilePath) throws IOException {
-        try (FileWriter fileWriter = new FileWriter(csvFilePath)) {
-            fileWriter.write("status,testcase_id,method,api_endpoint,total_duration(sec)\n");
-            for (ScenarioData scenarioData : rowIdToScenarioDataMap.values()) {
-                String csvLine = safeCsv(scenarioData.finalStatus)
-                        + ","
-                        + safeCsv(scenarioData.testcaseId)
-                        + ","
-                        + safeCsv(scenarioData.method)
-                        + ","
-                        + safeCsv(scenarioData.apiEndpoint)
-                        + ","
-                        + String.format("%.3f", scenarioData.totalDurationSeconds)
-                        + "\n";
-                fileWriter.write(csvLine);
-            }
-            fileWriter.write("\n[Stats]\n");
-        }
-        appendStatsToCsv(csvFilePath);
+        exportResultsToCsv(csvFilePath, null);
+    }
+
+    /**
+     * statsFilePath 가 null 이면 기존처럼 결과 CSV 끝에 [Stats] 구역을 붙이고,
+     * 아니면 통계를 별도 파일로 써서 결과 CSV 는 순수한 표 형태로 남긴다.
+     */
+    public void exportResultsToCsv(String csvFilePath, String statsFilePath) throws IOException {
+        StatsResult statsResult = getStats();
+        long started = ParseMetrics.start();
+        Collection<ScenarioData> rows = correlation.rowsInOrder(rowOrder);
+        try (CsvReportWriter csvWriter = CsvReportWriter.open(Paths.get(csvFilePath))) {
+            csvWriter.writeHeader();
+            for (ScenarioData scenarioData : rows) {
+                csvWriter.writeRow(scenarioData);
+            }
+            if (statsFilePath == null) {
+                csvWriter.writeStatsSection(statsResult);
+            }
+        }
+        if (statsFilePath != null) {
+            try (CsvReportWriter statsWriter = CsvReportWriter.open(Paths.get(statsFilePath))) {
+                statsWriter.writeStats(statsResult);
+            }
+        }
+        metrics.addRowsExported(rows.size());
+        metrics.stop(ParseMetrics.Phase.EXPORT_CSV, started, rows.size());
     }
 
     public void exportResultsToHtml(String htmlFilePath) throws IOException {
-        StringBuilder htmlBuilder = new StringBuilder();
-        htmlBuilder.append("<html>\n");
-        htmlBuilder.append("<head><meta charset=\"UTF-8\"></head>\n");
-        htmlBuilder.append("<body>\n");
-        htmlBuilder.append("<table border=\"1\" cellspacing=\"0\" cellpadding=\"5\">\n");
-        htmlBuilder.append("<tr><th>status</th><th>testcase_id</th><th>method</th><th>api_endpoint</th><th>time(sec)</th></tr>\n");
-        for (ScenarioData scenarioData : rowIdToScenarioDataMap.values()) {
-            htmlBuilder.append("<tr>");
-            htmlBuilder.append(td(scenarioData.finalStatus));
-            htmlBuilder.append(td(scenarioData.testcaseId));
-            htmlBuilder.append(td(scenarioData.method));
-            htmlBuilder.append(td(scenarioData.apiEndpoint));
-            htmlBuilder.append(td(String.format("%.3f", scenarioData.totalDurationSeconds)));
-            htmlBuilder.append("</tr>\n");
-        }
-        htmlBuilder.append("</table>\n");
-        htmlBuilder.append("<hr/>\n");
-        htmlBuilder.append("</body>\n");
-        htmlBuilder.append("</html>\n");
-        try (FileWriter fileWriter = new FileWriter(htmlFilePath)) {
-            fileWriter.write(htmlBuilder.toString());
-        }
-        appendStatsToHtml(htmlFilePath);
-    }
-
-    private void printStatsToConsole() {
-        StatsResult statsResult = calculateStats(rowIdToScenarioDataMap.values());
+        exportResultsToHtml(htmlFilePath, 0);
+    }
+
+    /**
+     * rowsPerPage 가 0 이하이면 한 파일, 아니면 htmlFilePath 를 index 로 하고 행 표를 페이지 파일로 나눈다.
+     */
+    public void exportResultsToHtml(String htmlFilePath, int rowsPerPage) throws IOException {
+        StatsResult statsResult = getStats();
+        long started = ParseMetrics.start();
+        Collection<ScenarioData> rows = correlation.rowsInOrder(rowOrder);
+        if (rowsPerPage <= 0) {
+            HtmlReportWriter.writeSingle(Paths.get(htmlFilePath), rows, statsResult);
+        } else {
+            HtmlReportWriter.writePaged(Paths.get(htmlFilePath), rows, rows.size(), rowsPerPage, statsResult);
+        }
+        metrics.addRowsExported(rows.size());
+        metrics.stop(ParseMetrics.Phase.EXPORT_HTML, started, rows.size());
+    }
+
+    // 실행 시간이 가장 긴 시나리오와 p95 가 가장 긴 엔드포인트를 k 개씩 (k 가 0 이하이면 출력 안 함)
+    void printSlowest(int k) {
+        if (k <= 0) {
+            return;
+        }
+        System.out.println("--- 가장 느린 시나리오 " + k + " 개 ---");
+        for (ScenarioData scenarioData : getSlowestScenarios(k)) {
+            System.out.println(String.format("%.3f sec", scenarioData.totalDurationSeconds)
+                    + ", " + scenarioData.finalStatus
+                    + ", " + scenarioData.testcaseId
+                    + ", " + scenarioData.method
+                    + ", " + scenarioData.apiEndpoint);
+        }
+        System.out.println("--- 가장 느린 엔드포인트 " + k + " 개 (p95 기준) ---");
+        for (Map.Entry<String, TimeStats> entry : getSlowestEndpoints(k)) {
+            TimeStats timeStats = entry.getValue();
+            System.out.println("endpoint = " + entry.getKey()
+                    + ", p95 = " + String.format("%.3f", timeStats.latency.getPercentileSeconds(95)) + " sec"
+                    + ", avgTime = " + String.format("%.3f", timeStats.avgTimeSec) + " sec/TC"
+                    + ", total = " + timeStats.totalCount);
+        }
+    }
+
+    // 모든 시나리오에 걸쳐 시간 합계가 가장 큰 스텝(텍스트 기준) k 개 (k 가 0 이하이면 출력 안 함)
+    void printSlowestSteps(int k) {
+        if (k <= 0) {
+            return;
+        }
+        System.out.println("--- 시간 합계가 가장 큰 스텝 " + k + " 개 ---");
+        for (StepTimingStore.StepStats stats : getSlowestSteps(k)) {
+            System.out.println("step = " + stats.step
+                    + ", count = " + stats.count
+                    + ", totalTime = " + String.format("%.3f", stats.getTotalSeconds()) + " sec"
+                    + ", avgTime = " + String.format("%.3f", stats.getAverageSeconds()) + " sec"
+                    + ", p95 = " + String.format("%.3f", stats.latency.getPercentileSeconds(95)) + " sec"
+                    + ", max = " + String.format("%.3f", stats.maxNanos / 1_000_000_000.0) + " sec");
+        }
+    }
+
+    // 재시도가 있었을 때만 전체/엔드포인트별 시도 수와 낭비 시간을 출력한다
+    void printRetryStats() {
+        RetryStats retryStats = getRetryStats();
+        if (retryStats.total.retriedCount == 0) {
+            return;
+        }
+        System.out.println("[재시도]");
+        System.out.println(formatRetryCounts(retryStats.total));
+        System.out.println("--- 엔드포인트별 재시도 (낭비 시간 순) ---");
+        List<Map.Entry<String, RetryStats.Counts>> endpoints = TopK.largest(retryStats.endpointStatsMap.entrySet(),
+                retryStats.endpointStatsMap.size(), TopK.BY_WASTED_TIME);
+        for (Map.Entry<String, RetryStats.Counts> entry : endpoints) {
+            if (entry.getValue().retriedCount > 0) {
+                System.out.println("api = " + entry.getKey() + ", " + formatRetryCounts(entry.getValue()));
+            }
+        }
+    }
+
+    private static String formatRetryCounts(RetryStats.Counts counts) {
+        return "시나리오 = " + counts.scenarioCount
+                + ", 시도 = " + counts.attemptCount
+                + ", 재시도한 시나리오 = " + counts.retriedCount
+                + ", 재시도 후 통과 = " + counts.passedOnRetryCount
+                + ", 낭비 시간 = " + String.format("%.3f", counts.wastedTimeSec) + " sec"
+                + " (" + String.format("%.1f", counts.getWastedPercent()) + "%)";
+    }
+
+    void printStatsToConsole() {
+        StatsResult statsResult = getStats();
         System.out.println("[전체 통계]");
         System.out.println("전체 테스트 수: " + statsResult.totalCount
                 + ", PASSED: " + statsResult.passedCount
@@ -326,6 +1171,7 @@ public class CucumberHtmlParser {
                 + ", API 별 평균 TC 수: " + String.format("%.1f", statsResult.avgTcPerApi)
                 + ", API 별 평균 Pass rate: " + String.format("%.1f", statsResult.avgApiPassRate) + "%"
                 + ", API 별 평균 실행 시간: " + String.format("%.3f", statsResult.avgApiExecTime) + " sec");
+        System.out.println("TC 실행 시간 분포(초): " + statsResult.latency.appendSummary(new StringBuilder(), ", "));
         System.out.println("--- 메서드별 ---");
         for (Map.Entry<String, TimeStats> entry : statsResult.methodStatsMap.entrySet()) {
             String methodName = entry.getKey();
@@ -340,7 +1186,8 @@ public class CucumberHtmlParser {
                     + ", API 개수 = " + timeStats.distinctApiCount
                     + ", API별 평균 TC 수 = " + String.format("%.1f", timeStats.avgTcPerApi)
                     + ", API별 평균 Pass rate = " + String.format("%.1f", timeStats.avgApiPassRate) + "%"
-                    + ", API별 평균 실행 시간 = " + String.format("%.3f", timeStats.avgApiExecTime) + " sec");
+                    + ", API별 평균 실행 시간 = " + String.format("%.3f", timeStats.avgApiExecTime) + " sec"
+                    + ", " + timeStats.latency.appendSummary(new StringBuilder(), ", "));
         }
         System.out.println("--- 엔드포인트별 (method + endpoint) ---");
         for (Map.Entry<String, TimeStats> entry : statsResult.endpointStatsMap.entrySet()) {
@@ -353,279 +1200,33 @@ public class CucumberHtmlParser {
                     + ", failed = " + timeStats.failedCount
                     + ", passRate = " + String.format("%.1f", timeStats.getPassRate()) + "%"
                     + ", totalTime = " + String.format("%.3f", timeStats.totalTimeSec)
-                    + " sec, avgTime = " + String.format("%.3f", timeStats.avgTimeSec) + " sec/TC");
-        }
-    }
-
-    private void appendStatsToCsv(String csvFilePath) throws IOException {
-        StatsResult sr = calculateStats(rowIdToScenarioDataMap.values());
-        try (FileWriter fw = new FileWriter(csvFilePath, true)) {
-            fw.write("Overall,"
-                    + sr.totalCount
-                    + ",passed="
-                    + sr.passedCount
-                    + ",failed="
-                    + sr.failedCount
-                    + ",passRate="
-                    + String.format("%.1f", sr.passRate)
-                    + "%,totalTime="
-                    + String.format("%.3f", sr.totalTimeSec)
-                    + ",avgTime="
-                    + String.format("%.3f", sr.avgTimePerTc)
-                    + ",totalAPI="
-                    + sr.totalApiCount
-                    + ",avgTcPerApi="
-                    + String.format("%.1f", sr.avgTcPerApi)
-                    + ",avgApiPassRate="
-                    + String.format("%.1f", sr.avgApiPassRate)
-                    + "%,avgApiExecTime="
-                    + String.format("%.3f", sr.avgApiExecTime)
-                    + "\n");
-            fw.write("Method Stats:\n");
-            for (Map.Entry<String, TimeStats> e : sr.methodStatsMap.entrySet()) {
-                String methodName = e.getKey();
-                TimeStats ts = e.getValue();
-                fw.write(methodName
-                        + ","
-                        + ts.totalCount
-                        + ",passed="
-                        + ts.passedCount
-                        + ",failed="
-                        + ts.failedCount
-                        + ",passRate="
-                        + String.format("%.1f", ts.getPassRate())
-                        + "%,totalTime="
-                        + String.format("%.3f", ts.totalTimeSec)
-                        + ",avgTime="
-                        + String.format("%.3f", ts.avgTimeSec)
-                        + ",APIcount="
-                        + ts.distinctApiCount
-                        + ",avgTcPerApi="
-                        + String.format("%.1f", ts.avgTcPerApi)
-                        + ",avgApiPassRate="
-                        + String.format("%.1f", ts.avgApiPassRate)
-                        + "%,avgApiExecTime="
-                        + String.format("%.3f", ts.avgApiExecTime)
-                        + "\n");
-            }
-            fw.write("Endpoint Stats (method + endpoint):\n");
-            for (Map.Entry<String, TimeStats> e : sr.endpointStatsMap.entrySet()) {
-                String combinedApiKey = e.getKey();
-                TimeStats ts = e.getValue();
-                fw.write(combinedApiKey
-                        + ","
-                        + ts.totalCount
-                        + ",passed="
-                        + ts.passedCount
-                        + ",failed="
-                        + ts.failedCount
-                        + ",passRate="
-                        + String.format("%.1f", ts.getPassRate())
-                        + "%,totalTime="
-                        + String.format("%.3f", ts.totalTimeSec)
-                        + ",avgTime="
-                        + String.format("%.3f", ts.avgTimeSec)
-                        + "\n");
-            }
-        }
-    }
-
-    private void appendStatsToHtml(String htmlFilePath) throws IOException {
-        StatsResult sr = calculateStats(rowIdToScenarioDataMap.values());
-        String oldHtml = new String(Files.readAllBytes(Paths.get(htmlFilePath)));
-        StringBuilder sb = new StringBuilder();
-        sb.append("<h3>통계</h3>\n");
-        sb.append("<p>전체 테스트 수: ")
-                .append(sr.totalCount)
-                .append(", PASSED: ")
-                .append(sr.passedCount)
-                .append(", FAILED: ")
-                .append(sr.failedCount)
-                .append(", PASS_RATE: ")
-                .append(String.format("%.1f", sr.passRate))
-                .append("%<br/>")
-                .append("전체 시간: ")
-                .append(String.format("%.3f", sr.totalTimeSec))
-                .append(" sec, 평균: ")
-                .append(String.format("%.3f", sr.avgTimePerTc))
-                .append(" sec/TC<br/>")
-                .append("전체 API 개수: ")
-                .append(sr.totalApiCount)
-                .append(", API별 평균TC수: ")
-                .append(String.format("%.1f", sr.avgTcPerApi))
-                .append(", API별 평균 PassRate: ")
-                .append(String.format("%.1f", sr.avgApiPassRate))
-                .append("%, API별 평균 실행시간: ")
-                .append(String.format("%.3f", sr.avgApiExecTime))
-                .append(" sec</p>\n");
-
-        sb.append("<h4>메서드별 통계</h4><ul>\n");
-        for (Map.Entry<String, TimeStats> e : sr.methodStatsMap.entrySet()) {
-            String methodName = e.getKey();
-            TimeStats ts = e.getValue();
-            sb.append("<li>")
-                    .append(methodName)
-                    .append(": total=")
-                    .append(ts.totalCount)
-                    .append(", passed=")
-                    .append(ts.passedCount)
-                    .append(", failed=")
-                    .append(ts.failedCount)
-                    .append(", passRate=")
-                    .append(String.format("%.1f", ts.getPassRate()))
-                    .append("%, totalTime=")
-                    .append(String.format("%.3f", ts.totalTimeSec))
-                    .append(", avgTime=")
-                    .append(String.format("%.3f", ts.avgTimeSec))
-                    .append(", API개수=")
-                    .append(ts.distinctApiCount)
-                    .append(", API별평균TC수=")
-                    .append(String.format("%.1f", ts.avgTcPerApi))
-                    .append(", API별평균PassRate=")
-                    .append(String.format("%.1f", ts.avgApiPassRate))
-                    .append("%, API별평균실행시간=")
-                    .append(String.format("%.3f", ts.avgApiExecTime))
-                    .append("</li>\n");
-        }
-        sb.append("</ul>\n<h4>Endpoint Stats (method + endpoint)</h4><ul>\n");
-        for (Map.Entry<String, TimeStats> e : sr.endpointStatsMap.entrySet()) {
-            String combinedApiKey = e.getKey();
-            TimeStats ts = e.getValue();
-            sb.append("<li>")
-                    .append(combinedApiKey)
-                    .append(": total=")
-                    .append(ts.totalCount)
-                    .append(", passed=")
-                    .append(ts.passedCount)
-                    .append(", failed=")
-                    .append(ts.failedCount)
-                    .append(", passRate=")
-                    .append(String.format("%.1f", ts.getPassRate()))
-                    .append("%, totalTime=")
-                    .append(String.format("%.3f", ts.totalTimeSec))
-                    .append(", avgTime=")
-                    .append(String.format("%.3f", ts.avgTimeSec))
-                    .append("</li>\n");
-        }
-        sb.append("</ul>\n");
-        String newHtml = oldHtml + sb.toString();
-        try (FileWriter writer = new FileWriter(htmlFilePath)) {
-            writer.write(newHtml);
+                    + " sec, avgTime = " + String.format("%.3f", timeStats.avgTimeSec) + " sec/TC"
+                    + ", " + timeStats.latency.appendSummary(new StringBuilder(), ", "));
         }
     }
 
     /**
-     * 변경 핵심: endpointStatsMap 에 넣을 때, "method + endpoint" 를 하나의 키로 사용
+     * 콘솔/CSV/HTML 출력이 공유하는 통계 스냅샷.
+     * 파싱 등으로 행이 바뀌지 않았다면 다시 계산하지 않는다.
      */
-    private StatsResult calculateStats(Collection<ScenarioData> dataList) {
-        StatsResult statsResult = new StatsResult();
-        for (ScenarioData data : dataList) {
-            boolean isPassed = "PASSED".equalsIgnoreCase(data.finalStatus);
-            statsResult.totalCount++;
-            if (isPassed) {
-                statsResult.passedCount++;
-            } else {
-                statsResult.failedCount++;
-            }
-            statsResult.totalTimeSec += data.totalDurationSeconds;
-
-            // methodKey
-            String methodKey = data.method == null ? "" : data.method.toUpperCase();
-            statsResult.methodStatsMap.putIfAbsent(methodKey, new TimeStats());
-            TimeStats methodStats = statsResult.methodStatsMap.get(methodKey);
-            methodStats.totalCount++;
-            if (isPassed) {
-                methodStats.passedCount++;
-            } else {
-                methodStats.failedCount++;
-            }
-            methodStats.totalTimeSec += data.totalDurationSeconds;
-
-            // endpointKey => "METHOD + ENDPOINT"
-            String combinedApiKey = methodKey + " " + (data.apiEndpoint == null ? "" : data.apiEndpoint);
-            statsResult.endpointStatsMap.putIfAbsent(combinedApiKey, new TimeStats());
-            TimeStats endpointStats = statsResult.endpointStatsMap.get(combinedApiKey);
-            endpointStats.totalCount++;
-            if (isPassed) {
-                endpointStats.passedCount++;
-            } else {
-                endpointStats.failedCount++;
-            }
-            endpointStats.totalTimeSec += data.totalDurationSeconds;
-        }
-        if (statsResult.totalCount > 0) {
-            statsResult.passRate = 100.0 * statsResult.passedCount / statsResult.totalCount;
-            statsResult.avgTimePerTc = statsResult.totalTimeSec / statsResult.totalCount;
-        }
-        // 기존 + API(=method+endpoint) 개수
-        statsResult.totalApiCount = statsResult.endpointStatsMap.size();
-        if (statsResult.totalApiCount > 0) {
-            statsResult.avgTcPerApi = (double) statsResult.totalCount / statsResult.totalApiCount;
-            double sumApiRates = 0.0;
-            double sumApiAvgTime = 0.0;
-            for (TimeStats es : statsResult.endpointStatsMap.values()) {
-                es.computeDerived();
-                sumApiRates += es.getPassRate();
-                sumApiAvgTime += es.avgTimeSec;
-            }
-            statsResult.avgApiPassRate = sumApiRates / statsResult.totalApiCount;
-            statsResult.avgApiExecTime = sumApiAvgTime / statsResult.totalApiCount;
-        }
-        // 메서드별 API 개수/평균
-        for (Map.Entry<String, TimeStats> methodEntry : statsResult.methodStatsMap.entrySet()) {
-            String methodName = methodEntry.getKey();
-            TimeStats mStats = methodEntry.getValue();
-            Map<String, TimeStats> methodEndpointMap = new HashMap<>();
-            // 같은 method 인 row -> 묶어서 distinct api 계산
-            for (ScenarioData data : dataList) {
-                String mKey = data.method == null ? "" : data.method.toUpperCase();
-                if (mKey.equals(methodName)) {
-                    // method + endpoint
-                    String epKey = mKey + " " + (data.apiEndpoint == null ? "" : data.apiEndpoint);
-                    methodEndpointMap.putIfAbsent(epKey, new TimeStats());
-                    TimeStats epStats = methodEndpointMap.get(epKey);
-                    epStats.totalCount++;
-                    if ("PASSED".equalsIgnoreCase(data.finalStatus)) {
-                        epStats.passedCount++;
-                    } else {
-                        epStats.failedCount++;
-                    }
-                    epStats.totalTimeSec += data.totalDurationSeconds;
-                }
-            }
-            mStats.distinctApiCount = methodEndpointMap.size();
-            if (mStats.distinctApiCount > 0) {
-                mStats.avgTcPerApi = (double) mStats.totalCount / mStats.distinctApiCount;
-                double sumRates = 0.0;
-                double sumEpAvgTime = 0.0;
-                for (TimeStats ep : methodEndpointMap.values()) {
-                    ep.computeDerived();
-                    sumRates += ep.getPassRate();
-                    sumEpAvgTime += ep.avgTimeSec;
-                }
-                mStats.avgApiPassRate = sumRates / mStats.distinctApiCount;
-                mStats.avgApiExecTime = sumEpAvgTime / mStats.distinctApiCount;
-            }
-            mStats.computeDerived();
-        }
-        return statsResult;
-    }
-
-    private String safeCsv(String value) {
-        if (value == null) {
-            return "";
-        }
-        if (value.contains(",") || value.contains("\"")) {
-            value = "\"" + value.replace("\"", "\"\"") + "\"";
+    StatsResult getStats() {
+        long version = correlation.modificationCount();
+        if (cachedStats == null || cachedStatsVersion != version) {
+            long started = ParseMetrics.start();
+            Collection<ScenarioData> rows = correlation.rowIdToScenarioData().values();
+            cachedStats = calculateStats(rows);
+            cachedStatsVersion = version;
+            metrics.stop(ParseMetrics.Phase.STATS, started, rows.size());
         }
-        return value;
+        return cachedStats;
     }
 
-    private String td(String cellValue) {
-        if (cellValue == null) {
-            cellValue = "";
-        }
-        return "<td>" + cellValue + "</td>";
+    /**
+     * 변경 핵심: endpointStatsMap 에 넣을 때, "method + endpoint" 를 하나의 키로 사용
+     * 한 번의 순회로 집계한다 (StatsAccumulator, 큰 입력은 병렬 리덕션)
+     */
+    StatsResult calculateStats(Collection<ScenarioData> dataList) {
+        return StatsAccumulator.calculate(dataList);
     }
 
     // 시나리오 데이터
@@ -636,6 +1237,17 @@ public class CucumberHtmlParser {
         public String statusCode;
         public String finalStatus = "PASSED";
         public double totalDurationSeconds = 0.0;
+
+        ScenarioData copy() {
+            ScenarioData copy = new ScenarioData();
+            copy.testcaseId = testcaseId;
+            copy.method = method;
+            copy.apiEndpoint = apiEndpoint;
+            copy.statusCode = statusCode;
+            copy.finalStatus = finalStatus;
+            copy.totalDurationSeconds = totalDurationSeconds;
+            return copy;
+        }
     }
 
     // 최종 통계 결과
@@ -652,9 +1264,13 @@ public class CucumberHtmlParser {
         public double avgApiPassRate;
         public double avgApiExecTime;
 
-        public Map<String, TimeStats> methodStatsMap = new HashMap<>();
+        // TC 별 실행 시간 분포 (전체)
+        public LatencyHistogram latency = new LatencyHistogram();
+
+        // 키 순서로 출력되도록 정렬 맵을 쓴다
+        public Map<String, TimeStats> methodStatsMap = new TreeMap<>();
         // 주의: 이제 여기서는 "METHOD + ENDPOINT"를 key로 사용!
-        public Map<String, TimeStats> endpointStatsMap = new HashMap<>();
+        public Map<String, TimeStats> endpointStatsMap = new TreeMap<>();
     }
 
     // 메서드별 or API별 통계
@@ -671,12 +1287,24 @@ public class CucumberHtmlParser {
         public double avgApiPassRate;
         public double avgApiExecTime;
 
+        // TC 별 실행 시간 분포 (p50/p90/p95/p99/max)
+        public LatencyHistogram latency = new LatencyHistogram();
+
         public void computeDerived() {
             if (totalCount > 0) {
                 avgTimeSec = totalTimeSec / totalCount;
             }
         }
 
+        // 건수/시간 합계만 더한다 (파생 값은 computeDerived 로 다시 계산)
+        public void merge(TimeStats other) {
+            totalCount += other.totalCount;
+            passedCount += other.passedCount;
+            failedCount += other.failedCount;
+            totalTimeSec += other.totalTimeSec;
+            latency.merge(other.latency);
+        }
+
         public double getPassRate() {
             if (totalCount == 0) {
                 return 0.0;
@@ -687,19 +1315,93 @@ public class CucumberHtmlParser {
 
     // 필요 시 테스트에서 접근할 getter
     public Map<String, String> getScenarioStatus() {
-        return testCaseIdToStatusMap;
+        return correlation.testCaseIdToStatus();
     }
+    // 읽기 전용 뷰. 행을 넣을 때는 addScenarioRow/mergeScenarioRows 를 쓴다 (통계 캐시는 그쪽에서 무효화)
     public Map<String, ScenarioData> getRowIdToScenarioData() {
-        return rowIdToScenarioDataMap;
+        return Collections.unmodifiableMap(correlation.rowIdToScenarioData());
     }
     public Map<String, String> getPickleIdToRowId() {
-        return pickleIdToRowIdMap;
+        return correlation.pickleIdToRowId();
     }
     public Map<String, String> getTestCaseIdToPickleId() {
-        return testCaseIdToPickleIdMap;
+        return correlation.testCaseIdToPickleId();
     }
     public Map<String, String> getRunIdToTestCaseId() {
-        return runIdToTestCaseIdMap;
+        return correlation.runIdToTestCaseId();
+    }
+    /**
+     * 행 객체(문자열 포함)와 ID 사전/조인 컬럼/대기 큐의 추정 크기 합이 budgetBytes 를 넘으면 행을 spillDirectory 의
+     * 임시 파일로 내보낸다. (0 이하이면 끔) 내보낼 수 있는 것은 행뿐이라, 사전 등만으로 예산을 넘으면 그만큼은 예산을 넘는다.
+     * 행을 넣기 전에 호출한다. 통계/내보내기 결과는 메모리에만 둘 때와 같고, 전체 순회는 파일을 순서대로 읽는다.
+     * 내보낸 행은 getRowIdToScenarioData() 가 매번 디스크에서 새로 읽은 사본이므로 고쳐도 반영되지 않는다.
+     */
+    public void setMemoryBudget(long budgetBytes, Path spillDirectory) {
+        correlation.setMemoryBudget(budgetBytes, spillDirectory);
+    }
+    /**
+     * 스텝별 시간(getSlowestSteps / getStepTimings)을 기록할지. 기본은 끔이다. 켜면 스텝마다 16 바이트 정도가
+     * 메모리 예산에 더해진다. 파싱 전에 호출한다.
+     */
+    public void setStepTimingEnabled(boolean enabled) {
+        correlation.setStepTimingEnabled(enabled);
+    }
+    public int getSpilledRowCount() {
+        return correlation.spilledRowCount();
+    }
+    // 메모리 예산에 포함되지만 내보낼 수 없는 ID 사전/조인 컬럼/대기 큐의 추정 바이트
+    long getUnspillableBytes() {
+        return correlation.unspillableBytes();
+    }
+    // 내보낸 행의 임시 파일을 닫고 지운다 (이후 그 행들은 읽을 수 없다)
+    public void closeSpill() throws IOException {
+        correlation.closeSpill();
+    }
+    // printResults / CSV / HTML 의 행 순서 (기본: 입력 순서)
+    public void setRowOrder(RowOrder rowOrder) {
+        this.rowOrder = rowOrder;
+    }
+    public RowOrder getRowOrder() {
+        return rowOrder;
+    }
+    // printResults / CSV / HTML 가 쓰는 순서의 행 (읽기 전용)
+    public Collection<ScenarioData> getOrderedRows() {
+        return correlation.rowsInOrder(rowOrder);
+    }
+    // 실행 시간이 긴 것부터 최대 k 개 (행 전체를 정렬하지 않고 크기 k 힙으로 한 번 훑는다)
+    public List<ScenarioData> getSlowestScenarios(int k) {
+        return TopK.slowestScenarios(correlation.rowIdToScenarioData().values(), k);
+    }
+    // 엔드포인트("METHOD endpoint") 중 p95 실행 시간이 긴 것부터 최대 k 개
+    public List<Map.Entry<String, TimeStats>> getSlowestEndpoints(int k) {
+        return TopK.slowestEndpoints(getStats().endpointStatsMap, k);
+    }
+    // 스텝 텍스트별 시간 합계가 큰 것부터 최대 k 개 (hook 스텝은 "(hook)" 하나로 묶인다). setStepTimingEnabled(true) 가 필요하다.
+    List<StepTimingStore.StepStats> getSlowestSteps(int k) {
+        return TopK.slowestSteps(correlation.stepStats(), k);
+    }
+    // 스텝 텍스트별 합계 (순서 없음, 샤드 합치기용)
+    Collection<StepTimingStore.StepStats> getStepStats() {
+        return correlation.stepStats();
+    }
+    // 한 행(시나리오)의 스텝별 시간. 재시도한 스텝은 시도 시간을 합친 값이다. (샤드에서 옮겨온 행은 비어 있다)
+    List<StepTimingStore.StepTiming> getStepTimings(String rowId) {
+        return correlation.stepTimings(rowId);
+    }
+    // 시도 수 / 재시도 / 낭비 시간 (전체, 엔드포인트별). 최종 상태를 쓰므로 updateFinalStatuses 뒤에 호출한다.
+    RetryStats getRetryStats() {
+        return correlation.retryStats();
+    }
+    // 아직 해소되지 않은 참조 수 (메시지 누락/순서 뒤바뀜 진단용)
+    public int getPendingReferenceCount() {
+        return correlation.pendingReferenceCount();
+    }
+    // 지금까지의 단계별 시간/카운터 (--profile, JFR 과 같은 값)
+    public ParseMetrics.Snapshot getMetrics() {
+        return metrics.snapshot();
+    }
+    ParseMetrics metrics() {
+        return metrics;
     }
 }
 
@@ -0,0 +1,96 @@
+package com.example;
+
+import java.util.List;
+
+/**
+ * Cucumber message envelope 중 파서가 사용하는 타입만 담는 모델. (testRunFinished 는 실행 종료 신호로만 사용)
+ * 한 envelope 에는 이 중 하나만 채워지고, 나머지 타입(source, attachment, hook ...)은 EnvelopeReader 가 건너뛴다.
+ * 모르는 필드는 무시하도록 설정된 ObjectReader 로 읽는다.
+ */
+class Envelope {
+    public GherkinDocument gherkinDocument;
+    public Pickle pickle;
+    public TestCase testCase;
+    public TestCaseStarted testCaseStarted;
+    public TestStepFinished testStepFinished;
+    public TestRunFinished testRunFinished;
+
+    static class GherkinDocument {
+        public Feature feature;
+    }
+
+    static class Feature {
+        public List<FeatureChild> children;
+    }
+
+    static class FeatureChild {
+        public Scenario scenario;
+    }
+
+    static class Scenario {
+        public List<Examples> examples;
+    }
+
+    static class Examples {
+        public List<TableRow> tableBody;
+    }
+
+    static class TableRow {
+        public String id;
+        public List<TableCell> cells;
+    }
+
+    static class TableCell {
+        public String value;
+    }
+
+    static class Pickle {
+        public String id;
+        public List<PickleStep> steps;
+    }
+
+    static class PickleStep {
+        public String id;
+        public String text;
+        public List<String> astNodeIds;
+    }
+
+    static class TestCase {
+        public String id;
+        public String pickleId;
+        public List<TestStep> testSteps;
+    }
+
+    // pickleStepId 가 없으면 hook 스텝
+    static class TestStep {
+        public String id;
+        public String pickleStepId;
+    }
+
+    static class TestCaseStarted {
+        public String id;
+        public String testCaseId;
+        // 0 부터 시작하는 재시도 번호
+        public Integer attempt;
+    }
+
+    static class TestStepFinished {
+        public String testCaseStartedId;
+        public String testStepId;
+        public TestStepResult testStepResult;
+    }
+
+    static class TestStepResult {
+        public String status;
+        public Duration duration;
+    }
+
+    static class Duration {
+        public long seconds;
+        public long nanos;
+    }
+
+    static class TestRunFinished {
+        public Boolean success;
+    }
+}
@@ -0,0 +1,75 @@
+package com.example;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import java.io.IOException;
+
+/**
+ * envelope 의 최상위 키 하나만 보고 필요한 타입만 POJO 로 읽고,
+ * 나머지(source, attachment, stepDefinition, hook ...)는 skipChildren() 으로 토큰만 넘긴다.
+ */
+final class EnvelopeReader {
+
+    private static final ObjectReader BASE_READER = new ObjectMapper()
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+            .reader();
+    private static final ObjectReader GHERKIN_DOCUMENT_READER = BASE_READER.forType(Envelope.GherkinDocument.class);
+    private static final ObjectReader PICKLE_READER = BASE_READER.forType(Envelope.Pickle.class);
+    private static final ObjectReader TEST_CASE_READER = BASE_READER.forType(Envelope.TestCase.class);
+    private static final ObjectReader TEST_CASE_STARTED_READER = BASE_READER.forType(Envelope.TestCaseStarted.class);
+    private static final ObjectReader TEST_STEP_FINISHED_READER = BASE_READER.forType(Envelope.TestStepFinished.class);
+    private static final ObjectReader TEST_RUN_FINISHED_READER = BASE_READER.forType(Envelope.TestRunFinished.class);
+
+    private EnvelopeReader() {
+    }
+
+    /**
+     * parser 가 envelope 의 START_OBJECT 에 있을 때 호출한다. 끝나면 END_OBJECT 에 위치한다.
+     * @return 필요한 타입이 없으면 null
+     */
+    static Envelope read(JsonParser parser) throws IOException {
+        Envelope envelope = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String type = parser.currentName();
+            parser.nextToken();
+            switch (type) {
+                case "gherkinDocument":
+                    envelope = orNew(envelope);
+                    envelope.gherkinDocument = GHERKIN_DOCUMENT_READER.readValue(parser);
+                    break;
+                case "pickle":
+                    envelope = orNew(envelope);
+                    envelope.pickle = PICKLE_READER.readValue(parser);
+                    break;
+                case "testCase":
+                    envelope = orNew(envelope);
+                    envelope.testCase = TEST_CASE_READER.readValue(parser);
+                    break;
+                case "testCaseStarted":
+                    envelope = orNew(envelope);
+                    envelope.testCaseStarted = TEST_CASE_STARTED_READER.readValue(parser);
+                    break;
+                case "testStepFinished":
+                    envelope = orNew(envelope);
+                    envelope.testStepFinished = TEST_STEP_FINISHED_READER.readValue(parser);
+                    break;
+                case "testRunFinished":
+                    envelope = orNew(envelope);
+                    envelope.testRunFinished = TEST_RUN_FINISHED_READER.readValue(parser);
+                    break;
+                default:
+                    parser.skipChildren();
+                    break;
+            }
+        }
+        return envelope;
+    }
+
+    private static Envelope orNew(Envelope envelope) {
+        return envelope == null ? new Envelope() : envelope;
+    }
+}
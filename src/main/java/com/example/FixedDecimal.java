@@ -0,0 +1,48 @@
+package com.example;
+
+import java.util.Locale;
+
+/**
+ * String.format("%.Nf") 와 같은 결과를 내는 고정 소수점 포맷터.
+ * 흔한 경우(양수, 1e9 미만)는 long 연산으로 StringBuilder 에 바로 쓰고,
+ * 반올림 경계(.5 근처)나 범위 밖 값만 String.format(Locale.ROOT) 로 처리한다.
+ * 소수점은 로케일과 무관하게 항상 '.' 이다.
+ */
+final class FixedDecimal {
+
+    private static final long[] POW10 = {1L, 10L, 100L, 1_000L, 10_000L, 100_000L, 1_000_000L};
+    private static final double FAST_PATH_LIMIT = 1e9;
+
+    private FixedDecimal() {
+    }
+
+    static String format(double value, int fractionDigits) {
+        return append(new StringBuilder(16), value, fractionDigits).toString();
+    }
+
+    static StringBuilder append(StringBuilder sb, double value, int fractionDigits) {
+        if (fractionDigits < 0 || fractionDigits >= POW10.length
+                || Double.doubleToRawLongBits(value) < 0 || !(value < FAST_PATH_LIMIT)) {
+            // 음수(-0.0 포함), NaN, 무한대, 큰 값
+            return sb.append(String.format(Locale.ROOT, "%." + fractionDigits + "f", value));
+        }
+        long pow = POW10[fractionDigits];
+        double scaled = value * pow;
+        double fraction = scaled - Math.floor(scaled);
+        if (Math.abs(fraction - 0.5) < 1e-6) {
+            // 이진 오차 때문에 십진 표현 기준 반올림과 달라질 수 있는 구간
+            return sb.append(String.format(Locale.ROOT, "%." + fractionDigits + "f", value));
+        }
+        long rounded = (long) (scaled + 0.5);
+        sb.append(rounded / pow);
+        if (fractionDigits > 0) {
+            sb.append('.');
+            long fractionPart = rounded % pow;
+            for (long p = pow / 10; p > fractionPart && p > 1; p /= 10) {
+                sb.append('0');
+            }
+            sb.append(fractionPart);
+        }
+        return sb;
+    }
+}
@@ -0,0 +1,278 @@
+package com.example;
+
+import com.example.CucumberHtmlParser.ScenarioData;
+import com.example.CucumberHtmlParser.StatsResult;
+import com.example.CucumberHtmlParser.TimeStats;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * 결과 HTML 을 버퍼드 writer 로 한 번에 내보낸다. (파일을 다시 읽어서 통계를 붙이지 않음)
+ * 셀 값과 통계 키는 쓰는 시점에 HTML 이스케이프한다.
+ * 페이지 분할 시에는 행 표를 N 행씩 page 파일로 나누고, 통계와 페이지 링크는 index 파일에 쓴다.
+ */
+final class HtmlReportWriter implements Closeable {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final Writer writer;
+    private final StringBuilder line = new StringBuilder(256);
+
+    HtmlReportWriter(Writer writer) {
+        this.writer = writer;
+    }
+
+    static HtmlReportWriter open(Path path) throws IOException {
+        return new HtmlReportWriter(new BufferedWriter(
+                new OutputStreamWriter(Files.newOutputStream(path), StandardCharsets.UTF_8), BUFFER_SIZE));
+    }
+
+    /**
+     * 표 + 통계를 담은 단일 문서.
+     */
+    static void writeSingle(Path htmlPath, Iterable<ScenarioData> rows, StatsResult statsResult) throws IOException {
+        try (HtmlReportWriter html = open(htmlPath)) {
+            html.writeDocumentStart();
+            html.writeTableStart();
+            for (ScenarioData scenarioData : rows) {
+                html.writeRow(scenarioData);
+            }
+            html.writeTableEnd();
+            html.writeStats(statsResult);
+            html.writeDocumentEnd();
+        }
+    }
+
+    /**
+     * indexPath 에는 통계와 페이지 목록을, 같은 디렉터리의 {이름}-page-0001.html ... 에는 rowsPerPage 행씩 표를 쓴다.
+     * 쓰기 전에 같은 이름의 기존 페이지 파일을 지우므로, 이전 실행의 페이지가 더 많았어도 남지 않는다.
+     * @return 만들어진 페이지 파일 수
+     */
+    static int writePaged(Path indexPath, Iterable<ScenarioData> rows, int rowCount, int rowsPerPage,
+                          StatsResult statsResult) throws IOException {
+        int pageCount = Math.max(1, (rowCount + rowsPerPage - 1) / rowsPerPage);
+        deletePages(indexPath);
+        int pageNumber = 0;
+        int rowsInPage = 0;
+        HtmlReportWriter page = null;
+        try {
+            for (ScenarioData scenarioData : rows) {
+                if (page == null) {
+                    pageNumber++;
+                    page = open(pagePath(indexPath, pageNumber));
+                    page.writeDocumentStart();
+                    page.writeNavigation(indexPath, pageNumber, pageCount);
+                    page.writeTableStart();
+                }
+                page.writeRow(scenarioData);
+                if (++rowsInPage == rowsPerPage) {
+                    page.finishPage(indexPath, pageNumber, pageCount);
+                    page = null;
+                    rowsInPage = 0;
+                }
+            }
+            if (page != null) {
+                page.finishPage(indexPath, pageNumber, pageCount);
+                page = null;
+            }
+        } finally {
+            if (page != null) {
+                page.close();
+            }
+        }
+
+        try (HtmlReportWriter index = open(indexPath)) {
+            index.writeDocumentStart();
+            index.writeStats(statsResult);
+            index.writer.write("<h4>결과 페이지 (" + rowCount + " 건, 페이지당 " + rowsPerPage + " 건)</h4><ul>\n");
+            for (int i = 1; i <= pageNumber; i++) {
+                index.writer.write("<li><a href=\"" + escape(pagePath(indexPath, i).getFileName().toString()) + "\">"
+                        + i + " 페이지</a></li>\n");
+            }
+            index.writer.write("</ul>\n");
+            index.writeDocumentEnd();
+        }
+        return pageNumber;
+    }
+
+    static Path pagePath(Path indexPath, int pageNumber) {
+        return indexPath.resolveSibling(String.format("%s-page-%04d.html", pageBaseName(indexPath), pageNumber));
+    }
+
+    private static String pageBaseName(Path indexPath) {
+        String fileName = indexPath.getFileName().toString();
+        int dot = fileName.lastIndexOf('.');
+        return dot > 0 ? fileName.substring(0, dot) : fileName;
+    }
+
+    // pagePath 형식({이름}-page-숫자.html)의 기존 페이지 파일을 지운다
+    private static void deletePages(Path indexPath) throws IOException {
+        Path directory = indexPath.toAbsolutePath().getParent();
+        if (directory == null || !Files.isDirectory(directory)) {
+            return;
+        }
+        Pattern pageName = Pattern.compile(Pattern.quote(pageBaseName(indexPath)) + "-page-\\d{4,}\\.html");
+        try (DirectoryStream<Path> pages = Files.newDirectoryStream(directory,
+                path -> pageName.matcher(path.getFileName().toString()).matches())) {
+            for (Path page : pages) {
+                Files.deleteIfExists(page);
+            }
+        }
+    }
+
+    private void finishPage(Path indexPath, int pageNumber, int pageCount) throws IOException {
+        writeTableEnd();
+        writeNavigation(indexPath, pageNumber, pageCount);
+        writeDocumentEnd();
+        close();
+    }
+
+    private void writeNavigation(Path indexPath, int pageNumber, int pageCount) throws IOException {
+        line.setLength(0);
+        line.append("<p>");
+        if (pageNumber > 1) {
+            line.append("<a href=\"").append(escape(pagePath(indexPath, pageNumber - 1).getFileName().toString()))
+                    .append("\">이전</a> | ");
+        }
+        line.append("<a href=\"").append(escape(indexPath.getFileName().toString())).append("\">목록</a>");
+        if (pageNumber < pageCount) {
+            line.append(" | <a href=\"").append(escape(pagePath(indexPath, pageNumber + 1).getFileName().toString()))
+                    .append("\">다음</a>");
+        }
+        line.append(" (").append(pageNumber).append(" / ").append(pageCount).append(")</p>\n");
+        writer.append(line);
+    }
+
+    void writeDocumentStart() throws IOException {
+        writer.write("<html>\n");
+        writer.write("<head><meta charset=\"UTF-8\"></head>\n");
+        writer.write("<body>\n");
+    }
+
+    void writeTableStart() throws IOException {
+        writer.write("<table border=\"1\" cellspacing=\"0\" cellpadding=\"5\">\n");
+        writer.write("<tr><th>status</th><th>testcase_id</th><th>method</th><th>api_endpoint</th><th>time(sec)</th></tr>\n");
+    }
+
+    void writeRow(ScenarioData scenarioData) throws IOException {
+        line.setLength(0);
+        line.append("<tr>");
+        appendTd(line, scenarioData.finalStatus);
+        appendTd(line, scenarioData.testcaseId);
+        appendTd(line, scenarioData.method);
+        appendTd(line, scenarioData.apiEndpoint);
+        line.append("<td>");
+        FixedDecimal.append(line, scenarioData.totalDurationSeconds, 3).append("</td></tr>\n");
+        writer.append(line);
+    }
+
+    void writeTableEnd() throws IOException {
+        writer.write("</table>\n");
+        writer.write("<hr/>\n");
+    }
+
+    void writeStats(StatsResult sr) throws IOException {
+        line.setLength(0);
+        line.append("<h3>통계</h3>\n");
+        line.append("<p>전체 테스트 수: ").append(sr.totalCount)
+                .append(", PASSED: ").append(sr.passedCount)
+                .append(", FAILED: ").append(sr.failedCount)
+                .append(", PASS_RATE: ");
+        FixedDecimal.append(line, sr.passRate, 1).append("%<br/>전체 시간: ");
+        FixedDecimal.append(line, sr.totalTimeSec, 3).append(" sec, 평균: ");
+        FixedDecimal.append(line, sr.avgTimePerTc, 3).append(" sec/TC<br/>전체 API 개수: ")
+                .append(sr.totalApiCount).append(", API별 평균TC수: ");
+        FixedDecimal.append(line, sr.avgTcPerApi, 1).append(", API별 평균 PassRate: ");
+        FixedDecimal.append(line, sr.avgApiPassRate, 1).append("%, API별 평균 실행시간: ");
+        FixedDecimal.append(line, sr.avgApiExecTime, 3).append(" sec<br/>TC 실행 시간 분포(sec): ");
+        sr.latency.appendSummary(line, ", ").append("</p>\n");
+        writer.append(line);
+
+        writer.write("<h4>메서드별 통계</h4><ul>\n");
+        for (Map.Entry<String, TimeStats> e : sr.methodStatsMap.entrySet()) {
+            TimeStats ts = e.getValue();
+            line.setLength(0);
+            appendCounts(line.append("<li>"), e.getKey(), ts);
+            line.append(", API개수=").append(ts.distinctApiCount).append(", API별평균TC수=");
+            FixedDecimal.append(line, ts.avgTcPerApi, 1).append(", API별평균PassRate=");
+            FixedDecimal.append(line, ts.avgApiPassRate, 1).append("%, API별평균실행시간=");
+            FixedDecimal.append(line, ts.avgApiExecTime, 3).append("</li>\n");
+            writer.append(line);
+        }
+        writer.write("</ul>\n<h4>Endpoint Stats (method + endpoint)</h4><ul>\n");
+        for (Map.Entry<String, TimeStats> e : sr.endpointStatsMap.entrySet()) {
+            line.setLength(0);
+            appendCounts(line.append("<li>"), e.getKey(), e.getValue()).append("</li>\n");
+            writer.append(line);
+        }
+        writer.write("</ul>\n");
+    }
+
+    void writeDocumentEnd() throws IOException {
+        writer.write("</body>\n");
+        writer.write("</html>\n");
+    }
+
+    private static StringBuilder appendCounts(StringBuilder sb, String key, TimeStats ts) {
+        appendEscaped(sb, key).append(": total=").append(ts.totalCount)
+                .append(", passed=").append(ts.passedCount)
+                .append(", failed=").append(ts.failedCount)
+                .append(", passRate=");
+        FixedDecimal.append(sb, ts.getPassRate(), 1).append("%, totalTime=");
+        FixedDecimal.append(sb, ts.totalTimeSec, 3).append(", avgTime=");
+        FixedDecimal.append(sb, ts.avgTimeSec, 3).append(", ");
+        return ts.latency.appendSummary(sb, ", ");
+    }
+
+    private static void appendTd(StringBuilder sb, String cellValue) {
+        appendEscaped(sb.append("<td>"), cellValue).append("</td>");
+    }
+
+    static String escape(String value) {
+        return appendEscaped(new StringBuilder(), value).toString();
+    }
+
+    static StringBuilder appendEscaped(StringBuilder sb, String value) {
+        if (value == null) {
+            return sb;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '&':
+                    sb.append("&amp;");
+                    break;
+                case '<':
+                    sb.append("&lt;");
+                    break;
+                case '>':
+                    sb.append("&gt;");
+                    break;
+                case '"':
+                    sb.append("&quot;");
+                    break;
+                case '\'':
+                    sb.append("&#39;");
+                    break;
+                default:
+                    sb.append(c);
+            }
+        }
+        return sb;
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+}
@@ -0,0 +1,113 @@
+package com.example;
+
+import java.util.Arrays;
+
+/**
+ * Cucumber ID 문자열을 0 부터 시작하는 촘촘한 int 코드로 바꾸는 사전. (open addressing, 선형 탐색)
+ * 같은 ID 는 처음 들어온 문자열 하나만 보관하므로, 이후 조인은 int 배열 인덱스로 처리된다.
+ * null 은 코드를 갖지 않는다 (-1).
+ */
+final class IdDictionary {
+
+    private String[] ids = new String[16];
+    private int[] hashes = new int[16];
+    // code + 1 을 저장, 0 은 빈 칸
+    private int[] table = new int[32];
+    private int size;
+    // 보관한 ID 문자열의 추정 바이트 합
+    private long stringBytes;
+
+    static IdDictionary of(String... initialIds) {
+        IdDictionary dictionary = new IdDictionary();
+        for (String id : initialIds) {
+            dictionary.intern(id);
+        }
+        return dictionary;
+    }
+
+    int intern(String id) {
+        if (id == null) {
+            return -1;
+        }
+        int hash = mix(id.hashCode());
+        int mask = table.length - 1;
+        for (int slot = hash & mask; ; slot = (slot + 1) & mask) {
+            int entry = table[slot];
+            if (entry == 0) {
+                return add(id, hash, slot);
+            }
+            int code = entry - 1;
+            if (hashes[code] == hash && ids[code].equals(id)) {
+                return code;
+            }
+        }
+    }
+
+    int find(String id) {
+        if (id == null) {
+            return -1;
+        }
+        int hash = mix(id.hashCode());
+        int mask = table.length - 1;
+        for (int slot = hash & mask; ; slot = (slot + 1) & mask) {
+            int entry = table[slot];
+            if (entry == 0) {
+                return -1;
+            }
+            int code = entry - 1;
+            if (hashes[code] == hash && ids[code].equals(id)) {
+                return code;
+            }
+        }
+    }
+
+    String idOf(int code) {
+        return code < 0 || code >= size ? null : ids[code];
+    }
+
+    int size() {
+        return size;
+    }
+
+    // 배열과 보관한 문자열의 힙 추정치 (문자열 하나에 헤더 + byte[] 40 바이트 + 길이)
+    long estimatedBytes() {
+        return 8L * ids.length + 4L * table.length + stringBytes;
+    }
+
+    private int add(String id, int hash, int slot) {
+        int code = size;
+        if (code == ids.length) {
+            ids = Arrays.copyOf(ids, code * 2);
+            hashes = Arrays.copyOf(hashes, code * 2);
+        }
+        ids[code] = id;
+        hashes[code] = hash;
+        stringBytes += 40 + id.length();
+        table[slot] = code + 1;
+        size++;
+        // 적재율 0.5 를 넘으면 테이블을 키운다
+        if (size * 2 > table.length) {
+            rehash(table.length * 2);
+        }
+        return code;
+    }
+
+    private void rehash(int capacity) {
+        int[] newTable = new int[capacity];
+        int mask = capacity - 1;
+        for (int code = 0; code < size; code++) {
+            int slot = hashes[code] & mask;
+            while (newTable[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            newTable[slot] = code + 1;
+        }
+        table = newTable;
+    }
+
+    // String.hashCode 의 하위 비트 편중을 완화
+    private static int mix(int hash) {
+        int h = hash * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,32 @@
+package com.example;
+
+import java.util.Arrays;
+
+/**
+ * int 코드 -> int 코드 조인 컬럼. 값이 없으면 -1.
+ */
+final class IntColumn implements CodeMapView.CodeColumn {
+
+    private int[] values = newFilled(16);
+
+    @Override
+    public int get(int index) {
+        return index >= 0 && index < values.length ? values[index] : -1;
+    }
+
+    @Override
+    public void set(int index, int value) {
+        if (index >= values.length) {
+            int oldLength = values.length;
+            values = Arrays.copyOf(values, Math.max(oldLength * 2, index + 1));
+            Arrays.fill(values, oldLength, values.length, -1);
+        }
+        values[index] = value;
+    }
+
+    private static int[] newFilled(int length) {
+        int[] array = new int[length];
+        Arrays.fill(array, -1);
+        return array;
+    }
+}
@@ -0,0 +1,78 @@
+package com.example;
+
+/**
+ * int 배열을 박싱 없이 비교자로 정렬하는 안정 병합 정렬. (같은 키는 원래 순서 유지)
+ * 행 인덱스 배열을 키 컬럼 기준으로 정렬할 때 쓴다.
+ */
+final class IntSort {
+
+    // 이 길이 이하의 구간은 삽입 정렬
+    private static final int INSERTION_THRESHOLD = 24;
+
+    interface IntComparator {
+        int compare(int a, int b);
+    }
+
+    private IntSort() {
+    }
+
+    static void stableSort(int[] values, int count, IntComparator comparator) {
+        if (count <= INSERTION_THRESHOLD) {
+            insertionSort(values, 0, count, comparator);
+            return;
+        }
+        int[] buffer = new int[count];
+        // 바닥부터: 작은 구간은 삽입 정렬, 이후 두 배씩 병합 (src/dst 를 번갈아 쓴다)
+        for (int from = 0; from < count; from += INSERTION_THRESHOLD) {
+            insertionSort(values, from, Math.min(from + INSERTION_THRESHOLD, count), comparator);
+        }
+        int[] source = values;
+        int[] target = buffer;
+        for (int width = INSERTION_THRESHOLD; width < count; width *= 2) {
+            for (int from = 0; from < count; from += 2 * width) {
+                int middle = Math.min(from + width, count);
+                int to = Math.min(from + 2 * width, count);
+                merge(source, target, from, middle, to, comparator);
+            }
+            int[] swap = source;
+            source = target;
+            target = swap;
+        }
+        if (source != values) {
+            System.arraycopy(source, 0, values, 0, count);
+        }
+    }
+
+    private static void insertionSort(int[] values, int from, int to, IntComparator comparator) {
+        for (int i = from + 1; i < to; i++) {
+            int value = values[i];
+            int j = i - 1;
+            while (j >= from && comparator.compare(values[j], value) > 0) {
+                values[j + 1] = values[j];
+                j--;
+            }
+            values[j + 1] = value;
+        }
+    }
+
+    private static void merge(int[] source, int[] target, int from, int middle, int to, IntComparator comparator) {
+        int left = from;
+        int right = middle;
+        int out = from;
+        // 이미 순서가 맞으면 그대로 복사
+        if (middle < to && middle > from && comparator.compare(source[middle - 1], source[middle]) <= 0) {
+            System.arraycopy(source, from, target, from, to - from);
+            return;
+        }
+        while (left < middle && right < to) {
+            // 같으면 왼쪽 먼저 (안정성)
+            target[out++] = comparator.compare(source[right], source[left]) < 0 ? source[right++] : source[left++];
+        }
+        while (left < middle) {
+            target[out++] = source[left++];
+        }
+        while (right < to) {
+            target[out++] = source[right++];
+        }
+    }
+}
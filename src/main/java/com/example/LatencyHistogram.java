@@ -0,0 +1,122 @@
+package com.example;
+
+/**
+ * 합칠 수 있는 고정 크기 지연 시간 히스토그램 (HDR 방식의 log-linear 버킷).
+ * 값은 마이크로초 단위로 기록하고, 2 의 거듭제곱 구간마다 16 개의 선형 하위 버킷을 둬서
+ * (버킷 중간값 기준) 상대 오차가 약 3% 이내다. 원본 샘플은 보관하지 않으므로 엔드포인트 당 메모리가 일정하고,
+ * merge 로 샤드 결과를 그대로 합칠 수 있다.
+ */
+final class LatencyHistogram {
+
+    static final double[] REPORTED_PERCENTILES = {50, 90, 95, 99};
+
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    // 2^42 us (약 50 일) 까지, 그 이상은 마지막 버킷
+    private static final int MAX_MAGNITUDE = 42;
+    private static final int BUCKET_COUNT = (MAX_MAGNITUDE - SUB_BUCKET_BITS + 2) * SUB_BUCKET_COUNT;
+
+    // 첫 기록 시 할당
+    private long[] counts;
+    private long totalCount;
+    private long minMicros = Long.MAX_VALUE;
+    private long maxMicros;
+
+    void recordSeconds(double seconds) {
+        long micros = seconds > 0 ? Math.round(seconds * 1_000_000.0) : 0L;
+        if (counts == null) {
+            counts = new long[BUCKET_COUNT];
+        }
+        counts[bucketIndex(micros)]++;
+        totalCount++;
+        minMicros = Math.min(minMicros, micros);
+        maxMicros = Math.max(maxMicros, micros);
+    }
+
+    void merge(LatencyHistogram other) {
+        if (other.totalCount == 0 || other.counts == null) {
+            return;
+        }
+        if (counts == null) {
+            counts = new long[BUCKET_COUNT];
+        }
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts[i] += other.counts[i];
+        }
+        totalCount += other.totalCount;
+        minMicros = Math.min(minMicros, other.minMicros);
+        maxMicros = Math.max(maxMicros, other.maxMicros);
+    }
+
+    long getTotalCount() {
+        return totalCount;
+    }
+
+    /**
+     * @param percentile 0 ~ 100
+     * @return 해당 백분위가 속한 버킷의 중간값(초), 최소/최대값 범위로 제한. 기록이 없으면 0
+     */
+    double getPercentileSeconds(double percentile) {
+        if (totalCount == 0) {
+            return 0.0;
+        }
+        long rank = Math.max(1L, (long) Math.ceil(percentile / 100.0 * totalCount));
+        if (rank >= totalCount) {
+            return maxMicros / 1_000_000.0;
+        }
+        long cumulative = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            cumulative += counts[i];
+            if (cumulative >= rank) {
+                long lower = bucketLowerBound(i);
+                long upper = bucketLowerBound(i + 1) - 1;
+                long middle = lower + (upper - lower) / 2;
+                return Math.max(minMicros, Math.min(maxMicros, middle)) / 1_000_000.0;
+            }
+        }
+        return maxMicros / 1_000_000.0;
+    }
+
+    double getMaxSeconds() {
+        return maxMicros / 1_000_000.0;
+    }
+
+    // 힙 사용량 대략치 (캐시 크기 계산용)
+    long estimatedBytes() {
+        return 48L + (counts == null ? 0L : 16L + 8L * counts.length);
+    }
+
+    /**
+     * "p50=0.123{sep}p90=...{sep}p95=...{sep}p99=...{sep}max=..." (초, 소수점 3 자리)
+     */
+    StringBuilder appendSummary(StringBuilder sb, String separator) {
+        for (double percentile : REPORTED_PERCENTILES) {
+            sb.append('p').append((int) percentile).append('=');
+            FixedDecimal.append(sb, getPercentileSeconds(percentile), 3).append(separator);
+        }
+        sb.append("max=");
+        return FixedDecimal.append(sb, getMaxSeconds(), 3);
+    }
+
+    static int bucketIndex(long micros) {
+        if (micros < SUB_BUCKET_COUNT) {
+            return (int) micros;
+        }
+        int magnitude = 63 - Long.numberOfLeadingZeros(micros);
+        if (magnitude > MAX_MAGNITUDE) {
+            return BUCKET_COUNT - 1;
+        }
+        int shift = magnitude - SUB_BUCKET_BITS;
+        int subBucket = (int) (micros >>> shift) - SUB_BUCKET_COUNT;
+        return (shift + 1) * SUB_BUCKET_COUNT + subBucket;
+    }
+
+    static long bucketLowerBound(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        int shift = index / SUB_BUCKET_COUNT - 1;
+        long subBucket = index % SUB_BUCKET_COUNT + SUB_BUCKET_COUNT;
+        return subBucket << shift;
+    }
+}
@@ -0,0 +1,179 @@
+package com.example;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+/**
+ * Cucumber message 포매터가 쓰는 NDJSON(한 줄에 envelope 하나) 파일 리더.
+ * 파일을 줄 경계에 맞춘 청크로 나누고, 청크마다 매핑한 영역을 여러 스레드에서 Envelope 로 디코딩한다.
+ * 디코딩 결과는 청크 순서대로 호출 스레드에서 sink 에 넘기므로, sink(상관관계 처리)는 단일 스레드로 유지된다.
+ * 디코딩이 끝났지만 아직 넘기지 않은 청크는 parallelism * 2 개까지만 둔다.
+ */
+final class NdjsonReader {
+
+    static final int DEFAULT_CHUNK_SIZE = 4 << 20;
+    private static final int SCAN_BUFFER_SIZE = 8192;
+
+    // 스레드 안전, 재사용
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private final int parallelism;
+    private final int chunkSize;
+
+    NdjsonReader(int parallelism, int chunkSize) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism must be >= 1: " + parallelism);
+        }
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("chunkSize must be >= 1: " + chunkSize);
+        }
+        this.parallelism = parallelism;
+        this.chunkSize = chunkSize;
+    }
+
+    void read(Path path, Consumer<Envelope> sink) throws IOException {
+        read(path, sink, new ParseMetrics());
+    }
+
+    /**
+     * 줄 경계 탐색은 READ, 청크 디코딩은 (작업 스레드에서) JSON_DECODE, sink 호출은 CORRELATION 으로 metrics 에 더한다.
+     */
+    void read(Path path, Consumer<Envelope> sink, ParseMetrics metrics) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long started = ParseMetrics.start();
+            List<long[]> chunks = splitLines(channel, chunkSize);
+            metrics.stop(ParseMetrics.Phase.READ, started, chunks.size());
+            if (parallelism == 1 || chunks.size() <= 1) {
+                for (long[] chunk : chunks) {
+                    apply(decode(map(channel, chunk), chunk[0], metrics), sink, metrics);
+                }
+                return;
+            }
+            ExecutorService executor = Executors.newFixedThreadPool(Math.min(parallelism, chunks.size()));
+            try {
+                ArrayDeque<Future<List<Envelope>>> decoded = new ArrayDeque<>();
+                int next = 0;
+                while (next < chunks.size() || !decoded.isEmpty()) {
+                    while (next < chunks.size() && decoded.size() < parallelism * 2) {
+                        long[] chunk = chunks.get(next++);
+                        ByteBuffer region = map(channel, chunk);
+                        decoded.add(executor.submit(() -> decode(region, chunk[0], metrics)));
+                    }
+                    apply(await(decoded.poll()), sink, metrics);
+                }
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+    }
+
+    /**
+     * [시작, 끝) 바이트 구간 목록. 각 구간은 (마지막 구간 제외) '\n' 바로 뒤에서 끝난다.
+     */
+    static List<long[]> splitLines(FileChannel channel, int chunkSize) throws IOException {
+        long size = channel.size();
+        List<long[]> chunks = new ArrayList<>();
+        long start = 0;
+        while (start < size) {
+            long end = start + chunkSize >= size ? size : nextLineStart(channel, start + chunkSize - 1, size);
+            chunks.add(new long[]{start, end});
+            start = end;
+        }
+        return chunks;
+    }
+
+    // from 이후 처음 나오는 '\n' 의 다음 위치, 없으면 size
+    private static long nextLineStart(FileChannel channel, long from, long size) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(SCAN_BUFFER_SIZE);
+        long position = from;
+        while (position < size) {
+            buffer.clear();
+            int read = channel.read(buffer, position);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (buffer.get(i) == '\n') {
+                    return position + i + 1;
+                }
+            }
+            position += read;
+        }
+        return size;
+    }
+
+    private static ByteBuffer map(FileChannel channel, long[] chunk) throws IOException {
+        long length = chunk[1] - chunk[0];
+        if (length > Integer.MAX_VALUE) {
+            throw new IOException("NDJSON line larger than 2GB at offset " + chunk[0]);
+        }
+        return channel.map(FileChannel.MapMode.READ_ONLY, chunk[0], length);
+    }
+
+    static List<Envelope> decode(ByteBuffer region, long offset) throws IOException {
+        return decode(region, offset, new ParseMetrics());
+    }
+
+    // 공백으로 구분된 루트 값들을 차례로 읽는다. 빈 줄, \r\n 모두 허용
+    static List<Envelope> decode(ByteBuffer region, long offset, ParseMetrics metrics) throws IOException {
+        long started = ParseMetrics.start();
+        List<Envelope> envelopes = new ArrayList<>();
+        try (JsonParser parser = JSON_FACTORY.createParser(new ByteBufferBackedInputStream(region))) {
+            JsonToken token;
+            while ((token = parser.nextToken()) != null) {
+                if (token != JsonToken.START_OBJECT) {
+                    parser.skipChildren();
+                    continue;
+                }
+                Envelope envelope = EnvelopeReader.read(parser);
+                if (envelope != null) {
+                    envelopes.add(envelope);
+                } else {
+                    metrics.countEnvelope(ParseMetrics.EnvelopeType.OTHER);
+                }
+            }
+        } catch (IOException e) {
+            throw new IOException("failed to decode NDJSON chunk at offset " + offset + ": " + e.getMessage(), e);
+        }
+        metrics.stop(ParseMetrics.Phase.JSON_DECODE, started, envelopes.size());
+        return envelopes;
+    }
+
+    private static void apply(List<Envelope> envelopes, Consumer<Envelope> sink, ParseMetrics metrics) {
+        long started = ParseMetrics.start();
+        for (Envelope envelope : envelopes) {
+            sink.accept(envelope);
+        }
+        metrics.stop(ParseMetrics.Phase.CORRELATION, started, envelopes.size());
+    }
+
+    private static List<Envelope> await(Future<List<Envelope>> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("NDJSON decoding interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException("NDJSON decoding failed", e.getCause());
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.example;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * 실행 중에 계속 늘어나는 NDJSON 메시지 파일을 따라가며 읽는다. (폴링 + 파일 위치 추적)
+ * 매 poll 마다 마지막으로 처리한 위치 이후의 완전한 줄만 디코딩해서 parser 에 적용하고,
+ * 아직 '\n' 이 오지 않은 마지막 줄은 다음 poll 에서 다시 읽는다. 이미 처리한 구간은 다시 읽지 않는다.
+ */
+final class NdjsonTailer {
+
+    static final long DEFAULT_POLL_MILLIS = 200;
+    static final long DEFAULT_REPORT_MILLIS = 10_000;
+
+    // 한 번에 읽는 최대 바이트 수 (따라잡는 중에도 메모리가 일정하도록)
+    private static final int READ_WINDOW = 8 << 20;
+
+    /**
+     * follow 중 주기적으로 (그리고 끝날 때) 호출된다.
+     */
+    interface Reporter {
+        void report() throws IOException;
+    }
+
+    private final Path path;
+    private final CucumberHtmlParser parser;
+    private ByteBuffer buffer = ByteBuffer.allocate(1 << 16);
+    private long position;
+    private boolean runFinished;
+
+    NdjsonTailer(Path path, CucumberHtmlParser parser) {
+        this.path = path;
+        this.parser = parser;
+    }
+
+    /**
+     * 새로 추가된 완전한 줄을 모두 적용한다.
+     * @return 적용한 envelope 수
+     */
+    int poll() throws IOException {
+        int applied = 0;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < position) {
+                throw new IOException("file was truncated while following: " + path + " (" + size + " < " + position + ")");
+            }
+            while (position < size) {
+                int lineEnd = readCompleteLines(channel, size);
+                if (lineEnd == 0) {
+                    break;
+                }
+                ByteBuffer lines = buffer.duplicate();
+                lines.position(0).limit(lineEnd);
+                ParseMetrics metrics = parser.metrics();
+                metrics.addBytesRead(lineEnd);
+                List<Envelope> envelopes = NdjsonReader.decode(lines, position, metrics);
+                long started = ParseMetrics.start();
+                for (Envelope envelope : envelopes) {
+                    parser.processEnvelope(envelope);
+                    if (envelope.testRunFinished != null) {
+                        runFinished = true;
+                    }
+                }
+                metrics.stop(ParseMetrics.Phase.CORRELATION, started, envelopes.size());
+                applied += envelopes.size();
+                position += lineEnd;
+            }
+        }
+        if (applied > 0) {
+            parser.updateFinalStatuses();
+        }
+        return applied;
+    }
+
+    // position 부터 최대 READ_WINDOW 만큼 buffer 에 읽고, 마지막 '\n' 다음 위치를 돌려준다. (완전한 줄이 없으면 0)
+    private int readCompleteLines(FileChannel channel, long size) throws IOException {
+        int window = (int) Math.min(size - position, READ_WINDOW);
+        while (true) {
+            if (buffer.capacity() < window) {
+                buffer = ByteBuffer.allocate(window);
+            }
+            buffer.clear().limit(window);
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, position + buffer.position()) <= 0) {
+                    break;
+                }
+            }
+            for (int i = buffer.position() - 1; i >= 0; i--) {
+                if (buffer.get(i) == '\n') {
+                    return i + 1;
+                }
+            }
+            // 창보다 긴 줄: 파일 끝까지 들어갈 때까지 창을 넓힌다
+            if (position + window >= size) {
+                return 0;
+            }
+            window = (int) Math.min(Math.min(size - position, (long) window * 2), Integer.MAX_VALUE - 8);
+        }
+    }
+
+    /**
+     * testRunFinished 가 나올 때까지 (또는 인터럽트될 때까지) 따라가며, reportMillis 마다 reporter 를 호출한다.
+     */
+    void follow(long pollMillis, long reportMillis, Reporter reporter) throws IOException, InterruptedException {
+        long nextReport = System.nanoTime() + reportMillis * 1_000_000L;
+        while (true) {
+            int applied = poll();
+            if (runFinished) {
+                break;
+            }
+            if (System.nanoTime() - nextReport >= 0) {
+                reporter.report();
+                nextReport = System.nanoTime() + reportMillis * 1_000_000L;
+            }
+            if (applied == 0) {
+                Thread.sleep(pollMillis);
+            }
+        }
+        reporter.report();
+    }
+
+    boolean isRunFinished() {
+        return runFinished;
+    }
+
+    long getPosition() {
+        return position;
+    }
+}
@@ -0,0 +1,216 @@
+package com.example;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 파서 한 개의 단계별 누적 시간과 카운터. 같은 값을 JFR 이벤트(com.example.ParsePhase / com.example.ParseSummary)로도 낸다.
+ * 단계 시간은 구간(span) 단위로 더하므로, 스트리밍 경로처럼 디코딩과 상관관계 처리가 번갈아 일어나도 나눠서 볼 수 있다.
+ * NDJSON 디코딩은 여러 스레드에서 더해지므로 JSON_DECODE 는 벽시계 시간이 아니라 스레드 합계일 수 있다.
+ * 메모리 매핑 경로의 실제 디스크 읽기는 페이지 폴트로 MARKER_SEARCH / JSON_DECODE 에 섞인다.
+ */
+public final class ParseMetrics {
+
+    public enum Phase {
+        READ, MARKER_SEARCH, JSON_DECODE, CORRELATION, FINAL_STATUS, STATS, EXPORT_CSV, EXPORT_HTML
+    }
+
+    // OTHER: 파서가 쓰지 않아 건너뛴 envelope (meta, source, hook ...)
+    public enum EnvelopeType {
+        GHERKIN_DOCUMENT, PICKLE, TEST_CASE, TEST_CASE_STARTED, TEST_STEP_FINISHED, TEST_RUN_FINISHED, OTHER
+    }
+
+    private static final Phase[] PHASES = Phase.values();
+    private static final EnvelopeType[] ENVELOPE_TYPES = EnvelopeType.values();
+
+    private final AtomicLongArray phaseNanos = new AtomicLongArray(PHASES.length);
+    private final AtomicLongArray envelopeCounts = new AtomicLongArray(ENVELOPE_TYPES.length);
+    private final AtomicLong bytesRead = new AtomicLong();
+    private final AtomicLong rowsExported = new AtomicLong();
+    private volatile long rows;
+    private volatile long unresolvedReferences;
+
+    static long start() {
+        return System.nanoTime();
+    }
+
+    /**
+     * start() 이후 경과 시간을 phase 에 더한다.
+     * @param count 이 구간에서 처리한 건수 (JFR 이벤트에만 기록)
+     */
+    void stop(Phase phase, long startNanos, long count) {
+        long elapsed = System.nanoTime() - startNanos;
+        phaseNanos.addAndGet(phase.ordinal(), elapsed);
+        PhaseEvent event = new PhaseEvent();
+        if (event.isEnabled()) {
+            event.phase = phase.name();
+            event.elapsed = elapsed;
+            event.count = count;
+            event.commit();
+        }
+    }
+
+    void addBytesRead(long bytes) {
+        bytesRead.addAndGet(bytes);
+    }
+
+    void countEnvelope(EnvelopeType type) {
+        envelopeCounts.incrementAndGet(type.ordinal());
+    }
+
+    void addRowsExported(long count) {
+        rowsExported.addAndGet(count);
+    }
+
+    // updateFinalStatuses 직후의 상태 (마지막 값으로 덮어쓴다)
+    void recordFinalState(long rowCount, long pendingReferences) {
+        rows = rowCount;
+        unresolvedReferences = pendingReferences;
+        SummaryEvent event = new SummaryEvent();
+        if (event.isEnabled()) {
+            event.bytesRead = bytesRead.get();
+            long envelopes = 0;
+            for (int i = 0; i < ENVELOPE_TYPES.length; i++) {
+                envelopes += envelopeCounts.get(i);
+            }
+            event.envelopes = envelopes;
+            event.rows = rowCount;
+            event.unresolvedReferences = pendingReferences;
+            event.commit();
+        }
+    }
+
+    // 다른 parser(샤드)의 값을 더한다. 행/미해결 참조 수도 합한다
+    void add(ParseMetrics other) {
+        for (int i = 0; i < PHASES.length; i++) {
+            phaseNanos.addAndGet(i, other.phaseNanos.get(i));
+        }
+        for (int i = 0; i < ENVELOPE_TYPES.length; i++) {
+            envelopeCounts.addAndGet(i, other.envelopeCounts.get(i));
+        }
+        bytesRead.addAndGet(other.bytesRead.get());
+        rowsExported.addAndGet(other.rowsExported.get());
+        synchronized (this) {
+            rows += other.rows;
+            unresolvedReferences += other.unresolvedReferences;
+        }
+    }
+
+    public Snapshot snapshot() {
+        return new Snapshot(this);
+    }
+
+    /**
+     * 특정 시점의 값 복사본. (각 값은 따로 읽으므로 파싱 중에 만든 스냅샷은 값끼리 약간 어긋날 수 있다)
+     */
+    public static final class Snapshot {
+        public final Map<Phase, Long> phaseNanos = new EnumMap<>(Phase.class);
+        public final Map<EnvelopeType, Long> envelopeCounts = new EnumMap<>(EnvelopeType.class);
+        public final long bytesRead;
+        public final long rows;
+        public final long unresolvedReferences;
+        public final long rowsExported;
+
+        private Snapshot(ParseMetrics metrics) {
+            for (Phase phase : PHASES) {
+                phaseNanos.put(phase, metrics.phaseNanos.get(phase.ordinal()));
+            }
+            for (EnvelopeType type : ENVELOPE_TYPES) {
+                envelopeCounts.put(type, metrics.envelopeCounts.get(type.ordinal()));
+            }
+            bytesRead = metrics.bytesRead.get();
+            rows = metrics.rows;
+            unresolvedReferences = metrics.unresolvedReferences;
+            rowsExported = metrics.rowsExported.get();
+        }
+
+        public long getTotalNanos() {
+            long total = 0;
+            for (long nanos : phaseNanos.values()) {
+                total += nanos;
+            }
+            return total;
+        }
+
+        public long getTotalEnvelopes() {
+            long total = 0;
+            for (long count : envelopeCounts.values()) {
+                total += count;
+            }
+            return total;
+        }
+
+        // --profile 출력용
+        public String formatBreakdown() {
+            StringBuilder sb = new StringBuilder();
+            long totalNanos = getTotalNanos();
+            sb.append("[단계별 시간]\n");
+            for (Map.Entry<Phase, Long> entry : phaseNanos.entrySet()) {
+                double share = totalNanos == 0 ? 0.0 : 100.0 * entry.getValue() / totalNanos;
+                sb.append(String.format("%-14s %10.1f ms %6.1f%%%n", entry.getKey(), entry.getValue() / 1e6, share));
+            }
+            sb.append(String.format("%-14s %10.1f ms%n", "TOTAL", totalNanos / 1e6));
+            sb.append("[카운터]\n");
+            sb.append("읽은 바이트: ").append(bytesRead)
+                    .append(", envelope: ").append(getTotalEnvelopes()).append(" (");
+            boolean first = true;
+            for (Map.Entry<EnvelopeType, Long> entry : envelopeCounts.entrySet()) {
+                if (!first) {
+                    sb.append(", ");
+                }
+                first = false;
+                sb.append(entry.getKey()).append('=').append(entry.getValue());
+            }
+            sb.append(")\n");
+            sb.append("행: ").append(rows)
+                    .append(", 미해결 참조: ").append(unresolvedReferences)
+                    .append(", 내보낸 행: ").append(rowsExported).append('\n');
+            return sb.toString();
+        }
+    }
+
+    @Name("com.example.ParsePhase")
+    @Label("Parse Phase")
+    @Category("Cucumber Report Parser")
+    @Description("파싱/통계/내보내기 단계의 한 구간")
+    static class PhaseEvent extends Event {
+        @Label("Phase")
+        String phase;
+
+        @Label("Elapsed")
+        @Timespan(Timespan.NANOSECONDS)
+        long elapsed;
+
+        @Label("Count")
+        long count;
+    }
+
+    @Name("com.example.ParseSummary")
+    @Label("Parse Summary")
+    @Category("Cucumber Report Parser")
+    @Description("updateFinalStatuses 시점의 누적 카운터")
+    static class SummaryEvent extends Event {
+        @Label("Bytes Read")
+        @DataAmount
+        long bytesRead;
+
+        @Label("Envelopes")
+        long envelopes;
+
+        @Label("Rows")
+        long rows;
+
+        @Label("Unresolved References")
+        long unresolvedReferences;
+    }
+}
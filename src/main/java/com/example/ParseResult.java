@@ -0,0 +1,135 @@
+package com.example;
+
+import com.example.CucumberHtmlParser.ScenarioData;
+import com.example.CucumberHtmlParser.StatsResult;
+import com.example.CucumberHtmlParser.TimeStats;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * ParserEngine 이 돌려주는 파싱 결과. 만들 때 행(복사본)과 상관관계 맵을 자기 것으로 복사하고 parser 는 참조하지 않으므로,
+ * 만든 뒤에는 아무도 바꿀 수 없고 여러 스레드에서 동시에 읽어도 된다. ScenarioData 는 필드가 public 이라
+ * getRows / getRowList 는 호출할 때마다 새 복사본을 돌려준다. (고쳐도 캐시된 결과나 다른 요청에는 반영되지 않는다)
+ * 통계는 처음 요청할 때 한 번만 계산한다.
+ */
+public final class ParseResult {
+
+    // 결과가 소유한 행 복사본 (등록 순서). 밖으로는 복사본만 내보낸다
+    private final Map<String, ScenarioData> rows;
+    private final Map<String, String> pickleIdToRowId;
+    private final Map<String, String> testCaseIdToPickleId;
+    private final Map<String, String> runIdToTestCaseId;
+    private final Map<String, String> testCaseStatus;
+    private final int pendingReferenceCount;
+    private final ParseMetrics.Snapshot metrics;
+    private volatile StatsResult stats;
+
+    // parser 의 맵들은 엔진 위의 뷰이므로 모두 복사한다. 이후 parser 는 이 결과에서 닿지 않는다
+    ParseResult(CucumberHtmlParser parser) {
+        Map<String, ScenarioData> rowCopies = new LinkedHashMap<>();
+        for (Map.Entry<String, ScenarioData> entry : parser.getRowIdToScenarioData().entrySet()) {
+            rowCopies.put(entry.getKey(), entry.getValue().copy());
+        }
+        this.rows = Collections.unmodifiableMap(rowCopies);
+        this.pickleIdToRowId = Collections.unmodifiableMap(new LinkedHashMap<>(parser.getPickleIdToRowId()));
+        this.testCaseIdToPickleId = Collections.unmodifiableMap(new LinkedHashMap<>(parser.getTestCaseIdToPickleId()));
+        this.runIdToTestCaseId = Collections.unmodifiableMap(new LinkedHashMap<>(parser.getRunIdToTestCaseId()));
+        this.testCaseStatus = Collections.unmodifiableMap(new LinkedHashMap<>(parser.getScenarioStatus()));
+        this.pendingReferenceCount = parser.getPendingReferenceCount();
+        this.metrics = parser.getMetrics();
+    }
+
+    // rowId -> 행 복사본 (등록 순서, 읽기 전용 맵). 호출할 때마다 새로 복사한다
+    public Map<String, ScenarioData> getRows() {
+        Map<String, ScenarioData> copies = new LinkedHashMap<>();
+        for (Map.Entry<String, ScenarioData> entry : rows.entrySet()) {
+            copies.put(entry.getKey(), entry.getValue().copy());
+        }
+        return Collections.unmodifiableMap(copies);
+    }
+
+    // 행 복사본 (등록 순서). 호출할 때마다 새로 복사한다
+    public List<ScenarioData> getRowList() {
+        List<ScenarioData> copies = new ArrayList<>(rows.size());
+        for (ScenarioData row : rows.values()) {
+            copies.add(row.copy());
+        }
+        return Collections.unmodifiableList(copies);
+    }
+
+    // 결과가 소유한 행 그대로 (복사 없음). 같은 패키지의 출력 코드만 쓰고, 읽기만 한다
+    Collection<ScenarioData> rowsForOutput() {
+        return rows.values();
+    }
+
+    public Map<String, String> getPickleIdToRowId() {
+        return pickleIdToRowId;
+    }
+
+    public Map<String, String> getTestCaseIdToPickleId() {
+        return testCaseIdToPickleId;
+    }
+
+    public Map<String, String> getRunIdToTestCaseId() {
+        return runIdToTestCaseId;
+    }
+
+    public Map<String, String> getTestCaseStatus() {
+        return testCaseStatus;
+    }
+
+    public int getPendingReferenceCount() {
+        return pendingReferenceCount;
+    }
+
+    public ParseMetrics.Snapshot getMetrics() {
+        return metrics;
+    }
+
+    StatsResult getStats() {
+        StatsResult result = stats;
+        if (result == null) {
+            synchronized (this) {
+                result = stats;
+                if (result == null) {
+                    result = StatsAccumulator.calculate(rows.values());
+                    stats = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 힙 사용량 대략치 (캐시 크기 계산용): 행 객체와 문자열, ID 맵, 통계/히스토그램.
+     */
+    long estimatedBytes() {
+        long bytes = 256L + 8L * rows.size();
+        for (ScenarioData row : rows.values()) {
+            bytes += 48 + stringBytes(row.testcaseId) + stringBytes(row.method)
+                    + stringBytes(row.apiEndpoint) + stringBytes(row.statusCode);
+        }
+        // ID 문자열(UUID 정도) + 해시/코드 배열
+        long ids = rows.size() + pickleIdToRowId.size() + testCaseIdToPickleId.size() + runIdToTestCaseId.size();
+        bytes += ids * 100L;
+        StatsResult statsResult = getStats();
+        bytes += 128 + statsResult.latency.estimatedBytes();
+        for (TimeStats timeStats : statsResult.methodStatsMap.values()) {
+            bytes += 160 + timeStats.latency.estimatedBytes();
+        }
+        for (Map.Entry<String, TimeStats> entry : statsResult.endpointStatsMap.entrySet()) {
+            bytes += 160 + stringBytes(entry.getKey()) + entry.getValue().latency.estimatedBytes();
+        }
+        return bytes;
+    }
+
+    // 문자열은 CorrelationEngine 에서 정규화되어 행 사이에 공유되기도 하므로 상한 추정
+    private static long stringBytes(String value) {
+        return value == null ? 0 : 48 + value.length();
+    }
+}
@@ -0,0 +1,87 @@
+package com.example;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+
+/**
+ * 상태 없는 파서 엔진. 호출마다 내부 CucumberHtmlParser(상관관계 상태)를 새로 만들어 쓰고 버리며,
+ * 공유하는 것은 Jackson 의 ObjectReader / JsonFactory (불변, 스레드 안전) 뿐이다.
+ * 따라서 한 인스턴스를 여러 스레드에서 동시에 호출해도 되고, 결과는 읽기 전용 ParseResult 로 돌려준다.
+ */
+public final class ParserEngine {
+
+    private final int ndjsonParallelism;
+
+    // NDJSON 파일도 호출 스레드 하나로 읽는다 (동시 호출이 많은 서비스용 기본값)
+    public ParserEngine() {
+        this(1);
+    }
+
+    /**
+     * @param ndjsonParallelism parseFile 로 NDJSON 파일을 읽을 때 청크 디코딩 스레드 수
+     */
+    public ParserEngine(int ndjsonParallelism) {
+        if (ndjsonParallelism < 1) {
+            throw new IllegalArgumentException("ndjsonParallelism must be >= 1: " + ndjsonParallelism);
+        }
+        this.ndjsonParallelism = ndjsonParallelism;
+    }
+
+    public ParseResult parseHtml(String htmlContent) {
+        CucumberHtmlParser parser = new CucumberHtmlParser();
+        parser.parseHtml(htmlContent);
+        return new ParseResult(parser);
+    }
+
+    // .gz / .zip 은 압축을 풀면서, .ndjson / .jsonl 은 NDJSON 으로, 나머지는 HTML 을 메모리 매핑해서 읽는다
+    public ParseResult parseFile(Path path) throws IOException {
+        CucumberHtmlParser parser = new CucumberHtmlParser();
+        if (CucumberHtmlParser.isCompressedPath(path.toString())) {
+            parser.parseCompressedFile(path.toString());
+        } else if (CucumberHtmlParser.isNdjsonPath(path.toString())) {
+            parser.parseNdjsonFile(path.toString(), ndjsonParallelism);
+        } else {
+            parser.parseFileMapped(path.toString());
+        }
+        return new ParseResult(parser);
+    }
+
+    /**
+     * HTML 리포트 또는 NDJSON 메시지 바이트. (앞 공백 뒤 첫 글자가 '{' 이면 NDJSON) content 의 position 은 바꾸지 않는다.
+     */
+    public ParseResult parseBytes(ByteBuffer content) throws IOException {
+        CucumberHtmlParser parser = new CucumberHtmlParser();
+        if (isNdjson(content)) {
+            parser.parseNdjsonBytes(content.slice());
+        } else {
+            parser.parseHtmlBytes(content.slice());
+        }
+        return new ParseResult(parser);
+    }
+
+    // HTML 리포트 문자 스트림 (다 읽으면 reader 도 닫힌다)
+    public ParseResult parseStream(Reader reader) throws IOException {
+        CucumberHtmlParser parser = new CucumberHtmlParser();
+        parser.parseStream(reader);
+        return new ParseResult(parser);
+    }
+
+    // 맨 앞의 UTF-8 BOM(EF BB BF) 하나와 공백을 건너뛴 첫 글자가 '{' 이면 NDJSON
+    static boolean isNdjson(ByteBuffer content) {
+        int start = content.position();
+        if (content.limit() - start >= 3 && content.get(start) == (byte) 0xEF
+                && content.get(start + 1) == (byte) 0xBB && content.get(start + 2) == (byte) 0xBF) {
+            start += 3;
+        }
+        for (int i = start; i < content.limit(); i++) {
+            byte b = content.get(i);
+            if (b == ' ' || b == '\t' || b == '\r' || b == '\n') {
+                continue;
+            }
+            return b == '{';
+        }
+        return false;
+    }
+}
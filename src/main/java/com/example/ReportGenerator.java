@@ -0,0 +1,358 @@
+package com.example;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * 부하/규모 테스트용 Cucumber 메시지 생성기. NDJSON 또는 HTML(window.CUCUMBER_MESSAGES = [...]) 형식으로 쓴다.
+ * 시나리오마다 Examples 행(testcase id / method / endpoint / status code), pickle, testCase, testCaseStarted,
+ * testStepFinished(스텝 수만큼), testCaseFinished 를 만들고, 마지막에 testRunFinished 를 쓴다.
+ * 메시지는 만드는 즉시 writer 로 흘려보내므로 (SHUFFLED 의 고정 크기 창 제외) 시나리오 수와 무관하게 메모리가 일정하다.
+ */
+public final class ReportGenerator {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final String[] METHODS = {"GET", "POST", "PUT", "DELETE", "PATCH"};
+
+    public enum Format {
+        NDJSON, HTML
+    }
+
+    public enum DurationDistribution {
+        UNIFORM, EXPONENTIAL, LOG_NORMAL
+    }
+
+    public enum Interleaving {
+        /** 문서 블록마다 gherkinDocument -> pickle/testCase 전부 -> 실행 결과 전부 (Cucumber 기본 순서) */
+        GROUPED,
+        /** 시나리오 하나의 pickle/testCase/실행 결과를 연달아 */
+        INTERLEAVED,
+        /** GROUPED 순서를 고정 크기 창 안에서 무작위로 섞음 (순서 무관 상관관계 검증용) */
+        SHUFFLED
+    }
+
+    /**
+     * 생성 옵션. 기본값은 작은 리포트 기준.
+     */
+    public static final class Options {
+        public long scenarioCount = 1000;
+        public int stepsPerScenario = 3;
+        // 실패하는 시나리오 비율 (0 ~ 1). 실패 시나리오는 임의의 스텝 하나가 FAILED, 이후 스텝은 SKIPPED
+        public double failureRate = 0.02;
+        // 실패한 시나리오를 다시 시도하는 최대 횟수 (attempt 1..N). 각 재시도도 failureRate 확률로 다시 실패한다
+        public int maxRetries = 0;
+        public int endpointCount = 50;
+        public int methodCount = 4;
+        public DurationDistribution durationDistribution = DurationDistribution.LOG_NORMAL;
+        public double meanStepSeconds = 0.2;
+        public Interleaving interleaving = Interleaving.GROUPED;
+        public int shuffleWindow = 1024;
+        // gherkinDocument 하나에 들어가는 Examples 행 수
+        public int scenariosPerDocument = 1000;
+        public long seed = 1L;
+    }
+
+    private final Options options;
+    private final Random random;
+    // 섞기용 난수는 따로 둬서, 같은 seed 면 순서와 무관하게 상태/시간이 같다
+    private final Random shuffleRandom;
+    private final StringBuilder message = new StringBuilder(512);
+    private Writer out;
+    private Format format;
+    private boolean firstMessage;
+    private String[] shuffleBuffer;
+    private int shuffleCount;
+
+    public ReportGenerator(Options options) {
+        if (options.scenarioCount < 0 || options.stepsPerScenario < 1 || options.endpointCount < 1
+                || options.methodCount < 1 || options.methodCount > METHODS.length
+                || options.scenariosPerDocument < 1 || options.shuffleWindow < 1 || options.maxRetries < 0
+                || options.failureRate < 0 || options.failureRate > 1) {
+            throw new IllegalArgumentException("invalid generator options");
+        }
+        this.options = options;
+        this.random = new Random(options.seed);
+        this.shuffleRandom = new Random(options.seed * 31 + 7);
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.err.println("usage: ReportGenerator <out.html|out.ndjson> [--scenarios N] [--steps N]"
+                    + " [--failure-rate R] [--retries N] [--endpoints N] [--methods N] [--duration uniform|exponential|log_normal]"
+                    + " [--mean-step-seconds S] [--order grouped|interleaved|shuffled] [--seed N]");
+            System.exit(2);
+        }
+        Path outputPath = Paths.get(args[0]);
+        Options options = new Options();
+        for (int i = 1; i < args.length; i++) {
+            String arg = args[i];
+            String value = args[++i];
+            if ("--scenarios".equals(arg)) {
+                options.scenarioCount = Long.parseLong(value);
+            } else if ("--steps".equals(arg)) {
+                options.stepsPerScenario = Integer.parseInt(value);
+            } else if ("--failure-rate".equals(arg)) {
+                options.failureRate = Double.parseDouble(value);
+            } else if ("--retries".equals(arg)) {
+                options.maxRetries = Integer.parseInt(value);
+            } else if ("--endpoints".equals(arg)) {
+                options.endpointCount = Integer.parseInt(value);
+            } else if ("--methods".equals(arg)) {
+                options.methodCount = Integer.parseInt(value);
+            } else if ("--duration".equals(arg)) {
+                options.durationDistribution = DurationDistribution.valueOf(value.toUpperCase(Locale.ROOT));
+            } else if ("--mean-step-seconds".equals(arg)) {
+                options.meanStepSeconds = Double.parseDouble(value);
+            } else if ("--order".equals(arg)) {
+                options.interleaving = Interleaving.valueOf(value.toUpperCase(Locale.ROOT));
+            } else if ("--seed".equals(arg)) {
+                options.seed = Long.parseLong(value);
+            } else {
+                throw new IllegalArgumentException("unknown option: " + arg);
+            }
+        }
+        Format format = CucumberHtmlParser.isNdjsonPath(outputPath.toString()) ? Format.NDJSON : Format.HTML;
+        long started = System.nanoTime();
+        new ReportGenerator(options).write(outputPath, format);
+        System.out.println("[generate] " + outputPath + " (" + format + ", 시나리오 " + options.scenarioCount + " 개, "
+                + Files.size(outputPath) + " bytes, " + (System.nanoTime() - started) / 1_000_000 + " ms)");
+    }
+
+    public void write(Path path, Format format) throws IOException {
+        try (Writer writer = new BufferedWriter(
+                new OutputStreamWriter(Files.newOutputStream(path), StandardCharsets.UTF_8), BUFFER_SIZE)) {
+            write(writer, format);
+        }
+    }
+
+    /**
+     * writer 는 닫지 않는다.
+     */
+    public void write(Writer writer, Format format) throws IOException {
+        out = writer;
+        this.format = format;
+        firstMessage = true;
+        shuffleBuffer = options.interleaving == Interleaving.SHUFFLED ? new String[options.shuffleWindow] : null;
+        shuffleCount = 0;
+        if (format == Format.HTML) {
+            out.write("<!DOCTYPE html>\n<html><head><meta charset=\"UTF-8\"><title>Cucumber</title></head><body>\n<script>\n");
+            out.write(CucumberHtmlParser.MESSAGES_MARKER);
+            out.write(" [");
+        }
+        emitMeta();
+        for (long blockStart = 0; blockStart < options.scenarioCount; blockStart += options.scenariosPerDocument) {
+            long blockEnd = Math.min(options.scenarioCount, blockStart + options.scenariosPerDocument);
+            emitGherkinDocument(blockStart, blockEnd);
+            if (options.interleaving == Interleaving.INTERLEAVED) {
+                for (long i = blockStart; i < blockEnd; i++) {
+                    emitPickleAndTestCase(i);
+                    emitExecution(i);
+                }
+            } else {
+                for (long i = blockStart; i < blockEnd; i++) {
+                    emitPickleAndTestCase(i);
+                }
+                for (long i = blockStart; i < blockEnd; i++) {
+                    emitExecution(i);
+                }
+            }
+        }
+        drainShuffleBuffer();
+        // 섞는 경우에도 실행 종료 신호는 항상 마지막
+        writeMessage("{\"testRunFinished\":{\"success\":true,\"timestamp\":{\"seconds\":0,\"nanos\":0}}}");
+        if (format == Format.HTML) {
+            out.write("];\n</script>\n</body></html>\n");
+        }
+        out.flush();
+    }
+
+    private void emitMeta() throws IOException {
+        emitMessage("{\"meta\":{\"protocolVersion\":\"24.0.0\",\"implementation\":{\"name\":\"report-generator\"}}}");
+    }
+
+    private void emitGherkinDocument(long blockStart, long blockEnd) throws IOException {
+        StringBuilder sb = new StringBuilder(128 + (int) (blockEnd - blockStart) * 160);
+        sb.append("{\"gherkinDocument\":{\"uri\":\"features/generated-").append(blockStart)
+                .append(".feature\",\"feature\":{\"name\":\"Generated API tests\",\"children\":[{\"scenario\":{")
+                .append("\"id\":\"scenario-").append(blockStart).append("\",\"keyword\":\"Scenario Outline\",")
+                .append("\"name\":\"call <method> <endpoint>\",\"steps\":[");
+        for (int k = 0; k < options.stepsPerScenario; k++) {
+            if (k > 0) {
+                sb.append(',');
+            }
+            sb.append("{\"id\":\"step-").append(blockStart).append('-').append(k)
+                    .append("\",\"keyword\":\"When \",\"text\":\"I call step ").append(k).append("\"}");
+        }
+        sb.append("],\"examples\":[{\"id\":\"examples-").append(blockStart).append("\",\"tableHeader\":{\"cells\":[")
+                .append("{\"value\":\"testcase_id\"},{\"value\":\"method\"},{\"value\":\"endpoint\"},{\"value\":\"status\"}]},")
+                .append("\"tableBody\":[");
+        for (long i = blockStart; i < blockEnd; i++) {
+            if (i > blockStart) {
+                sb.append(',');
+            }
+            sb.append("{\"id\":\"row-").append(i).append("\",\"cells\":[")
+                    .append("{\"value\":\"TC-").append(i).append("\"},")
+                    .append("{\"value\":\"").append(method(i)).append("\"},")
+                    .append("{\"value\":\"/api/v1/resource-").append(endpoint(i)).append("\"},")
+                    .append("{\"value\":\"").append(expectedStatusCode(i)).append("\"}]}");
+        }
+        sb.append("]}]}}]}}}");
+        emitMessage(sb.toString());
+    }
+
+    private void emitPickleAndTestCase(long i) throws IOException {
+        long block = i - i % options.scenariosPerDocument;
+        message.setLength(0);
+        message.append("{\"pickle\":{\"id\":\"pickle-").append(i).append("\",\"uri\":\"features/generated-").append(block)
+                .append(".feature\",\"name\":\"call ").append(method(i)).append("\",\"steps\":[");
+        for (int k = 0; k < options.stepsPerScenario; k++) {
+            if (k > 0) {
+                message.append(',');
+            }
+            message.append("{\"id\":\"pickle-step-").append(i).append('-').append(k)
+                    .append("\",\"astNodeIds\":[\"step-").append(block).append('-').append(k)
+                    .append("\",\"row-").append(i).append("\"],\"text\":\"I call step ").append(k).append("\"}");
+        }
+        message.append("],\"astNodeIds\":[\"scenario-").append(block).append("\",\"row-").append(i).append("\"]}}");
+        emitMessage(message.toString());
+
+        message.setLength(0);
+        message.append("{\"testCase\":{\"id\":\"testcase-").append(i).append("\",\"pickleId\":\"pickle-").append(i)
+                .append("\",\"testSteps\":[");
+        for (int k = 0; k < options.stepsPerScenario; k++) {
+            if (k > 0) {
+                message.append(',');
+            }
+            message.append("{\"id\":\"test-step-").append(i).append('-').append(k)
+                    .append("\",\"pickleStepId\":\"pickle-step-").append(i).append('-').append(k).append("\"}");
+        }
+        message.append("]}}");
+        emitMessage(message.toString());
+    }
+
+    private void emitExecution(long i) throws IOException {
+        for (int attempt = 0; ; attempt++) {
+            boolean failed = emitAttempt(i, attempt);
+            if (!failed || attempt >= options.maxRetries) {
+                return;
+            }
+        }
+    }
+
+    // 시도 하나의 testCaseStarted ~ testCaseFinished. run id 는 첫 시도 "started-i", 재시도 "started-i-attempt"
+    private boolean emitAttempt(long i, int attempt) throws IOException {
+        String runId = attempt == 0 ? "started-" + i : "started-" + i + "-" + attempt;
+        message.setLength(0);
+        message.append("{\"testCaseStarted\":{\"id\":\"").append(runId).append("\",\"testCaseId\":\"testcase-").append(i)
+                .append("\",\"attempt\":").append(attempt).append(",\"timestamp\":{\"seconds\":0,\"nanos\":0}}}");
+        emitMessage(message.toString());
+
+        int failingStep = random.nextDouble() < options.failureRate ? random.nextInt(options.stepsPerScenario) : -1;
+        double endpointFactor = 0.5 + (endpoint(i) % 7) * 0.25;
+        for (int k = 0; k < options.stepsPerScenario; k++) {
+            String status;
+            double seconds;
+            if (failingStep >= 0 && k > failingStep) {
+                status = "SKIPPED";
+                seconds = 0.0;
+            } else {
+                status = k == failingStep ? "FAILED" : "PASSED";
+                seconds = stepSeconds() * endpointFactor;
+            }
+            long wholeSeconds = (long) seconds;
+            long nanos = Math.round((seconds - wholeSeconds) * 1_000_000_000.0);
+            if (nanos >= 1_000_000_000L) {
+                wholeSeconds++;
+                nanos -= 1_000_000_000L;
+            }
+            message.setLength(0);
+            message.append("{\"testStepFinished\":{\"testCaseStartedId\":\"").append(runId)
+                    .append("\",\"testStepId\":\"test-step-").append(i).append('-').append(k)
+                    .append("\",\"testStepResult\":{\"status\":\"").append(status)
+                    .append("\",\"duration\":{\"seconds\":").append(wholeSeconds).append(",\"nanos\":").append(nanos)
+                    .append("}},\"timestamp\":{\"seconds\":0,\"nanos\":0}}}");
+            emitMessage(message.toString());
+        }
+
+        message.setLength(0);
+        boolean willBeRetried = failingStep >= 0 && attempt < options.maxRetries;
+        message.append("{\"testCaseFinished\":{\"testCaseStartedId\":\"").append(runId)
+                .append("\",\"willBeRetried\":").append(willBeRetried)
+                .append(",\"timestamp\":{\"seconds\":0,\"nanos\":0}}}");
+        emitMessage(message.toString());
+        return failingStep >= 0;
+    }
+
+    private double stepSeconds() {
+        double mean = options.meanStepSeconds;
+        switch (options.durationDistribution) {
+            case UNIFORM:
+                return random.nextDouble() * 2 * mean;
+            case EXPONENTIAL:
+                return -mean * Math.log(1.0 - random.nextDouble());
+            case LOG_NORMAL:
+            default:
+                // sigma = 1, 평균이 mean 이 되도록 mu 를 맞춘다
+                return Math.exp(Math.log(mean) - 0.5 + random.nextGaussian());
+        }
+    }
+
+    private String method(long i) {
+        return METHODS[(int) (i % options.methodCount)];
+    }
+
+    private long endpoint(long i) {
+        // method 와 주기가 겹치지 않게 섞는다
+        return (i * 31 + i / options.endpointCount) % options.endpointCount;
+    }
+
+    private static String expectedStatusCode(long i) {
+        return i % 10 == 0 ? "201" : "200";
+    }
+
+    private void emitMessage(String json) throws IOException {
+        if (shuffleBuffer == null) {
+            writeMessage(json);
+            return;
+        }
+        if (shuffleCount < shuffleBuffer.length) {
+            shuffleBuffer[shuffleCount++] = json;
+            return;
+        }
+        // 창이 가득 차면 임의의 하나를 내보내고 그 자리에 새 메시지를 넣는다
+        int slot = shuffleRandom.nextInt(shuffleBuffer.length);
+        writeMessage(shuffleBuffer[slot]);
+        shuffleBuffer[slot] = json;
+    }
+
+    private void drainShuffleBuffer() throws IOException {
+        if (shuffleBuffer == null) {
+            return;
+        }
+        while (shuffleCount > 0) {
+            int slot = shuffleRandom.nextInt(shuffleCount);
+            writeMessage(shuffleBuffer[slot]);
+            shuffleBuffer[slot] = shuffleBuffer[--shuffleCount];
+            shuffleBuffer[shuffleCount] = null;
+        }
+    }
+
+    private void writeMessage(String json) throws IOException {
+        if (format == Format.HTML && !firstMessage) {
+            out.write(',');
+        }
+        out.write(json);
+        if (format == Format.NDJSON) {
+            out.write('\n');
+        }
+        firstMessage = false;
+    }
+}
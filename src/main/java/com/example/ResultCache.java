@@ -0,0 +1,101 @@
+package com.example;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 값마다 크기(바이트 추정치)를 받아 합계가 maxBytes 를 넘지 않게 유지하는 LRU 캐시.
+ * 한도를 넘으면 가장 오래 쓰이지 않은 항목부터 버리고, 혼자서 한도를 넘는 값은 저장하지 않는다.
+ * 모든 연산은 synchronized 이고 값 계산은 호출자가 락 밖에서 한다.
+ */
+final class ResultCache<K, V> {
+
+    private final long maxBytes;
+    // accessOrder = true: get 할 때마다 맨 뒤로
+    private final LinkedHashMap<K, Entry<V>> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalBytes;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    ResultCache(long maxBytes) {
+        if (maxBytes < 0) {
+            throw new IllegalArgumentException("maxBytes must be >= 0: " + maxBytes);
+        }
+        this.maxBytes = maxBytes;
+    }
+
+    synchronized V get(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            misses++;
+            return null;
+        }
+        hits++;
+        return entry.value;
+    }
+
+    // get 과 같지만 hit/miss 로 세지 않는다
+    synchronized V peek(K key) {
+        Entry<V> entry = entries.get(key);
+        return entry == null ? null : entry.value;
+    }
+
+    /**
+     * @return 저장했으면 true (bytes 가 maxBytes 보다 크면 false)
+     */
+    synchronized boolean put(K key, V value, long bytes) {
+        Entry<V> previous = entries.remove(key);
+        if (previous != null) {
+            totalBytes -= previous.bytes;
+        }
+        if (bytes > maxBytes) {
+            return false;
+        }
+        entries.put(key, new Entry<>(value, bytes));
+        totalBytes += bytes;
+        Iterator<Map.Entry<K, Entry<V>>> eldest = entries.entrySet().iterator();
+        while (totalBytes > maxBytes) {
+            Entry<V> evicted = eldest.next().getValue();
+            eldest.remove();
+            totalBytes -= evicted.bytes;
+            evictions++;
+        }
+        return true;
+    }
+
+    synchronized int size() {
+        return entries.size();
+    }
+
+    synchronized long getTotalBytes() {
+        return totalBytes;
+    }
+
+    synchronized long getHits() {
+        return hits;
+    }
+
+    synchronized long getMisses() {
+        return misses;
+    }
+
+    synchronized long getEvictions() {
+        return evictions;
+    }
+
+    long getMaxBytes() {
+        return maxBytes;
+    }
+
+    private static final class Entry<V> {
+        final V value;
+        final long bytes;
+
+        Entry(V value, long bytes) {
+            this.value = value;
+            this.bytes = bytes;
+        }
+    }
+}
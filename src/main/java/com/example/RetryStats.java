@@ -0,0 +1,66 @@
+package com.example;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 재시도 집계. 시나리오(행)의 시도 수는 그 행에 연결된 testCaseStarted(run) 수이고,
+ * 낭비 시간은 실패한 뒤 다시 시도된(마지막이 아닌) 시도들의 실행 시간 합이다.
+ * 최종 상태는 마지막 시도를 따르므로, 재시도 끝에 통과한 시나리오는 PASSED 로 세고 passedOnRetryCount 에도 센다.
+ * 한 번도 실행되지 않은 행은 세지 않으므로, 샤드별 집계를 merge 로 합쳐도 중복되지 않는다.
+ */
+final class RetryStats {
+
+    // 전체
+    final Counts total = new Counts();
+    // "METHOD endpoint" 키 (StatsResult.endpointStatsMap 과 같은 키), 키 순서
+    final Map<String, Counts> endpointStatsMap = new TreeMap<>();
+
+    // 다른 parser(샤드)의 집계를 더한다
+    void merge(RetryStats other) {
+        total.merge(other.total);
+        for (Map.Entry<String, Counts> entry : other.endpointStatsMap.entrySet()) {
+            endpointStatsMap.computeIfAbsent(entry.getKey(), k -> new Counts()).merge(entry.getValue());
+        }
+    }
+
+    static final class Counts {
+        // 시나리오 수 / 모든 시도 수
+        public int scenarioCount;
+        public int attemptCount;
+        // 두 번 이상 시도한 시나리오 / 그중 마지막 시도가 통과한 시나리오
+        public int retriedCount;
+        public int passedOnRetryCount;
+        // 재시도된 실패 시도들의 실행 시간 합계
+        public double wastedTimeSec;
+        // 모든 시도의 실행 시간 합계
+        public double totalTimeSec;
+
+        void add(int attempts, boolean passed, double wastedSeconds, double totalSeconds) {
+            scenarioCount++;
+            attemptCount += attempts;
+            if (attempts > 1) {
+                retriedCount++;
+                if (passed) {
+                    passedOnRetryCount++;
+                }
+            }
+            wastedTimeSec += wastedSeconds;
+            totalTimeSec += totalSeconds;
+        }
+
+        void merge(Counts other) {
+            scenarioCount += other.scenarioCount;
+            attemptCount += other.attemptCount;
+            retriedCount += other.retriedCount;
+            passedOnRetryCount += other.passedOnRetryCount;
+            wastedTimeSec += other.wastedTimeSec;
+            totalTimeSec += other.totalTimeSec;
+        }
+
+        // 전체 실행 시간 중 낭비 시간 비율 (%)
+        public double getWastedPercent() {
+            return totalTimeSec > 0 ? 100.0 * wastedTimeSec / totalTimeSec : 0.0;
+        }
+    }
+}
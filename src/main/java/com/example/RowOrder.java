@@ -0,0 +1,39 @@
+package com.example;
+
+import java.util.Locale;
+
+/**
+ * 결과 행(CSV / HTML / 콘솔)의 출력 순서. INPUT 은 리포트에 행이 처음 나온 순서이고, 여러 리포트를 합친 결과
+ * (--batch, 여러 항목의 zip 샤드 묶음)는 (리포트 번호, 리포트 안 순서) 순이다. 샤드가 끝난 순서와 무관하므로 실행마다 같다.
+ * 나머지는 행 객체를 복사하지 않고 행 번호 배열과 정렬 키 컬럼만 만들어 정렬하며, 키가 같으면 입력 순서를 유지한다.
+ */
+public enum RowOrder {
+    INPUT,
+    // testcase id 문자열 순
+    TESTCASE_ID,
+    // 실행 시간이 긴 것부터
+    DURATION,
+    // 최종 상태 문자열 순 (FAILED 가 PASSED 앞)
+    STATUS,
+    // endpoint, 같으면 method 순
+    ENDPOINT;
+
+    // --sort 인자: input | testcase | duration | status | endpoint
+    static RowOrder parse(String name) {
+        switch (name.toLowerCase(Locale.ROOT)) {
+            case "input":
+                return INPUT;
+            case "testcase":
+            case "testcase_id":
+                return TESTCASE_ID;
+            case "duration":
+                return DURATION;
+            case "status":
+                return STATUS;
+            case "endpoint":
+                return ENDPOINT;
+            default:
+                throw new IllegalArgumentException("unknown sort order: " + name);
+        }
+    }
+}
@@ -0,0 +1,297 @@
+package com.example;
+
+import com.example.CucumberHtmlParser.ScenarioData;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * 메모리 예산을 넘은 행(ScenarioData)을 내보내는 임시 파일. 한 번에 내보내는 묶음(run)은 rowCode 순으로 정렬해
+ * 파일 끝에 이어 쓰고, 읽을 때는 run 마다 커서 하나가 앞에서부터 순서대로 읽어 rowCode 순으로 병합한다.
+ * 그래서 전체 순회는 run 수만큼의 순차 읽기다. (rowId 로 한 행만 찾을 때만 오프셋으로 건너뛴다)
+ *
+ * 레코드: rowCode(int) | testcaseId 길이(int, -1 은 null) + UTF-8 | method / endpoint / status code / finalStatus 값 코드(int, -1 은 null)
+ * 반복되는 셀 값은 메모리에 남는 값 사전의 코드로만 쓴다. 실행 시간과 이후 바뀌는 최종 상태는 CorrelationEngine 이 메모리에 따로 둔다.
+ * 쓰기는 파싱 스레드 하나에서만, 읽기(위치 지정 read)는 여러 스레드에서 동시에 해도 된다.
+ */
+final class RowSpillStore implements Closeable {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final int FIXED_RECORD_BYTES = 4 * 6;
+
+    private final Path path;
+    private final FileChannel channel;
+    private final IdDictionary values = new IdDictionary();
+    private final ByteBuffer writeBuffer = ByteBuffer.allocate(BUFFER_SIZE);
+    // run 별 [시작, 끝) 오프셋
+    private final List<long[]> runs = new ArrayList<>();
+    // rowCode -> 레코드 오프셋 + 1 (0 은 디스크에 없음)
+    private long[] offsets = new long[16];
+    private long fileSize;
+    private int rowCount;
+
+    RowSpillStore(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        path = Files.createTempFile(directory, "rows-", ".spill");
+        channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        // POSIX 에서는 열린 채로 지워 두면 비정상 종료에도 파일이 남지 않는다 (실패하면 close / 종료 시 삭제)
+        try {
+            Files.delete(path);
+        } catch (IOException e) {
+            path.toFile().deleteOnExit();
+        }
+    }
+
+    /**
+     * rowCodes 의 앞 count 개 행을 하나의 run 으로 쓴다. rowCodes 는 정렬된다.
+     */
+    void writeRun(int[] rowCodes, int count, ScenarioData[] rows) throws IOException {
+        Arrays.sort(rowCodes, 0, count);
+        ScenarioData[] records = new ScenarioData[count];
+        for (int i = 0; i < count; i++) {
+            records[i] = rows[rowCodes[i]];
+        }
+        writeSortedRun(rowCodes, records, count);
+    }
+
+    /**
+     * codes[i] 의 행이 records[i] 인 앞 count 개를 하나의 run 으로 쓴다. (codes 는 rowCode 가 아닌 임의의 코드여도 된다)
+     */
+    void writeRecords(int[] codes, ScenarioData[] records, int count) throws IOException {
+        int[] order = new int[count];
+        for (int i = 0; i < count; i++) {
+            order[i] = i;
+        }
+        IntSort.stableSort(order, count, (a, b) -> Integer.compare(codes[a], codes[b]));
+        int[] sortedCodes = new int[count];
+        ScenarioData[] sortedRecords = new ScenarioData[count];
+        for (int i = 0; i < count; i++) {
+            sortedCodes[i] = codes[order[i]];
+            sortedRecords[i] = records[order[i]];
+        }
+        writeSortedRun(sortedCodes, sortedRecords, count);
+    }
+
+    // codes 는 오름차순, records 는 같은 순서
+    private void writeSortedRun(int[] codes, ScenarioData[] records, int count) throws IOException {
+        long start = fileSize;
+        for (int i = 0; i < count; i++) {
+            int rowCode = codes[i];
+            ScenarioData row = records[i];
+            byte[] testcaseId = row.testcaseId == null ? null : row.testcaseId.getBytes(StandardCharsets.UTF_8);
+            int recordBytes = FIXED_RECORD_BYTES + (testcaseId == null ? 0 : testcaseId.length);
+            if (writeBuffer.remaining() < recordBytes) {
+                flush();
+            }
+            ByteBuffer target = recordBytes <= writeBuffer.capacity() ? writeBuffer : ByteBuffer.allocate(recordBytes);
+            setOffset(rowCode, fileSize + writeBuffer.position());
+            target.putInt(rowCode);
+            if (testcaseId == null) {
+                target.putInt(-1);
+            } else {
+                target.putInt(testcaseId.length).put(testcaseId);
+            }
+            target.putInt(values.intern(row.method));
+            target.putInt(values.intern(row.apiEndpoint));
+            target.putInt(values.intern(row.statusCode));
+            target.putInt(values.intern(row.finalStatus));
+            if (target != writeBuffer) {
+                target.flip();
+                writeFully(target);
+            }
+        }
+        flush();
+        runs.add(new long[]{start, fileSize});
+        rowCount += count;
+    }
+
+    boolean contains(int rowCode) {
+        return rowCode >= 0 && rowCode < offsets.length && offsets[rowCode] != 0;
+    }
+
+    // 같은 rowId 의 행이 다시 메모리에 들어오면 디스크의 레코드는 버린다 (순회할 때 건너뜀)
+    void remove(int rowCode) {
+        if (contains(rowCode)) {
+            offsets[rowCode] = 0;
+            rowCount--;
+        }
+    }
+
+    int size() {
+        return rowCount;
+    }
+
+    long getFileBytes() {
+        return fileSize;
+    }
+
+    // 메모리에 남는 rowCode -> 오프셋 배열과 셀 값 사전
+    long estimatedBytes() {
+        return 8L * offsets.length + values.estimatedBytes();
+    }
+
+    int getRunCount() {
+        return runs.size();
+    }
+
+    // 한 행만 오프셋으로 읽는다 (Map.get 용)
+    ScenarioData read(int rowCode) {
+        if (!contains(rowCode)) {
+            return null;
+        }
+        long offset = offsets[rowCode] - 1;
+        Cursor cursor = new Cursor(offset, fileSize, 256);
+        cursor.advance();
+        return cursor.current;
+    }
+
+    /**
+     * 디스크의 행을 rowCode 오름차순으로 돌려주는 병합 읽기. next 는 contains 가 true 인 코드를 오름차순으로만 물어야 한다.
+     */
+    Reader openReader() {
+        return new Reader();
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+        Files.deleteIfExists(path);
+    }
+
+    private void setOffset(int rowCode, long offset) {
+        if (rowCode >= offsets.length) {
+            offsets = Arrays.copyOf(offsets, Math.max(offsets.length * 2, rowCode + 1));
+        }
+        offsets[rowCode] = offset + 1;
+    }
+
+    private void flush() throws IOException {
+        writeBuffer.flip();
+        writeFully(writeBuffer);
+        writeBuffer.clear();
+    }
+
+    private void writeFully(ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            fileSize += channel.write(buffer, fileSize);
+        }
+    }
+
+    final class Reader {
+        private final PriorityQueue<Cursor> queue = new PriorityQueue<>(Math.max(1, runs.size()),
+                (a, b) -> Integer.compare(a.currentCode, b.currentCode));
+
+        private Reader() {
+            for (long[] run : runs) {
+                Cursor cursor = new Cursor(run[0], run[1], BUFFER_SIZE);
+                if (cursor.advance()) {
+                    queue.add(cursor);
+                }
+            }
+        }
+
+        ScenarioData next(int rowCode) {
+            while (true) {
+                Cursor cursor = queue.poll();
+                if (cursor == null) {
+                    throw new IllegalStateException("spilled row not found: " + rowCode);
+                }
+                int code = cursor.currentCode;
+                long offset = cursor.currentOffset;
+                ScenarioData row = cursor.current;
+                if (cursor.advance()) {
+                    queue.add(cursor);
+                }
+                // 앞선 코드나 같은 코드의 옛 레코드는 버려진 것
+                if (code == rowCode && offsets[code] - 1 == offset) {
+                    return row;
+                }
+            }
+        }
+    }
+
+    // [position, end) 구간을 버퍼 단위로 순서대로 읽는 커서
+    private final class Cursor {
+        private ByteBuffer buffer;
+        private long filePosition;
+        private final long end;
+        int currentCode;
+        long currentOffset;
+        ScenarioData current;
+
+        Cursor(long start, long end, int bufferSize) {
+            this.filePosition = start;
+            this.end = end;
+            this.buffer = ByteBuffer.allocate((int) Math.min(bufferSize, Math.max(FIXED_RECORD_BYTES, end - start)));
+            buffer.limit(0);
+        }
+
+        boolean advance() {
+            if (!buffer.hasRemaining() && filePosition >= end) {
+                current = null;
+                return false;
+            }
+            try {
+                currentOffset = filePosition - buffer.remaining();
+                ensure(8);
+                currentCode = buffer.getInt();
+                int length = buffer.getInt();
+                ScenarioData row = new ScenarioData();
+                if (length >= 0) {
+                    ensure(length);
+                    byte[] bytes = new byte[length];
+                    buffer.get(bytes);
+                    row.testcaseId = new String(bytes, StandardCharsets.UTF_8);
+                }
+                ensure(16);
+                row.method = values.idOf(buffer.getInt());
+                row.apiEndpoint = values.idOf(buffer.getInt());
+                row.statusCode = values.idOf(buffer.getInt());
+                row.finalStatus = values.idOf(buffer.getInt());
+                current = row;
+                return true;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private void ensure(int bytes) throws IOException {
+            if (buffer.remaining() >= bytes) {
+                return;
+            }
+            if (bytes > buffer.capacity()) {
+                ByteBuffer larger = ByteBuffer.allocate(bytes);
+                larger.put(buffer);
+                buffer = larger;
+            } else {
+                buffer.compact();
+            }
+            while (buffer.position() < bytes) {
+                int toRead = (int) Math.min(buffer.remaining(), end - filePosition);
+                if (toRead <= 0) {
+                    throw new IOException("truncated spill record at " + filePosition);
+                }
+                ByteBuffer slice = buffer.duplicate();
+                slice.limit(slice.position() + toRead);
+                int read = channel.read(slice, filePosition);
+                if (read < 0) {
+                    throw new IOException("truncated spill record at " + filePosition);
+                }
+                filePosition += read;
+                buffer.position(buffer.position() + read);
+            }
+            buffer.flip();
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.example;
+
+import com.example.CucumberHtmlParser.ScenarioData;
+import com.example.CucumberHtmlParser.StatsResult;
+import com.example.CucumberHtmlParser.TimeStats;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 기준(baseline) run 과 현재 run 을 비교한다.
+ * testcaseId 는 두 run 을 한 IdDictionary 에 intern 해서 int 코드 배열로 조인하고 (코드 당 상태 1 바이트),
+ * method + endpoint 는 StatsAccumulator 의 엔드포인트 통계(지연 시간 히스토그램 포함)끼리 비교한다.
+ * 같은 testcaseId 가 여러 행이면 하나라도 실패하면 실패로 본다.
+ */
+final class RunDiff {
+
+    static final double DEFAULT_MAX_LATENCY_INCREASE_PERCENT = 20.0;
+    static final double DEFAULT_MAX_PASS_RATE_DROP = 0.0;
+    // 비교에 쓰는 백분위
+    static final double LATENCY_PERCENTILE = 95;
+
+    private static final byte ABSENT = 0;
+    private static final byte PASSED = 1;
+    private static final byte FAILED = 2;
+
+    private final double maxLatencyIncreasePercent;
+    private final double maxPassRateDrop;
+
+    /**
+     * @param maxLatencyIncreasePercent 엔드포인트 p95 가 이 비율(%)보다 더 늘면 회귀
+     * @param maxPassRateDrop           전체 또는 엔드포인트 pass rate 가 이 값(%p)보다 더 떨어지면 회귀
+     */
+    RunDiff(double maxLatencyIncreasePercent, double maxPassRateDrop) {
+        this.maxLatencyIncreasePercent = maxLatencyIncreasePercent;
+        this.maxPassRateDrop = maxPassRateDrop;
+    }
+
+    static final class EndpointDelta {
+        final String endpoint;
+        final TimeStats baseline;
+        final TimeStats current;
+        final double baselineLatency;
+        final double currentLatency;
+        final double latencyChangePercent;
+        boolean regressed;
+
+        EndpointDelta(String endpoint, TimeStats baseline, TimeStats current) {
+            this.endpoint = endpoint;
+            this.baseline = baseline;
+            this.current = current;
+            this.baselineLatency = baseline.latency.getPercentileSeconds(LATENCY_PERCENTILE);
+            this.currentLatency = current.latency.getPercentileSeconds(LATENCY_PERCENTILE);
+            this.latencyChangePercent = baselineLatency > 0
+                    ? 100.0 * (currentLatency - baselineLatency) / baselineLatency
+                    : 0.0;
+        }
+    }
+
+    static final class Result {
+        final List<String> newlyFailing = new ArrayList<>();
+        final List<String> newlyPassing = new ArrayList<>();
+        final List<String> missing = new ArrayList<>();
+        final List<String> added = new ArrayList<>();
+        // 두 run 모두에 있는 엔드포인트, 지연 시간 증가율이 큰 순서
+        final List<EndpointDelta> endpointDeltas = new ArrayList<>();
+        StatsResult baselineStats;
+        StatsResult currentStats;
+        boolean passRateRegressed;
+
+        boolean isRegression() {
+            if (passRateRegressed) {
+                return true;
+            }
+            for (EndpointDelta delta : endpointDeltas) {
+                if (delta.regressed) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    Result compare(Collection<ScenarioData> baselineRows, Collection<ScenarioData> currentRows) {
+        Result result = new Result();
+        compareTestCases(baselineRows, currentRows, result);
+
+        result.baselineStats = StatsAccumulator.calculate(baselineRows);
+        result.currentStats = StatsAccumulator.calculate(currentRows);
+        result.passRateRegressed = result.baselineStats.totalCount > 0 && result.currentStats.totalCount > 0
+                && result.baselineStats.passRate - result.currentStats.passRate > maxPassRateDrop;
+        for (Map.Entry<String, TimeStats> entry : result.currentStats.endpointStatsMap.entrySet()) {
+            TimeStats baseline = result.baselineStats.endpointStatsMap.get(entry.getKey());
+            if (baseline == null) {
+                continue;
+            }
+            EndpointDelta delta = new EndpointDelta(entry.getKey(), baseline, entry.getValue());
+            delta.regressed = delta.latencyChangePercent > maxLatencyIncreasePercent
+                    || baseline.getPassRate() - delta.current.getPassRate() > maxPassRateDrop;
+            result.endpointDeltas.add(delta);
+        }
+        result.endpointDeltas.sort(Comparator.comparingDouble((EndpointDelta d) -> d.latencyChangePercent).reversed());
+        return result;
+    }
+
+    private static void compareTestCases(Collection<ScenarioData> baselineRows, Collection<ScenarioData> currentRows,
+                                         Result result) {
+        IdDictionary testcaseIds = new IdDictionary();
+        for (ScenarioData row : baselineRows) {
+            testcaseIds.intern(row.testcaseId);
+        }
+        for (ScenarioData row : currentRows) {
+            testcaseIds.intern(row.testcaseId);
+        }
+        byte[] baselineStates = states(baselineRows, testcaseIds);
+        byte[] currentStates = states(currentRows, testcaseIds);
+        for (int code = 0; code < testcaseIds.size(); code++) {
+            byte before = baselineStates[code];
+            byte after = currentStates[code];
+            if (before == after) {
+                continue;
+            }
+            String testcaseId = testcaseIds.idOf(code);
+            if (after == ABSENT) {
+                result.missing.add(testcaseId);
+            } else if (before == ABSENT) {
+                result.added.add(testcaseId);
+            } else if (after == FAILED) {
+                result.newlyFailing.add(testcaseId);
+            } else {
+                result.newlyPassing.add(testcaseId);
+            }
+        }
+    }
+
+    private static byte[] states(Collection<ScenarioData> rows, IdDictionary testcaseIds) {
+        byte[] states = new byte[testcaseIds.size()];
+        for (ScenarioData row : rows) {
+            int code = testcaseIds.find(row.testcaseId);
+            if (code < 0) {
+                continue;
+            }
+            byte state = "PASSED".equalsIgnoreCase(row.finalStatus) ? PASSED : FAILED;
+            if (state > states[code]) {
+                states[code] = state;
+            }
+        }
+        return states;
+    }
+}
@@ -0,0 +1,343 @@
+package com.example;
+
+import com.example.CucumberHtmlParser.ScenarioData;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 실행(run) 결과를 디렉터리에 열 단위 파일로 계속 쌓아 두는 이력 저장소.
+ * <pre>
+ *   status.col    byte   (0 = PASSED, 1 = 그 외)
+ *   duration.col  double (초)
+ *   method.col / endpoint.col / testcase.col  int (dictionary.bin 코드, null 은 -1)
+ *   dictionary.bin  [int 길이][UTF-8] 반복, 등장 순서가 코드
+ *   runs.idx      run 당 24 바이트 (시작 시각 ms, 첫 행 번호, 행 수, label 코드)
+ * </pre>
+ * 열 파일은 모든 run 이 이어 붙은 하나의 파일이고, runs.idx 가 각 run 의 행 구간을 가리킨다.
+ * append 는 열 -> 사전 -> 인덱스 순서로 쓰므로 인덱스에 기록된 run 만 유효하고,
+ * 중간에 끊긴 쓰기의 잔여분은 다음 append 때 잘라낸다. 조회는 필요한 행 구간만 메모리 매핑해서 읽는다.
+ */
+final class RunHistoryStore {
+
+    static final String STATUS_COLUMN = "status.col";
+    static final String DURATION_COLUMN = "duration.col";
+    static final String METHOD_COLUMN = "method.col";
+    static final String ENDPOINT_COLUMN = "endpoint.col";
+    static final String TESTCASE_COLUMN = "testcase.col";
+    static final String DICTIONARY_FILE = "dictionary.bin";
+    static final String RUN_INDEX_FILE = "runs.idx";
+
+    private static final int RUN_RECORD_BYTES = 24;
+    private static final byte STATUS_PASSED = 0;
+    private static final byte STATUS_FAILED = 1;
+
+    private final Path directory;
+    private final IdDictionary dictionary = new IdDictionary();
+    // 파일에 기록된 사전 항목 수 / 바이트 수
+    private int persistedDictionarySize;
+    private long persistedDictionaryBytes;
+    private final List<RunInfo> runs = new ArrayList<>();
+
+    static final class RunInfo {
+        final long startedAtMillis;
+        final long firstRow;
+        final int rowCount;
+        final String label;
+
+        RunInfo(long startedAtMillis, long firstRow, int rowCount, String label) {
+            this.startedAtMillis = startedAtMillis;
+            this.firstRow = firstRow;
+            this.rowCount = rowCount;
+            this.label = label;
+        }
+    }
+
+    static final class DurationChange {
+        final String testcaseId;
+        final double baselineSeconds;
+        final double latestSeconds;
+        final double changePercent;
+
+        DurationChange(String testcaseId, double baselineSeconds, double latestSeconds) {
+            this.testcaseId = testcaseId;
+            this.baselineSeconds = baselineSeconds;
+            this.latestSeconds = latestSeconds;
+            this.changePercent = 100.0 * (latestSeconds - baselineSeconds) / baselineSeconds;
+        }
+    }
+
+    RunHistoryStore(Path directory) throws IOException {
+        this.directory = directory;
+        Files.createDirectories(directory);
+        loadDictionary();
+        loadRuns();
+    }
+
+    List<RunInfo> getRuns() {
+        return Collections.unmodifiableList(runs);
+    }
+
+    /**
+     * 한 run 의 행을 열 파일 끝에 붙이고 인덱스에 등록한다.
+     */
+    RunInfo append(long startedAtMillis, String label, Collection<ScenarioData> rows) throws IOException {
+        long firstRow = rowEnd();
+        int rowCount = rows.size();
+        ByteBuffer status = ByteBuffer.allocate(rowCount);
+        ByteBuffer duration = ByteBuffer.allocate(rowCount * Double.BYTES);
+        ByteBuffer method = ByteBuffer.allocate(rowCount * Integer.BYTES);
+        ByteBuffer endpoint = ByteBuffer.allocate(rowCount * Integer.BYTES);
+        ByteBuffer testcase = ByteBuffer.allocate(rowCount * Integer.BYTES);
+        for (ScenarioData row : rows) {
+            status.put("PASSED".equalsIgnoreCase(row.finalStatus) ? STATUS_PASSED : STATUS_FAILED);
+            duration.putDouble(row.totalDurationSeconds);
+            method.putInt(dictionary.intern(row.method));
+            endpoint.putInt(dictionary.intern(row.apiEndpoint));
+            testcase.putInt(dictionary.intern(row.testcaseId));
+        }
+        int labelCode = dictionary.intern(label);
+
+        writeAt(STATUS_COLUMN, status, firstRow);
+        writeAt(DURATION_COLUMN, duration, firstRow * Double.BYTES);
+        writeAt(METHOD_COLUMN, method, firstRow * Integer.BYTES);
+        writeAt(ENDPOINT_COLUMN, endpoint, firstRow * Integer.BYTES);
+        writeAt(TESTCASE_COLUMN, testcase, firstRow * Integer.BYTES);
+        appendDictionary();
+
+        ByteBuffer record = ByteBuffer.allocate(RUN_RECORD_BYTES);
+        record.putLong(startedAtMillis).putLong(firstRow).putInt(rowCount).putInt(labelCode);
+        writeAt(RUN_INDEX_FILE, record, (long) runs.size() * RUN_RECORD_BYTES);
+        RunInfo runInfo = new RunInfo(startedAtMillis, firstRow, rowCount, label);
+        runs.add(runInfo);
+        return runInfo;
+    }
+
+    /**
+     * 최근 lastRuns 개 run 의 "METHOD endpoint" 별 실행 시간 분포. (method 는 대문자 기준으로 합침)
+     */
+    Map<String, LatencyHistogram> endpointLatency(int lastRuns) throws IOException {
+        Map<String, LatencyHistogram> result = new TreeMap<>();
+        if (runs.isEmpty() || lastRuns < 1) {
+            return result;
+        }
+        long fromRow = runs.get(Math.max(0, runs.size() - lastRuns)).firstRow;
+        int rowCount = (int) checkedRowCount(rowEnd() - fromRow);
+        ByteBuffer duration = map(DURATION_COLUMN, fromRow, rowCount, Double.BYTES);
+        ByteBuffer method = map(METHOD_COLUMN, fromRow, rowCount, Integer.BYTES);
+        ByteBuffer endpoint = map(ENDPOINT_COLUMN, fromRow, rowCount, Integer.BYTES);
+
+        // (method 코드, endpoint 코드) 배열에 먼저 모으고, 문자열 키는 서로 다른 쌍의 수만큼만 만든다. (null 코드 -1 은 0 번 칸)
+        int slots = dictionary.size() + 1;
+        LatencyHistogram[][] byCodePair = new LatencyHistogram[slots][];
+        for (int i = 0; i < rowCount; i++) {
+            int methodSlot = method.getInt(i * Integer.BYTES) + 1;
+            int endpointSlot = endpoint.getInt(i * Integer.BYTES) + 1;
+            LatencyHistogram[] endpoints = byCodePair[methodSlot];
+            if (endpoints == null) {
+                endpoints = byCodePair[methodSlot] = new LatencyHistogram[slots];
+            }
+            LatencyHistogram histogram = endpoints[endpointSlot];
+            if (histogram == null) {
+                histogram = endpoints[endpointSlot] = new LatencyHistogram();
+            }
+            histogram.recordSeconds(duration.getDouble(i * Double.BYTES));
+        }
+        for (int methodSlot = 0; methodSlot < slots; methodSlot++) {
+            if (byCodePair[methodSlot] == null) {
+                continue;
+            }
+            String methodName = dictionary.idOf(methodSlot - 1);
+            String methodKey = methodName == null ? "" : methodName.toUpperCase();
+            for (int endpointSlot = 0; endpointSlot < slots; endpointSlot++) {
+                LatencyHistogram histogram = byCodePair[methodSlot][endpointSlot];
+                if (histogram != null) {
+                    String endpointName = dictionary.idOf(endpointSlot - 1);
+                    result.computeIfAbsent(methodKey + " " + (endpointName == null ? "" : endpointName),
+                            k -> new LatencyHistogram()).merge(histogram);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 가장 최근 run 의 TC 별 평균 실행 시간이 직전 baselineRuns 개 run 의 평균보다 thresholdPercent 넘게 늘어난 TC 목록.
+     * 증가율이 큰 순서로 정렬한다. 기준 구간에 없던 TC 나 기준 시간이 0 인 TC 는 제외한다.
+     */
+    List<DurationChange> durationRegressions(int baselineRuns, double thresholdPercent) throws IOException {
+        List<DurationChange> regressions = new ArrayList<>();
+        if (runs.size() < 2 || baselineRuns < 1) {
+            return regressions;
+        }
+        RunInfo latest = runs.get(runs.size() - 1);
+        long baselineFrom = runs.get(Math.max(0, runs.size() - 1 - baselineRuns)).firstRow;
+        int codeCount = dictionary.size();
+        double[] baselineSum = new double[codeCount];
+        int[] baselineCount = new int[codeCount];
+        double[] latestSum = new double[codeCount];
+        int[] latestCount = new int[codeCount];
+        accumulateByTestcase(baselineFrom, (int) checkedRowCount(latest.firstRow - baselineFrom), baselineSum, baselineCount);
+        accumulateByTestcase(latest.firstRow, latest.rowCount, latestSum, latestCount);
+
+        double factor = 1.0 + thresholdPercent / 100.0;
+        for (int code = 0; code < codeCount; code++) {
+            if (latestCount[code] == 0 || baselineCount[code] == 0) {
+                continue;
+            }
+            double baselineMean = baselineSum[code] / baselineCount[code];
+            double latestMean = latestSum[code] / latestCount[code];
+            if (baselineMean > 0 && latestMean > baselineMean * factor) {
+                regressions.add(new DurationChange(dictionary.idOf(code), baselineMean, latestMean));
+            }
+        }
+        regressions.sort(Comparator.comparingDouble((DurationChange c) -> c.changePercent).reversed());
+        return regressions;
+    }
+
+    /**
+     * 저장된 run 하나를 행 목록으로 되살린다. (상태는 PASSED / FAILED, statusCode 는 저장하지 않으므로 null)
+     */
+    List<ScenarioData> readRun(int runIndex) throws IOException {
+        RunInfo run = runs.get(runIndex);
+        List<ScenarioData> rows = new ArrayList<>(run.rowCount);
+        if (run.rowCount == 0) {
+            return rows;
+        }
+        ByteBuffer status = map(STATUS_COLUMN, run.firstRow, run.rowCount, 1);
+        ByteBuffer duration = map(DURATION_COLUMN, run.firstRow, run.rowCount, Double.BYTES);
+        ByteBuffer method = map(METHOD_COLUMN, run.firstRow, run.rowCount, Integer.BYTES);
+        ByteBuffer endpoint = map(ENDPOINT_COLUMN, run.firstRow, run.rowCount, Integer.BYTES);
+        ByteBuffer testcase = map(TESTCASE_COLUMN, run.firstRow, run.rowCount, Integer.BYTES);
+        for (int i = 0; i < run.rowCount; i++) {
+            ScenarioData row = new ScenarioData();
+            row.finalStatus = status.get(i) == STATUS_PASSED ? "PASSED" : "FAILED";
+            row.totalDurationSeconds = duration.getDouble(i * Double.BYTES);
+            row.method = dictionary.idOf(method.getInt(i * Integer.BYTES));
+            row.apiEndpoint = dictionary.idOf(endpoint.getInt(i * Integer.BYTES));
+            row.testcaseId = dictionary.idOf(testcase.getInt(i * Integer.BYTES));
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    private void accumulateByTestcase(long fromRow, int rowCount, double[] sums, int[] counts) throws IOException {
+        if (rowCount == 0) {
+            return;
+        }
+        ByteBuffer duration = map(DURATION_COLUMN, fromRow, rowCount, Double.BYTES);
+        ByteBuffer testcase = map(TESTCASE_COLUMN, fromRow, rowCount, Integer.BYTES);
+        for (int i = 0; i < rowCount; i++) {
+            int code = testcase.getInt(i * Integer.BYTES);
+            if (code >= 0) {
+                sums[code] += duration.getDouble(i * Double.BYTES);
+                counts[code]++;
+            }
+        }
+    }
+
+    private long rowEnd() {
+        if (runs.isEmpty()) {
+            return 0;
+        }
+        RunInfo last = runs.get(runs.size() - 1);
+        return last.firstRow + last.rowCount;
+    }
+
+    // 단일 매핑 한계(2GB)를 넘지 않는 행 수인지 확인 (double 열 기준)
+    private static long checkedRowCount(long rowCount) throws IOException {
+        if (rowCount * Double.BYTES > Integer.MAX_VALUE) {
+            throw new IOException("history query spans too many rows for one mapping: " + rowCount);
+        }
+        return rowCount;
+    }
+
+    private ByteBuffer map(String column, long fromRow, int rowCount, int width) throws IOException {
+        try (FileChannel channel = FileChannel.open(directory.resolve(column), StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, fromRow * width, (long) rowCount * width);
+        }
+    }
+
+    // offset 이후의 기존 내용(이전에 끊긴 쓰기)을 잘라내고 buffer 를 쓴다
+    private void writeAt(String fileName, ByteBuffer buffer, long offset) throws IOException {
+        buffer.flip();
+        try (FileChannel channel = FileChannel.open(directory.resolve(fileName),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            if (channel.size() > offset) {
+                channel.truncate(offset);
+            }
+            long position = offset;
+            while (buffer.hasRemaining()) {
+                position += channel.write(buffer, position);
+            }
+        }
+    }
+
+    private void appendDictionary() throws IOException {
+        if (persistedDictionarySize == dictionary.size()) {
+            return;
+        }
+        List<byte[]> encoded = new ArrayList<>();
+        int totalBytes = 0;
+        for (int code = persistedDictionarySize; code < dictionary.size(); code++) {
+            byte[] bytes = dictionary.idOf(code).getBytes(StandardCharsets.UTF_8);
+            encoded.add(bytes);
+            totalBytes += Integer.BYTES + bytes.length;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(totalBytes);
+        for (byte[] bytes : encoded) {
+            buffer.putInt(bytes.length).put(bytes);
+        }
+        writeAt(DICTIONARY_FILE, buffer, persistedDictionaryBytes);
+        persistedDictionarySize = dictionary.size();
+        persistedDictionaryBytes += totalBytes;
+    }
+
+    private void loadDictionary() throws IOException {
+        Path path = directory.resolve(DICTIONARY_FILE);
+        if (!Files.exists(path)) {
+            return;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(path));
+        // 끝에 덜 쓰인 항목이 있으면 거기서 멈춘다 (다음 append 때 잘림)
+        while (buffer.remaining() >= Integer.BYTES) {
+            int length = buffer.getInt(buffer.position());
+            if (length < 0 || buffer.remaining() - Integer.BYTES < length) {
+                break;
+            }
+            buffer.getInt();
+            byte[] bytes = new byte[length];
+            buffer.get(bytes);
+            dictionary.intern(new String(bytes, StandardCharsets.UTF_8));
+            persistedDictionaryBytes = buffer.position();
+        }
+        persistedDictionarySize = dictionary.size();
+    }
+
+    private void loadRuns() throws IOException {
+        Path path = directory.resolve(RUN_INDEX_FILE);
+        if (!Files.exists(path)) {
+            return;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(path));
+        while (buffer.remaining() >= RUN_RECORD_BYTES) {
+            long startedAtMillis = buffer.getLong();
+            long firstRow = buffer.getLong();
+            int rowCount = buffer.getInt();
+            int labelCode = buffer.getInt();
+            runs.add(new RunInfo(startedAtMillis, firstRow, rowCount, dictionary.idOf(labelCode)));
+        }
+    }
+}
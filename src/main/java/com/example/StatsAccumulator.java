@@ -0,0 +1,146 @@
+package com.example;
+
+import com.example.CucumberHtmlParser.ScenarioData;
+import com.example.CucumberHtmlParser.StatsResult;
+import com.example.CucumberHtmlParser.TimeStats;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collector;
+
+/**
+ * 행을 한 번만 훑어서 전체/메서드별/엔드포인트별 통계를 만드는 집계기.
+ * 부분 결과끼리 merge 가 결합 법칙을 만족하므로 fork-join 리덕션이나 샤드 간 합산에 그대로 쓸 수 있다.
+ * 행마다 toUpperCase 나 "method endpoint" 문자열 결합을 하지 않도록, 원본 method 문자열 -> endpoint 2단 맵에 모으고
+ * 대문자 정규화와 키 결합은 toResult 에서 (서로 다른 method/endpoint 조합 수만큼만) 한다.
+ * 결과 맵과 평균 계산은 키 순서로 순회하므로 같은 행이면 실행마다 출력 순서와 값이 같다.
+ */
+final class StatsAccumulator {
+
+    // 이 이상이면 calculate 가 병렬 리덕션을 사용
+    static final int PARALLEL_THRESHOLD = 50_000;
+
+    private int totalCount;
+    private int passedCount;
+    private double totalTimeSec;
+    private final Map<String, Map<String, TimeStats>> endpointStatsByMethod = new HashMap<>();
+
+    static StatsResult calculate(Collection<ScenarioData> dataList) {
+        StatsAccumulator accumulator;
+        if (dataList.size() >= PARALLEL_THRESHOLD) {
+            accumulator = dataList.parallelStream().collect(collector());
+        } else {
+            accumulator = new StatsAccumulator();
+            for (ScenarioData data : dataList) {
+                accumulator.add(data);
+            }
+        }
+        return accumulator.toResult();
+    }
+
+    static Collector<ScenarioData, StatsAccumulator, StatsAccumulator> collector() {
+        return Collector.of(StatsAccumulator::new, StatsAccumulator::add, StatsAccumulator::merge);
+    }
+
+    void add(ScenarioData data) {
+        boolean isPassed = "PASSED".equalsIgnoreCase(data.finalStatus);
+        totalCount++;
+        if (isPassed) {
+            passedCount++;
+        }
+        totalTimeSec += data.totalDurationSeconds;
+
+        String method = data.method == null ? "" : data.method;
+        String endpoint = data.apiEndpoint == null ? "" : data.apiEndpoint;
+        TimeStats endpointStats = endpointStatsByMethod
+                .computeIfAbsent(method, k -> new HashMap<>())
+                .computeIfAbsent(endpoint, k -> new TimeStats());
+        endpointStats.totalCount++;
+        if (isPassed) {
+            endpointStats.passedCount++;
+        } else {
+            endpointStats.failedCount++;
+        }
+        endpointStats.totalTimeSec += data.totalDurationSeconds;
+        endpointStats.latency.recordSeconds(data.totalDurationSeconds);
+    }
+
+    StatsAccumulator merge(StatsAccumulator other) {
+        totalCount += other.totalCount;
+        passedCount += other.passedCount;
+        totalTimeSec += other.totalTimeSec;
+        mergeInto(endpointStatsByMethod, other.endpointStatsByMethod, false);
+        return this;
+    }
+
+    StatsResult toResult() {
+        // method 대문자 기준으로 다시 묶는다 ("get" 과 "GET" 은 같은 메서드)
+        Map<String, Map<String, TimeStats>> normalized = new TreeMap<>();
+        mergeInto(normalized, endpointStatsByMethod, true);
+
+        StatsResult statsResult = new StatsResult();
+        statsResult.totalCount = totalCount;
+        statsResult.passedCount = passedCount;
+        statsResult.failedCount = totalCount - passedCount;
+        statsResult.totalTimeSec = totalTimeSec;
+        if (totalCount > 0) {
+            statsResult.passRate = 100.0 * passedCount / totalCount;
+            statsResult.avgTimePerTc = totalTimeSec / totalCount;
+        }
+
+        double sumApiRates = 0.0;
+        double sumApiAvgTime = 0.0;
+        for (Map.Entry<String, Map<String, TimeStats>> methodEntry : normalized.entrySet()) {
+            String methodKey = methodEntry.getKey();
+            Map<String, TimeStats> endpoints = methodEntry.getValue();
+            TimeStats methodStats = new TimeStats();
+            double sumRates = 0.0;
+            double sumEpAvgTime = 0.0;
+            for (Map.Entry<String, TimeStats> endpointEntry : endpoints.entrySet()) {
+                TimeStats endpointStats = endpointEntry.getValue();
+                endpointStats.computeDerived();
+                methodStats.merge(endpointStats);
+                sumRates += endpointStats.getPassRate();
+                sumEpAvgTime += endpointStats.avgTimeSec;
+                // endpointKey => "METHOD + ENDPOINT"
+                statsResult.endpointStatsMap.put(methodKey + " " + endpointEntry.getKey(), endpointStats);
+            }
+            methodStats.distinctApiCount = endpoints.size();
+            if (methodStats.distinctApiCount > 0) {
+                methodStats.avgTcPerApi = (double) methodStats.totalCount / methodStats.distinctApiCount;
+                methodStats.avgApiPassRate = sumRates / methodStats.distinctApiCount;
+                methodStats.avgApiExecTime = sumEpAvgTime / methodStats.distinctApiCount;
+            }
+            methodStats.computeDerived();
+            statsResult.methodStatsMap.put(methodKey, methodStats);
+            statsResult.latency.merge(methodStats.latency);
+            sumApiRates += sumRates;
+            sumApiAvgTime += sumEpAvgTime;
+        }
+
+        statsResult.totalApiCount = statsResult.endpointStatsMap.size();
+        if (statsResult.totalApiCount > 0) {
+            statsResult.avgTcPerApi = (double) statsResult.totalCount / statsResult.totalApiCount;
+            statsResult.avgApiPassRate = sumApiRates / statsResult.totalApiCount;
+            statsResult.avgApiExecTime = sumApiAvgTime / statsResult.totalApiCount;
+        }
+        return statsResult;
+    }
+
+    // 항상 새 TimeStats 에 더해서, 합산 대상 쪽 객체가 공유되지 않도록 한다
+    private static void mergeInto(Map<String, Map<String, TimeStats>> target,
+                                  Map<String, Map<String, TimeStats>> source,
+                                  boolean upperCaseMethod) {
+        for (Map.Entry<String, Map<String, TimeStats>> methodEntry : source.entrySet()) {
+            String methodKey = upperCaseMethod ? methodEntry.getKey().toUpperCase() : methodEntry.getKey();
+            Map<String, TimeStats> targetEndpoints = target.computeIfAbsent(methodKey,
+                    k -> upperCaseMethod ? new TreeMap<>() : new HashMap<>());
+            for (Map.Entry<String, TimeStats> endpointEntry : methodEntry.getValue().entrySet()) {
+                targetEndpoints.computeIfAbsent(endpointEntry.getKey(), k -> new TimeStats())
+                        .merge(endpointEntry.getValue());
+            }
+        }
+    }
+}
@@ -0,0 +1,330 @@
+package com.example;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 스텝 단위 실행 시간. 스텝 텍스트는 IdDictionary 로 int 코드가 되고, 나머지는 모두 원시 배열에 이어 붙인다.
+ * - pickle 스텝: (pickleStepId 해시, 텍스트 코드) 8 바이트
+ * - testCase 스텝 칸: (testStepId 해시, 텍스트 코드, 누적 nanos) 16 바이트, 재시도 시간도 같은 칸에 더한다
+ * 스텝 ID 문자열은 보관하지 않는다. 해시는 한 testCase(또는 pickle)의 스텝들 사이에서만 비교하므로 충돌 걱정이 거의 없다.
+ * 예) 50 스텝 x 20만 시나리오(1000만 스텝)면 배열이 약 240 MB 다. (UUID 스텝 ID 문자열만 보관해도 그 몇 배)
+ *
+ * 참조 순서가 뒤바뀐 메시지(testCase 보다 먼저 온 스텝 결과, pickle 보다 먼저 온 testCase)는 CorrelationEngine 처럼
+ * 대기시켰다가 상대편이 도착할 때 해소한다. 파싱 스레드 하나에서만 쓴다.
+ */
+final class StepTimingStore {
+
+    // pickleStepId 가 없는 testCase 스텝 (Before/After hook)
+    static final String HOOK_STEP = "(hook)";
+
+    // HOOK_STEP 의 코드는 0
+    private static final int HOOK_TEXT = 0;
+
+    private final IdDictionary stepTexts = IdDictionary.of(HOOK_STEP);
+
+    // pickle 코드 -> pickle 스텝 배열의 시작 위치 / 개수
+    private final IntColumn pickleStepStart = new IntColumn();
+    private final IntColumn pickleStepCount = new IntColumn();
+    private int[] pickleStepHashes = new int[64];
+    private int[] pickleStepTexts = new int[64];
+    private int pickleStepSize;
+
+    // testCase 코드 -> 스텝 칸의 시작 위치 / 개수 / 마지막으로 맞은 칸 (스텝은 대개 순서대로 끝나므로 거기서부터 찾는다)
+    private final IntColumn testStepStart = new IntColumn();
+    private final IntColumn testStepCount = new IntColumn();
+    private final IntColumn testStepCursor = new IntColumn();
+    private int[] testStepHashes = new int[64];
+    // 텍스트 코드, pickle 이 아직 없으면 -1
+    private int[] testStepTexts = new int[64];
+    // -1 은 아직 결과 없음
+    private long[] testStepNanos = new long[64];
+    private int testStepSize;
+
+    // pickle 이 아직 없는 testCase: pickle 코드 -> {testCase 코드, 스텝별 pickleStepId 해시...} 목록
+    private final Map<Integer, List<int[]>> unresolvedByPickle = new HashMap<>();
+    // testCase 연결 전(run 기준) / 스텝 목록 도착 전(testCase 기준)의 결과
+    private final Map<Integer, PendingSteps> pendingByRun = new HashMap<>();
+    private final Map<Integer, PendingSteps> pendingByTestCase = new HashMap<>();
+
+    void addPickleSteps(int pickleCode, List<String> stepIds, List<String> texts) {
+        if (pickleCode < 0 || pickleStepStart.get(pickleCode) >= 0) {
+            return;
+        }
+        int count = stepIds.size();
+        ensurePickleCapacity(pickleStepSize + count);
+        pickleStepStart.set(pickleCode, pickleStepSize);
+        pickleStepCount.set(pickleCode, count);
+        for (int i = 0; i < count; i++) {
+            pickleStepHashes[pickleStepSize] = hash(stepIds.get(i));
+            pickleStepTexts[pickleStepSize] = stepTexts.intern(texts.get(i) == null ? "" : texts.get(i));
+            pickleStepSize++;
+        }
+        List<int[]> waiting = unresolvedByPickle.remove(pickleCode);
+        if (waiting != null) {
+            for (int[] testCase : waiting) {
+                resolveTexts(testCase[0], pickleCode, testCase);
+            }
+        }
+    }
+
+    /**
+     * @param pickleStepIds testStepIds 와 같은 길이, hook 스텝은 null
+     */
+    void addTestSteps(int testCaseCode, int pickleCode, List<String> testStepIds, List<String> pickleStepIds) {
+        if (testCaseCode < 0 || testStepStart.get(testCaseCode) >= 0) {
+            return;
+        }
+        int count = testStepIds.size();
+        ensureTestStepCapacity(testStepSize + count);
+        int start = testStepSize;
+        testStepStart.set(testCaseCode, start);
+        testStepCount.set(testCaseCode, count);
+        // [0] 은 testCase 코드, 이후는 칸별 pickleStepId 해시
+        int[] pickleStepHashesOfCase = new int[count + 1];
+        pickleStepHashesOfCase[0] = testCaseCode;
+        boolean needsPickle = false;
+        for (int i = 0; i < count; i++) {
+            testStepHashes[start + i] = hash(testStepIds.get(i));
+            testStepNanos[start + i] = -1;
+            String pickleStepId = pickleStepIds.get(i);
+            if (pickleStepId == null) {
+                testStepTexts[start + i] = HOOK_TEXT;
+            } else {
+                testStepTexts[start + i] = -1;
+                pickleStepHashesOfCase[i + 1] = hash(pickleStepId);
+                needsPickle = true;
+            }
+        }
+        testStepSize += count;
+        if (needsPickle) {
+            if (pickleStepStart.get(pickleCode) >= 0) {
+                resolveTexts(testCaseCode, pickleCode, pickleStepHashesOfCase);
+            } else if (pickleCode >= 0) {
+                unresolvedByPickle.computeIfAbsent(pickleCode, k -> new ArrayList<>()).add(pickleStepHashesOfCase);
+            }
+        }
+        PendingSteps pending = pendingByTestCase.remove(testCaseCode);
+        if (pending != null) {
+            for (int i = 0; i < pending.size; i++) {
+                addToSlot(testCaseCode, pending.hashes[i], pending.nanos[i]);
+            }
+        }
+    }
+
+    /**
+     * @param testCaseCode run 이 아직 testCase 에 연결되지 않았으면 -1
+     */
+    void recordStep(int runCode, int testCaseCode, String testStepId, long nanos) {
+        if (testStepId == null) {
+            return;
+        }
+        int stepHash = hash(testStepId);
+        if (testCaseCode < 0) {
+            pendingByRun.computeIfAbsent(runCode, k -> new PendingSteps()).add(stepHash, nanos);
+        } else if (testStepStart.get(testCaseCode) < 0) {
+            pendingByTestCase.computeIfAbsent(testCaseCode, k -> new PendingSteps()).add(stepHash, nanos);
+        } else {
+            addToSlot(testCaseCode, stepHash, nanos);
+        }
+    }
+
+    void linkRun(int runCode, int testCaseCode) {
+        PendingSteps pending = pendingByRun.remove(runCode);
+        if (pending == null || testCaseCode < 0) {
+            return;
+        }
+        for (int i = 0; i < pending.size; i++) {
+            if (testStepStart.get(testCaseCode) < 0) {
+                pendingByTestCase.computeIfAbsent(testCaseCode, k -> new PendingSteps()).add(pending.hashes[i], pending.nanos[i]);
+            } else {
+                addToSlot(testCaseCode, pending.hashes[i], pending.nanos[i]);
+            }
+        }
+    }
+
+    int pendingCount() {
+        return unresolvedByPickle.size() + pendingByRun.size() + pendingByTestCase.size();
+    }
+
+    int testStepCount() {
+        return testStepSize;
+    }
+
+    // 스텝 배열 + 스텝 텍스트 사전 + 대기 중인 결과의 추정 바이트 (코드별 시작/개수 컬럼 제외)
+    long estimatedBytes() {
+        long bytes = 8L * pickleStepHashes.length + 16L * testStepHashes.length + stepTexts.estimatedBytes();
+        return bytes + 64L * pendingCount();
+    }
+
+    /**
+     * 스텝 텍스트별로 모든 testCase 의 결과를 모은다. (결과가 없는 칸, pickle 을 끝내 못 찾은 칸은 제외)
+     */
+    Collection<StepStats> aggregate() {
+        StepStats[] byText = new StepStats[stepTexts.size()];
+        for (int slot = 0; slot < testStepSize; slot++) {
+            int text = testStepTexts[slot];
+            long nanos = testStepNanos[slot];
+            if (text < 0 || nanos < 0) {
+                continue;
+            }
+            StepStats stats = byText[text];
+            if (stats == null) {
+                stats = new StepStats(stepTexts.idOf(text));
+                byText[text] = stats;
+            }
+            stats.add(nanos);
+        }
+        List<StepStats> result = new ArrayList<>();
+        for (StepStats stats : byText) {
+            if (stats != null) {
+                result.add(stats);
+            }
+        }
+        return result;
+    }
+
+    // 한 testCase 의 스텝별 시간 (스텝 순서, 결과가 없는 스텝은 제외)
+    void appendTimings(int testCaseCode, List<StepTiming> target) {
+        int start = testStepStart.get(testCaseCode);
+        if (start < 0) {
+            return;
+        }
+        int end = start + testStepCount.get(testCaseCode);
+        for (int slot = start; slot < end; slot++) {
+            if (testStepNanos[slot] >= 0 && testStepTexts[slot] >= 0) {
+                target.add(new StepTiming(stepTexts.idOf(testStepTexts[slot]), testStepNanos[slot]));
+            }
+        }
+    }
+
+    private void addToSlot(int testCaseCode, int stepHash, long nanos) {
+        int start = testStepStart.get(testCaseCode);
+        int count = testStepCount.get(testCaseCode);
+        int cursor = Math.max(testStepCursor.get(testCaseCode), 0);
+        for (int i = 0; i < count; i++) {
+            int index = (cursor + i) % count;
+            int slot = start + index;
+            if (testStepHashes[slot] == stepHash) {
+                testStepNanos[slot] = Math.max(testStepNanos[slot], 0) + nanos;
+                testStepCursor.set(testCaseCode, (index + 1) % count);
+                return;
+            }
+        }
+    }
+
+    // pickle 스텝도 대개 testCase 스텝과 같은 순서이므로 직전 위치 다음부터 찾는다
+    private void resolveTexts(int testCaseCode, int pickleCode, int[] pickleStepHashesOfCase) {
+        int start = testStepStart.get(testCaseCode);
+        int count = testStepCount.get(testCaseCode);
+        int pickleStart = pickleStepStart.get(pickleCode);
+        int pickleCount = pickleStepCount.get(pickleCode);
+        int cursor = 0;
+        for (int i = 0; i < count; i++) {
+            if (testStepTexts[start + i] >= 0 || pickleCount == 0) {
+                continue;
+            }
+            int wanted = pickleStepHashesOfCase[i + 1];
+            for (int j = 0; j < pickleCount; j++) {
+                int index = (cursor + j) % pickleCount;
+                if (pickleStepHashes[pickleStart + index] == wanted) {
+                    testStepTexts[start + i] = pickleStepTexts[pickleStart + index];
+                    cursor = (index + 1) % pickleCount;
+                    break;
+                }
+            }
+        }
+    }
+
+    private void ensurePickleCapacity(int capacity) {
+        if (capacity > pickleStepHashes.length) {
+            int length = Math.max(pickleStepHashes.length * 2, capacity);
+            pickleStepHashes = Arrays.copyOf(pickleStepHashes, length);
+            pickleStepTexts = Arrays.copyOf(pickleStepTexts, length);
+        }
+    }
+
+    private void ensureTestStepCapacity(int capacity) {
+        if (capacity > testStepHashes.length) {
+            int length = Math.max(testStepHashes.length * 2, capacity);
+            testStepHashes = Arrays.copyOf(testStepHashes, length);
+            testStepTexts = Arrays.copyOf(testStepTexts, length);
+            testStepNanos = Arrays.copyOf(testStepNanos, length);
+        }
+    }
+
+    private static int hash(String id) {
+        return id == null ? 0 : id.hashCode();
+    }
+
+    // 스텝 텍스트 하나의 합계
+    static final class StepStats {
+        public final String step;
+        public int count;
+        public long totalNanos;
+        public long maxNanos;
+        public final LatencyHistogram latency = new LatencyHistogram();
+
+        StepStats(String step) {
+            this.step = step;
+        }
+
+        void add(long nanos) {
+            count++;
+            totalNanos += nanos;
+            maxNanos = Math.max(maxNanos, nanos);
+            latency.recordSeconds(nanos / 1_000_000_000.0);
+        }
+
+        void merge(StepStats other) {
+            count += other.count;
+            totalNanos += other.totalNanos;
+            maxNanos = Math.max(maxNanos, other.maxNanos);
+            latency.merge(other.latency);
+        }
+
+        public double getTotalSeconds() {
+            return totalNanos / 1_000_000_000.0;
+        }
+
+        public double getAverageSeconds() {
+            return count == 0 ? 0.0 : getTotalSeconds() / count;
+        }
+    }
+
+    // 한 시나리오 안의 스텝 하나
+    static final class StepTiming {
+        public final String step;
+        public final long nanos;
+
+        StepTiming(String step, long nanos) {
+            this.step = step;
+            this.nanos = nanos;
+        }
+
+        public double getSeconds() {
+            return nanos / 1_000_000_000.0;
+        }
+    }
+
+    // 해소 대기 중인 스텝 결과 (testStepId 해시, nanos)
+    private static final class PendingSteps {
+        int[] hashes = new int[4];
+        long[] nanos = new long[4];
+        int size;
+
+        void add(int hash, long stepNanos) {
+            if (size == hashes.length) {
+                hashes = Arrays.copyOf(hashes, size * 2);
+                nanos = Arrays.copyOf(nanos, size * 2);
+            }
+            hashes[size] = hash;
+            nanos[size] = stepNanos;
+            size++;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.example;
+
+import com.example.CucumberHtmlParser.ScenarioData;
+import com.example.CucumberHtmlParser.TimeStats;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * 크기 K 의 최소 힙 하나로 한 번 훑어서 가장 큰 K 개를 고른다. (O(n log K), 전체 정렬 없음)
+ * 값이 같으면 먼저 나온 항목이 앞선다.
+ */
+final class TopK {
+
+    static final Comparator<ScenarioData> BY_DURATION = Comparator.comparingDouble(row -> row.totalDurationSeconds);
+    // p95 가 같으면 평균
+    static final Comparator<Map.Entry<String, TimeStats>> BY_P95 = Comparator
+            .<Map.Entry<String, TimeStats>>comparingDouble(entry -> entry.getValue().latency.getPercentileSeconds(95))
+            .thenComparingDouble(entry -> entry.getValue().avgTimeSec);
+    static final Comparator<StepTimingStore.StepStats> BY_TOTAL_TIME = Comparator.comparingLong(stats -> stats.totalNanos);
+    static final Comparator<Map.Entry<String, RetryStats.Counts>> BY_WASTED_TIME = Comparator
+            .comparingDouble(entry -> entry.getValue().wastedTimeSec);
+
+    private TopK() {
+    }
+
+    // 실행 시간이 가장 긴 시나리오 K 개 (긴 것부터)
+    static List<ScenarioData> slowestScenarios(Iterable<ScenarioData> rows, int k) {
+        return largest(rows, k, BY_DURATION);
+    }
+
+    // p95 실행 시간이 가장 긴 엔드포인트 K 개 (긴 것부터)
+    static List<Map.Entry<String, TimeStats>> slowestEndpoints(Map<String, TimeStats> endpointStats, int k) {
+        return largest(endpointStats.entrySet(), k, BY_P95);
+    }
+
+    // 모든 시나리오에서 걸린 시간 합계가 가장 큰 스텝 K 개 (큰 것부터)
+    static List<StepTimingStore.StepStats> slowestSteps(Iterable<StepTimingStore.StepStats> steps, int k) {
+        return largest(steps, k, BY_TOTAL_TIME);
+    }
+
+    /**
+     * @return comparator 기준 큰 것부터 최대 k 개
+     */
+    static <T> List<T> largest(Iterable<T> items, int k, Comparator<? super T> comparator) {
+        if (k <= 0) {
+            return new ArrayList<>();
+        }
+        // 힙의 루트가 K 개 중 가장 작은 (같으면 나중에 나온) 항목
+        Comparator<Ranked<T>> heapOrder = (a, b) -> {
+            int compared = comparator.compare(a.item, b.item);
+            return compared != 0 ? compared : Long.compare(b.sequence, a.sequence);
+        };
+        PriorityQueue<Ranked<T>> heap = new PriorityQueue<>(Math.min(k, 1024), heapOrder);
+        long sequence = 0;
+        for (T item : items) {
+            if (heap.size() < k) {
+                heap.add(new Ranked<>(item, sequence));
+            } else if (comparator.compare(item, heap.peek().item) > 0) {
+                // 같은 값이면 먼저 들어온 항목을 남긴다
+                Ranked<T> evicted = heap.poll();
+                evicted.item = item;
+                evicted.sequence = sequence;
+                heap.add(evicted);
+            }
+            sequence++;
+        }
+        List<T> result = new ArrayList<>(heap.size());
+        while (!heap.isEmpty()) {
+            result.add(heap.poll().item);
+        }
+        Collections.reverse(result);
+        return result;
+    }
+
+    private static final class Ranked<T> {
+        T item;
+        long sequence;
+
+        Ranked(T item, long sequence) {
+            this.item = item;
+            this.sequence = sequence;
+        }
+    }
+}
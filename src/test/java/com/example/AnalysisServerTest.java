@@ -0,0 +1,180 @@
+package com.example;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.Assert.*;
+
+public class AnalysisServerTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private final HttpClient client = HttpClient.newHttpClient();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private AnalysisServer server;
+    private Path root;
+
+    @Before
+    public void setUp() throws Exception {
+        root = temporaryFolder.newFolder("reports").toPath();
+        server = new AnalysisServer(new InetSocketAddress("127.0.0.1", 0), AnalysisServer.DEFAULT_CACHE_BYTES, root, 2);
+        server.start();
+    }
+
+    @After
+    public void tearDown() {
+        server.stop();
+    }
+
+    private static String report(ReportGenerator.Format format, long seed) throws Exception {
+        return GeneratedReports.render(GeneratedReports.options(300, 0.2, seed), format);
+    }
+
+    private URI uri(String pathAndQuery) {
+        return URI.create("http://127.0.0.1:" + server.getPort() + pathAndQuery);
+    }
+
+    private HttpResponse<String> post(String query, String body) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(uri("/analyze" + query))
+                .POST(HttpRequest.BodyPublishers.ofString(body, StandardCharsets.UTF_8)).build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+    }
+
+    private HttpResponse<String> get(String pathAndQuery) throws Exception {
+        return client.send(HttpRequest.newBuilder(uri(pathAndQuery)).GET().build(),
+                HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testUpload_parsesOnceThenServesFromCache() throws Exception {
+        String html = report(ReportGenerator.Format.HTML, 1);
+        CucumberHtmlParser expected = GeneratedReports.parse(html, ReportGenerator.Format.HTML);
+
+        HttpResponse<String> first = post("", html);
+        assertEquals(200, first.statusCode());
+        assertEquals("MISS", first.headers().firstValue("X-Cache").orElse(null));
+        JsonNode json = objectMapper.readTree(first.body());
+        assertEquals(300, json.get("rows").size());
+        assertEquals(expected.getStats().failedCount, json.get("stats").get("failedCount").asInt());
+        assertEquals(expected.getStats().endpointStatsMap.size(), json.get("stats").get("endpoints").size());
+
+        HttpResponse<String> second = post("?format=stats", html);
+        assertEquals("HIT", second.headers().firstValue("X-Cache").orElse(null));
+        JsonNode stats = objectMapper.readTree(second.body());
+        assertNull(stats.get("rows"));
+        assertEquals(json.get("sha256").asText(), stats.get("sha256").asText());
+        assertEquals(1, server.getParseCount());
+
+        HttpResponse<String> csv = post("?format=csv", html);
+        assertTrue(csv.body().startsWith(CsvReportWriter.HEADER));
+        assertTrue(csv.body().contains("[Stats]"));
+    }
+
+    @Test
+    public void testNdjsonUploadAndPath_matchHtml() throws Exception {
+        String html = report(ReportGenerator.Format.HTML, 2);
+        String ndjson = report(ReportGenerator.Format.NDJSON, 2);
+        Files.write(root.resolve("run.html"), html.getBytes(StandardCharsets.UTF_8));
+
+        JsonNode fromHtml = objectMapper.readTree(post("?format=stats", html).body()).get("stats");
+        JsonNode fromNdjson = objectMapper.readTree(post("?format=stats", ndjson).body()).get("stats");
+        HttpResponse<String> fromPath = get("/analyze?format=stats&path=run.html");
+
+        assertEquals(fromHtml, fromNdjson);
+        // 같은 내용이면 업로드/경로 어느 쪽이든 캐시를 공유한다
+        assertEquals("HIT", fromPath.headers().firstValue("X-Cache").orElse(null));
+        assertEquals(fromHtml, objectMapper.readTree(fromPath.body()).get("stats"));
+        assertEquals(2, server.getParseCount());
+    }
+
+    @Test
+    public void testConcurrentIdenticalUploads_shareOneParse() throws Exception {
+        String html = report(ReportGenerator.Format.HTML, 3);
+        List<CompletableFuture<HttpResponse<String>>> responses = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            responses.add(client.sendAsync(HttpRequest.newBuilder(uri("/analyze?format=stats"))
+                    .POST(HttpRequest.BodyPublishers.ofString(html)).build(), HttpResponse.BodyHandlers.ofString()));
+        }
+        int misses = 0;
+        for (CompletableFuture<HttpResponse<String>> response : responses) {
+            assertEquals(200, response.get().statusCode());
+            // 직접 파싱한 요청만 MISS, 나머지는 진행 중이던 파싱(SHARED) 이나 캐시(HIT) 의 결과
+            String cacheStatus = response.get().headers().firstValue("X-Cache").orElse(null);
+            assertTrue(cacheStatus, "MISS".equals(cacheStatus) || "SHARED".equals(cacheStatus) || "HIT".equals(cacheStatus));
+            if ("MISS".equals(cacheStatus)) {
+                misses++;
+            }
+        }
+        assertEquals(1, misses);
+        assertEquals(1, server.getParseCount());
+    }
+
+    // IN_MEMORY_UPLOAD_BYTES 보다 큰 업로드는 임시 파일로 받아 매핑해도 결과가 같다
+    @Test
+    public void testLargeUpload_spooledToFile() throws Exception {
+        String html = GeneratedReports.render(GeneratedReports.options(4000, 0.2, 9), ReportGenerator.Format.HTML);
+        assertTrue(html.length() > AnalysisServer.IN_MEMORY_UPLOAD_BYTES);
+        CucumberHtmlParser expected = GeneratedReports.parse(html, ReportGenerator.Format.HTML);
+
+        HttpResponse<String> response = post("?format=stats", html);
+        assertEquals(200, response.statusCode());
+        JsonNode stats = objectMapper.readTree(response.body()).get("stats");
+        assertEquals(expected.getStats().totalCount, stats.get("totalCount").asInt());
+        assertEquals(expected.getStats().failedCount, stats.get("failedCount").asInt());
+        assertEquals(AnalysisServer.sha256(ByteBuffer.wrap(html.getBytes(StandardCharsets.UTF_8))),
+                response.headers().firstValue("X-Content-SHA256").orElse(null));
+    }
+
+    @Test
+    public void testDeclaredLength_malformedIs400() throws Exception {
+        assertEquals(-1, AnalysisServer.declaredLength(null));
+        assertEquals(12, AnalysisServer.declaredLength(" 12 "));
+        for (String malformed : new String[]{"12abc", "-5", "", "99999999999999999999"}) {
+            try {
+                AnalysisServer.declaredLength(malformed);
+                fail(malformed);
+            } catch (AnalysisServer.RequestException e) {
+                assertEquals(malformed, 400, e.status);
+            }
+        }
+        try {
+            AnalysisServer.declaredLength(String.valueOf(AnalysisServer.MAX_UPLOAD_BYTES + 1L));
+            fail();
+        } catch (AnalysisServer.RequestException e) {
+            assertEquals(413, e.status);
+        }
+    }
+
+    @Test
+    public void testRejectedRequests() throws Exception {
+        Path outside = temporaryFolder.newFile("outside.html").toPath();
+        assertEquals(403, get("/analyze?path=" + outside).statusCode());
+        assertEquals(403, get("/analyze?path=../outside.html").statusCode());
+        assertEquals(404, get("/analyze?path=missing.html").statusCode());
+        assertEquals(405, get("/analyze").statusCode());
+        assertEquals(400, post("?format=xml", "{}").statusCode());
+
+        JsonNode health = objectMapper.readTree(get("/health").body());
+        assertEquals("ok", health.get("status").asText());
+        assertEquals(0, health.get("cacheEntries").asInt());
+    }
+}
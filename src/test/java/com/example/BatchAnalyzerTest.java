@@ -0,0 +1,116 @@
+package com.example;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class BatchAnalyzerTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testAnalyze_mergesAllShards() throws Exception {
+        Path dir = temporaryFolder.getRoot().toPath();
+        Path fixture = Paths.get("src/test/resources/Cucumber.html");
+        for (int i = 0; i < 3; i++) {
+            Files.copy(fixture, dir.resolve("shard-" + i + ".html"));
+        }
+        Files.write(dir.resolve("notes.txt"), "not a report".getBytes());
+
+        CucumberHtmlParser single = new CucumberHtmlParser();
+        single.parseFile(fixture.toString());
+
+        List<Path> reports = BatchAnalyzer.resolveReports(dir.toString());
+        assertEquals(3, reports.size());
+        BatchAnalyzer batchAnalyzer = new BatchAnalyzer(2);
+        CucumberHtmlParser combined = batchAnalyzer.analyze(reports);
+
+        assertEquals(3 * single.getRowIdToScenarioData().size(), combined.getRowIdToScenarioData().size());
+        assertTrue(batchAnalyzer.getFailedReports().isEmpty());
+        for (String rowId : single.getRowIdToScenarioData().keySet()) {
+            assertEquals(single.getRowIdToScenarioData().get(rowId).finalStatus,
+                    combined.getRowIdToScenarioData().get("2:" + rowId).finalStatus);
+        }
+    }
+
+    // 합친 parser 에는 run 이 없으므로 재시도/스텝 집계는 샤드 집계의 합이어야 한다
+    @Test
+    public void testAnalyze_mergesRetryAndStepStats() throws Exception {
+        Path dir = temporaryFolder.getRoot().toPath();
+        RetryStats expected = new RetryStats();
+        long expectedStepNanos = 0;
+        for (int i = 0; i < 2; i++) {
+            ReportGenerator.Options options = GeneratedReports.options(500, 0.3, 31 + i);
+            options.maxRetries = 2;
+            ReportGenerator.Format format = i == 0 ? ReportGenerator.Format.HTML : ReportGenerator.Format.NDJSON;
+            String report = GeneratedReports.render(options, format);
+            Files.write(dir.resolve("shard-" + i + (i == 0 ? ".html" : ".ndjson")), report.getBytes(StandardCharsets.UTF_8));
+            CucumberHtmlParser shard = new CucumberHtmlParser();
+            shard.setStepTimingEnabled(true);
+            GeneratedReports.parse(shard, report, format);
+            expected.merge(shard.getRetryStats());
+            for (StepTimingStore.StepStats stats : shard.getStepStats()) {
+                expectedStepNanos += stats.totalNanos;
+            }
+        }
+
+        BatchAnalyzer batchAnalyzer = new BatchAnalyzer(2);
+        batchAnalyzer.setStepTimingEnabled(true);
+        CucumberHtmlParser combined = batchAnalyzer.analyze(BatchAnalyzer.resolveReports(dir.toString()));
+        RetryStats actual = combined.getRetryStats();
+        assertEquals(1000, actual.total.scenarioCount);
+        assertTrue(actual.total.retriedCount > 0);
+        assertEquals(expected.total.attemptCount, actual.total.attemptCount);
+        assertEquals(expected.total.passedOnRetryCount, actual.total.passedOnRetryCount);
+        assertEquals(expected.total.wastedTimeSec, actual.total.wastedTimeSec, 1e-6);
+        assertEquals(expected.endpointStatsMap.keySet(), actual.endpointStatsMap.keySet());
+        long actualStepNanos = 0;
+        for (StepTimingStore.StepStats stats : combined.getSlowestSteps(100)) {
+            actualStepNanos += stats.totalNanos;
+        }
+        assertTrue(expectedStepNanos > 0);
+        assertEquals(expectedStepNanos, actualStepNanos);
+    }
+
+    // 큰 샤드가 먼저 오도록 크기를 섞어 완료 순서가 리포트 순서와 달라도, 행은 (리포트 번호, 리포트 안 순서) 로 합쳐진다
+    @Test
+    public void testAnalyze_mergesInReportOrderRegardlessOfCompletion() throws Exception {
+        Path dir = temporaryFolder.getRoot().toPath();
+        int[] sizes = {3000, 20, 1500, 5, 800, 40};
+        List<String> expectedOrder = new ArrayList<>();
+        for (int i = 0; i < sizes.length; i++) {
+            String report = GeneratedReports.render(GeneratedReports.options(sizes[i], 0.2, 50 + i), ReportGenerator.Format.NDJSON);
+            Files.write(dir.resolve("shard-" + i + ".ndjson"), report.getBytes(StandardCharsets.UTF_8));
+            for (String rowId : GeneratedReports.parse(report, ReportGenerator.Format.NDJSON).getRowIdToScenarioData().keySet()) {
+                expectedOrder.add(i + ":" + rowId);
+            }
+        }
+        List<Path> reports = BatchAnalyzer.resolveReports(dir.toString());
+        for (int run = 0; run < 2; run++) {
+            CucumberHtmlParser combined = new BatchAnalyzer(4).analyze(reports);
+            assertEquals(expectedOrder, new ArrayList<>(combined.getRowIdToScenarioData().keySet()));
+        }
+    }
+
+    @Test
+    public void testResolveReports_glob() throws Exception {
+        Path dir = temporaryFolder.newFolder("reports").toPath();
+        Files.write(dir.resolve("shard-1.html"), new byte[0]);
+        Files.write(dir.resolve("shard-2.html"), new byte[0]);
+        Files.write(dir.resolve("other.html"), new byte[0]);
+
+        List<Path> reports = BatchAnalyzer.resolveReports(dir + "/shard-*.html");
+        assertEquals(2, reports.size());
+        assertEquals("shard-1.html", reports.get(0).getFileName().toString());
+    }
+}
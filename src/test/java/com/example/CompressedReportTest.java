@@ -0,0 +1,155 @@
+package com.example;
+
+import com.example.CucumberHtmlParser.ScenarioData;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.Assert.*;
+
+public class CompressedReportTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private static String report(ReportGenerator.Format format, long seed) throws Exception {
+        return GeneratedReports.render(GeneratedReports.options(300, seed), format);
+    }
+
+    private Path gzip(String name, byte[] content) throws Exception {
+        Path path = temporaryFolder.getRoot().toPath().resolve(name);
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(path))) {
+            out.write(content);
+        }
+        return path;
+    }
+
+    @Test
+    public void testGzip_htmlAndNdjson() throws Exception {
+        CucumberHtmlParser expected = new CucumberHtmlParser();
+        expected.parseFile("src/test/resources/Cucumber.html");
+        Path htmlGz = gzip("Cucumber.html.gz", Files.readAllBytes(Paths.get("src/test/resources/Cucumber.html")));
+
+        CucumberHtmlParser fromGzip = CucumberHtmlParser.parseReport(htmlGz.toString(), "string");
+        CucumberHtmlParserIntegrationTest.assertSameRows(expected.getRowIdToScenarioData(), fromGzip.getRowIdToScenarioData());
+        assertEquals(Files.size(htmlGz), fromGzip.getMetrics().bytesRead);
+
+        Path ndjsonGz = gzip("run.ndjson.gz", report(ReportGenerator.Format.NDJSON, 5).getBytes(StandardCharsets.UTF_8));
+        CucumberHtmlParser fromNdjson = new CucumberHtmlParser();
+        fromNdjson.parseCompressedFile(ndjsonGz.toString());
+        CucumberHtmlParserIntegrationTest.assertSameRows(
+                GeneratedReports.parse(report(ReportGenerator.Format.HTML, 5), ReportGenerator.Format.HTML).getRowIdToScenarioData(), fromNdjson.getRowIdToScenarioData());
+        assertEquals(0, fromNdjson.getPendingReferenceCount());
+    }
+
+    @Test
+    public void testZip_singleEntryAndShardBundle() throws Exception {
+        String shard0 = report(ReportGenerator.Format.HTML, 1);
+        String shard1 = report(ReportGenerator.Format.NDJSON, 2);
+        Path bundle = temporaryFolder.getRoot().toPath().resolve("shards.zip");
+        try (ZipOutputStream zip = new ZipOutputStream(Files.newOutputStream(bundle))) {
+            zip.putNextEntry(new ZipEntry("README.txt"));
+            zip.write("not a report".getBytes(StandardCharsets.UTF_8));
+            zip.putNextEntry(new ZipEntry("shards/"));
+            zip.putNextEntry(new ZipEntry("shards/shard-0.html"));
+            zip.write(shard0.getBytes(StandardCharsets.UTF_8));
+            zip.putNextEntry(new ZipEntry("shards/shard-1.ndjson"));
+            zip.write(shard1.getBytes(StandardCharsets.UTF_8));
+        }
+
+        ParseResult result = new ParserEngine().parseFile(bundle);
+        Map<String, ScenarioData> rows = result.getRows();
+        assertEquals(600, rows.size());
+        Map<String, ScenarioData> expected0 = GeneratedReports.parse(shard0, ReportGenerator.Format.HTML).getRowIdToScenarioData();
+        Map<String, ScenarioData> expected1 = GeneratedReports.parse(report(ReportGenerator.Format.HTML, 2),
+                ReportGenerator.Format.HTML).getRowIdToScenarioData();
+        for (Map.Entry<String, ScenarioData> entry : expected0.entrySet()) {
+            assertEquals(entry.getValue().finalStatus, rows.get("0:" + entry.getKey()).finalStatus);
+        }
+        for (Map.Entry<String, ScenarioData> entry : expected1.entrySet()) {
+            assertEquals(entry.getValue().totalDurationSeconds, rows.get("1:" + entry.getKey()).totalDurationSeconds, 1e-9);
+        }
+
+        Path single = temporaryFolder.getRoot().toPath().resolve("single.zip");
+        try (ZipOutputStream zip = new ZipOutputStream(Files.newOutputStream(single))) {
+            zip.putNextEntry(new ZipEntry("report.html"));
+            zip.write(shard0.getBytes(StandardCharsets.UTF_8));
+        }
+        CucumberHtmlParserIntegrationTest.assertSameRows(expected0, new ParserEngine().parseFile(single).getRows());
+    }
+
+    // 샤드 묶음의 항목 parser 도 메모리 예산/스텝 기록 설정을 따르고, 재시도/스텝 집계는 항목별 합이다
+    @Test
+    public void testZipShardBundle_keepsBudgetAndMergesStats() throws Exception {
+        Path bundle = temporaryFolder.getRoot().toPath().resolve("retries.zip");
+        RetryStats expectedRetries = new RetryStats();
+        long expectedStepNanos = 0;
+        try (ZipOutputStream zip = new ZipOutputStream(Files.newOutputStream(bundle))) {
+            for (int i = 0; i < 2; i++) {
+                ReportGenerator.Options options = GeneratedReports.options(1000, 0.3, 40 + i);
+                options.maxRetries = 1;
+                String shard = GeneratedReports.render(options, ReportGenerator.Format.NDJSON);
+                zip.putNextEntry(new ZipEntry("shard-" + i + ".ndjson"));
+                zip.write(shard.getBytes(StandardCharsets.UTF_8));
+                CucumberHtmlParser expected = new CucumberHtmlParser();
+                expected.setStepTimingEnabled(true);
+                GeneratedReports.parse(expected, shard, ReportGenerator.Format.NDJSON);
+                expectedRetries.merge(expected.getRetryStats());
+                for (StepTimingStore.StepStats stats : expected.getStepStats()) {
+                    expectedStepNanos += stats.totalNanos;
+                }
+            }
+        }
+
+        Path spillDir = temporaryFolder.newFolder("spill").toPath();
+        CucumberHtmlParser parser = new CucumberHtmlParser();
+        parser.setMemoryBudget(16 << 10, spillDir);
+        parser.setStepTimingEnabled(true);
+        parser.parseCompressedFile(bundle.toString());
+        assertEquals(2000, parser.getRowIdToScenarioData().size());
+        assertTrue(parser.getSpilledRowCount() > 0);
+
+        RetryStats retries = parser.getRetryStats();
+        assertTrue(retries.total.retriedCount > 0);
+        assertEquals(expectedRetries.total.attemptCount, retries.total.attemptCount);
+        assertEquals(expectedRetries.total.wastedTimeSec, retries.total.wastedTimeSec, 1e-6);
+        long stepNanos = 0;
+        for (StepTimingStore.StepStats stats : parser.getStepStats()) {
+            stepNanos += stats.totalNanos;
+        }
+        assertEquals(expectedStepNanos, stepNanos);
+        parser.closeSpill();
+    }
+
+    @Test
+    public void testSkipToMarker_acrossShortReads() throws Exception {
+        byte[] marker = "abcabd".getBytes(StandardCharsets.US_ASCII);
+        byte[] content = "xxabcabcabdREST".getBytes(StandardCharsets.US_ASCII);
+        // 3 바이트씩만 돌려주는 스트림
+        InputStream chunked = new FilterInputStream(new ByteArrayInputStream(content)) {
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                return super.read(b, off, Math.min(len, 3));
+            }
+        };
+        InputStream rest = CucumberHtmlParser.skipToMarker(chunked, marker);
+        assertNotNull(rest);
+        assertEquals("REST", new String(rest.readAllBytes(), StandardCharsets.US_ASCII));
+
+        assertNull(CucumberHtmlParser.skipToMarker(new ByteArrayInputStream(content), "zzz".getBytes(StandardCharsets.US_ASCII)));
+    }
+}
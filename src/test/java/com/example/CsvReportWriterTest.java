@@ -0,0 +1,109 @@
+package com.example;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class CsvReportWriterTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testFixedDecimal_matchesStringFormat() {
+        Random random = new Random(3);
+        double[] edgeValues = {0.0, -0.0, 0.0005, 1.0005, 2.675, 0.125, 999.9995, 1e9, 123456789012.3456,
+                -1.25, Double.NaN, Double.POSITIVE_INFINITY, 0.1 + 0.2,
+                // 자릿수별 .5 반올림 경계
+                0.5, 1.5, 2.5, 0.05, 0.15, 0.25, 0.005, 0.015, 0.0015, 9.9995, 0.9995, 99.995,
+                // 음수
+                -0.5, -2.5, -0.0005, -1234.5678, Double.NEGATIVE_INFINITY,
+                // 빠른 경로 한계 근처와 큰 값 / 아주 작은 값
+                999_999_999.9995, 999_999_999.4, 1e9 - 0.0005, 1e15 + 0.5, Double.MAX_VALUE, Double.MIN_VALUE};
+        for (double value : edgeValues) {
+            assertFormatted(value);
+        }
+        for (int i = 0; i < 5_000; i++) {
+            double value = random.nextInt(3) == 0 ? random.nextInt(100_000) / 1000.0 : random.nextDouble() * 5000;
+            assertFormatted(value);
+        }
+    }
+
+    private static void assertFormatted(double value) {
+        for (int digits = 0; digits <= 3; digits++) {
+            assertEquals("value=" + value + ", digits=" + digits,
+                    String.format(Locale.ROOT, "%." + digits + "f", value), FixedDecimal.format(value, digits));
+        }
+    }
+
+    @Test
+    public void testAppendEscaped_rfc4180() {
+        assertEquals("plain", CsvReportWriter.appendEscaped(new StringBuilder(), "plain").toString());
+        assertEquals("\"a,b\"", CsvReportWriter.appendEscaped(new StringBuilder(), "a,b").toString());
+        assertEquals("\"say \"\"hi\"\"\"", CsvReportWriter.appendEscaped(new StringBuilder(), "say \"hi\"").toString());
+        assertEquals("\"line1\nline2\"", CsvReportWriter.appendEscaped(new StringBuilder(), "line1\nline2").toString());
+        assertEquals("", CsvReportWriter.appendEscaped(new StringBuilder(), null).toString());
+    }
+
+    @Test
+    public void testWriteRow() throws Exception {
+        StringWriter out = new StringWriter();
+        CucumberHtmlParser.ScenarioData data = StatsAccumulatorTest.row("GET", "/a,b", "PASSED", 1.23456);
+        data.testcaseId = "TC-1";
+        try (CsvReportWriter writer = new CsvReportWriter(out)) {
+            writer.writeHeader();
+            writer.writeRow(data);
+        }
+        assertEquals(CsvReportWriter.HEADER + "PASSED,TC-1,GET,\"/a,b\",1.235\n", out.toString());
+    }
+
+    @Test
+    public void testWriteRow_reusesLineBufferAcrossLengths() throws Exception {
+        StringWriter out = new StringWriter();
+        StringBuilder expected = new StringBuilder(CsvReportWriter.HEADER);
+        try (CsvReportWriter writer = new CsvReportWriter(out)) {
+            writer.writeHeader();
+            // 짧은 줄 -> 버퍼보다 긴 줄 -> 다시 짧은 줄 (앞 줄의 남은 문자가 섞이지 않아야 한다)
+            for (int length : new int[] {1, 1000, 3}) {
+                StringBuilder endpoint = new StringBuilder("/");
+                for (int i = 1; i < length; i++) {
+                    endpoint.append((char) ('a' + i % 26));
+                }
+                CucumberHtmlParser.ScenarioData data = StatsAccumulatorTest.row("GET", endpoint.toString(), "FAILED", 2.0);
+                data.testcaseId = "TC-" + length;
+                writer.writeRow(data);
+                expected.append("FAILED,TC-").append(length).append(",GET,").append(endpoint).append(",2.000\n");
+            }
+        }
+        assertEquals(expected.toString(), out.toString());
+    }
+
+    @Test
+    public void testExportResultsToCsv_separateStatsFile() throws Exception {
+        CucumberHtmlParser parser = new CucumberHtmlParser();
+        parser.parseFile("src/test/resources/Cucumber.html");
+        Path csv = temporaryFolder.getRoot().toPath().resolve("result.csv");
+        Path stats = temporaryFolder.getRoot().toPath().resolve("stats.csv");
+
+        parser.exportResultsToCsv(csv.toString(), stats.toString());
+
+        List<String> csvLines = Files.readAllLines(csv, StandardCharsets.UTF_8);
+        assertEquals(parser.getRowIdToScenarioData().size() + 1, csvLines.size());
+        assertFalse(csvLines.contains("[Stats]"));
+        assertTrue(Files.readAllLines(stats, StandardCharsets.UTF_8).get(0).startsWith("Overall,"));
+
+        Path combined = temporaryFolder.getRoot().toPath().resolve("combined.csv");
+        parser.exportResultsToCsv(combined.toString());
+        assertTrue(Files.readAllLines(combined, StandardCharsets.UTF_8).contains("[Stats]"));
+    }
+}
@@ -3,7 +3,17 @@ package com.example;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 
 public class CucumberHtmlParserIntegrationTest {
@@ -29,5 +39,64 @@ public class CucumberHtmlParserIntegrationTest {
 
         assertTrue("PASSED".equals(status) || "FAILED".equals(status));
     }
-}
 
+    @Test
+    public void testParseFileStreaming_sameAsParseFile() throws Exception {
+        parser.parseFile(testHtmlPath);
+        CucumberHtmlParser streamingParser = new CucumberHtmlParser();
+        streamingParser.parseFileStreaming(testHtmlPath);
+
+        assertSameRows(parser.getRowIdToScenarioData(), streamingParser.getRowIdToScenarioData());
+    }
+
+    @Test
+    public void testParseFileMapped_sameAsParseFile() throws Exception {
+        parser.parseFile(testHtmlPath);
+        CucumberHtmlParser mappedParser = new CucumberHtmlParser();
+        mappedParser.parseFileMapped(testHtmlPath);
+
+        assertSameRows(parser.getRowIdToScenarioData(), mappedParser.getRowIdToScenarioData());
+    }
+
+    @Test
+    public void testOutOfOrderMessages_sameAsParseFile() throws Exception {
+        parser.parseFile(testHtmlPath);
+        String html = new String(Files.readAllBytes(Paths.get(testHtmlPath)), "UTF-8");
+
+        CucumberHtmlParser reversedParser = new CucumberHtmlParser();
+        List<Object> messages = new ArrayList<>(reversedParser.readJsonArray(reversedParser.extractCucumberMessagesJson(html)));
+        Collections.reverse(messages);
+        for (Object message : messages) {
+            reversedParser.processElement((Map) message);
+        }
+        reversedParser.updateFinalStatuses();
+        assertSameRows(parser.getRowIdToScenarioData(), reversedParser.getRowIdToScenarioData());
+        assertEquals(0, reversedParser.getPendingReferenceCount());
+
+        CucumberHtmlParser shuffledParser = new CucumberHtmlParser();
+        Collections.shuffle(messages, new Random(42));
+        for (Object message : messages) {
+            shuffledParser.processElement((Map) message);
+        }
+        shuffledParser.updateFinalStatuses();
+        assertSameRows(parser.getRowIdToScenarioData(), shuffledParser.getRowIdToScenarioData());
+        assertEquals(parser.getScenarioStatus(), shuffledParser.getScenarioStatus());
+    }
+
+    static void assertSameRows(Map<String, CucumberHtmlParser.ScenarioData> expected,
+                               Map<String, CucumberHtmlParser.ScenarioData> actual) {
+        assertFalse(expected.isEmpty());
+        assertEquals(expected.keySet(), actual.keySet());
+        for (Map.Entry<String, CucumberHtmlParser.ScenarioData> entry : expected.entrySet()) {
+            CucumberHtmlParser.ScenarioData e = entry.getValue();
+            CucumberHtmlParser.ScenarioData a = actual.get(entry.getKey());
+            assertNotNull(a);
+            assertEquals(e.testcaseId, a.testcaseId);
+            assertEquals(e.method, a.method);
+            assertEquals(e.apiEndpoint, a.apiEndpoint);
+            assertEquals(e.statusCode, a.statusCode);
+            assertEquals(e.finalStatus, a.finalStatus);
+            assertEquals(e.totalDurationSeconds, a.totalDurationSeconds, 1e-9);
+        }
+    }
+}
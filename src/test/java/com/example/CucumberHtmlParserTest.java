@@ -6,6 +6,7 @@ import static org.junit.Assert.*;
 import static org.mockito.Mockito.*;
 
 import java.io.IOException;
+import java.io.StringReader;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
@@ -55,6 +56,76 @@ public class CucumberHtmlParserTest {
         verify(parser, atLeastOnce()).readJsonArray("[]");
     }
 
+    @Test
+    public void testParseStream_singleScenario() throws Exception {
+        String html = "<script>window.CUCUMBER_MESSAGES = ["
+                + "{\"gherkinDocument\":{\"feature\":{\"children\":[{\"scenario\":{\"examples\":[{\"tableBody\":["
+                + "{\"id\":\"row-1\",\"cells\":[{\"value\":\"TC-1\"},{\"value\":\"GET\"},{\"value\":\"/a\"}]}]}]}}]}}},"
+                + "{\"pickle\":{\"id\":\"p-1\",\"steps\":[{\"astNodeIds\":[\"s-1\",\"row-1\"]}]}},"
+                + "{\"testCase\":{\"id\":\"tc-1\",\"pickleId\":\"p-1\"}},"
+                + "{\"testCaseStarted\":{\"id\":\"run-1\",\"testCaseId\":\"tc-1\"}},"
+                + "{\"testStepFinished\":{\"testCaseStartedId\":\"run-1\",\"testStepResult\":"
+                + "{\"status\":\"FAILED\",\"duration\":{\"seconds\":1,\"nanos\":500000000}}}}"
+                + "];</script>";
+        parser.parseStream(new StringReader(html));
+        CucumberHtmlParser.ScenarioData data = parser.getRowIdToScenarioData().get("row-1");
+        assertEquals("TC-1", data.testcaseId);
+        assertEquals("FAILED", data.finalStatus);
+        assertEquals(1.5, data.totalDurationSeconds, 1e-9);
+    }
+
+    @Test
+    public void testRowMapGetter_isReadOnlyAndKeepsMemoizedStats() throws Exception {
+        CucumberHtmlParser parsed = GeneratedReports.parse(GeneratedReports.render(
+                GeneratedReports.options(20, 7), ReportGenerator.Format.HTML), ReportGenerator.Format.HTML);
+        CucumberHtmlParser.StatsResult stats = parsed.getStats();
+        Map<String, CucumberHtmlParser.ScenarioData> rows = parsed.getRowIdToScenarioData();
+        assertEquals(20, rows.size());
+        assertSame(stats, parsed.getStats());
+        try {
+            rows.put("row-x", new CucumberHtmlParser.ScenarioData());
+            fail();
+        } catch (UnsupportedOperationException expected) {
+        }
+        // 행을 넣는 경로는 캐시를 무효화한다
+        parsed.addScenarioRow("row-x", new String[] {"TC-X", "GET", "/x"});
+        assertNotSame(stats, parsed.getStats());
+        assertEquals(stats.totalCount + 1, parsed.getStats().totalCount);
+    }
+
+    @Test
+    public void testSkipToMarker_partialPrefix() throws Exception {
+        StringReader reader = new StringReader("window.CUwindow.CUCUMBER_MESSAGES = [1]");
+        assertTrue(CucumberHtmlParser.skipToMarker(reader, CucumberHtmlParser.MESSAGES_MARKER));
+        assertEquals(' ', reader.read());
+        assertFalse(CucumberHtmlParser.skipToMarker(new StringReader("no marker"), CucumberHtmlParser.MESSAGES_MARKER));
+    }
+
+    @Test
+    public void testIndexOf_byteBuffer() {
+        java.nio.ByteBuffer buffer = java.nio.ByteBuffer.wrap("aabab];".getBytes());
+        assertEquals(1, CucumberHtmlParser.indexOf(buffer, "ab".getBytes(), 0));
+        assertEquals(3, CucumberHtmlParser.indexOf(buffer, "ab".getBytes(), 2));
+        assertEquals(5, CucumberHtmlParser.indexOf(buffer, "];".getBytes(), 3));
+        assertEquals(-1, CucumberHtmlParser.indexOf(buffer, "abc".getBytes(), 0));
+    }
+
+    @Test
+    public void testGetStats_memoizedUntilRowsChange() throws Exception {
+        parser.parseFile("src/test/resources/test_cucumber_report.html");
+        CucumberHtmlParser.StatsResult first = parser.getStats();
+        assertSame(first, parser.getStats());
+        verify(parser, times(1)).calculateStats(anyCollection());
+        assertEquals(1, first.totalCount);
+
+        parser.registerStepFinished("run-73530", "FAILED", 1, 0);
+        parser.updateFinalStatuses();
+        CucumberHtmlParser.StatsResult second = parser.getStats();
+        assertNotSame(first, second);
+        assertEquals(1, second.failedCount);
+        verify(parser, times(2)).calculateStats(anyCollection());
+    }
+
     @Test
     public void testExtractGherkinRows_empty() {
         parser.extractGherkinRows(Collections.emptyMap());
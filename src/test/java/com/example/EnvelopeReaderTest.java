@@ -0,0 +1,42 @@
+package com.example;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class EnvelopeReaderTest {
+
+    private final JsonFactory jsonFactory = new JsonFactory();
+
+    @Test
+    public void testRead_skipsUnusedEnvelope() throws Exception {
+        try (JsonParser parser = jsonFactory.createParser(
+                "{\"source\":{\"data\":\"Feature: x\",\"uri\":\"a.feature\"}} {\"meta\":1}")) {
+            assertEquals(JsonToken.START_OBJECT, parser.nextToken());
+            assertNull(EnvelopeReader.read(parser));
+            assertEquals(JsonToken.END_OBJECT, parser.currentToken());
+            assertEquals(JsonToken.START_OBJECT, parser.nextToken());
+            assertNull(EnvelopeReader.read(parser));
+        }
+    }
+
+    @Test
+    public void testRead_typedStepFinished() throws Exception {
+        String json = "{\"testStepFinished\":{\"testCaseStartedId\":\"run-1\",\"testStepId\":\"s-1\","
+                + "\"testStepResult\":{\"duration\":{\"seconds\":2,\"nanos\":5},\"status\":\"FAILED\"},"
+                + "\"timestamp\":{\"seconds\":1,\"nanos\":0}}}";
+        try (JsonParser parser = jsonFactory.createParser(json)) {
+            parser.nextToken();
+            Envelope envelope = EnvelopeReader.read(parser);
+            assertNotNull(envelope.testStepFinished);
+            assertEquals("run-1", envelope.testStepFinished.testCaseStartedId);
+            assertEquals("FAILED", envelope.testStepFinished.testStepResult.status);
+            assertEquals(2L, envelope.testStepFinished.testStepResult.duration.seconds);
+            assertEquals(5L, envelope.testStepFinished.testStepResult.duration.nanos);
+            assertNull(envelope.pickle);
+        }
+    }
+}
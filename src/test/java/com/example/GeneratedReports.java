@@ -0,0 +1,51 @@
+package com.example;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 테스트용 ReportGenerator 리포트 생성/파싱. 각 테스트는 옵션만 정한다.
+ */
+final class GeneratedReports {
+
+    private GeneratedReports() {
+    }
+
+    // 실패율은 기본값
+    static ReportGenerator.Options options(long scenarioCount, long seed) {
+        ReportGenerator.Options options = new ReportGenerator.Options();
+        options.scenarioCount = scenarioCount;
+        options.seed = seed;
+        return options;
+    }
+
+    static ReportGenerator.Options options(long scenarioCount, double failureRate, long seed) {
+        ReportGenerator.Options options = options(scenarioCount, seed);
+        options.failureRate = failureRate;
+        return options;
+    }
+
+    static String render(ReportGenerator.Options options, ReportGenerator.Format format) throws IOException {
+        StringWriter writer = new StringWriter();
+        new ReportGenerator(options).write(writer, format);
+        return writer.toString();
+    }
+
+    // 새 파서로 파싱
+    static CucumberHtmlParser parse(String report, ReportGenerator.Format format) throws IOException {
+        return parse(new CucumberHtmlParser(), report, format);
+    }
+
+    // 예산/스텝 기록 등을 미리 설정한 파서로 파싱 (HTML 은 parseHtml, NDJSON 은 parseNdjsonBytes)
+    static CucumberHtmlParser parse(CucumberHtmlParser parser, String report, ReportGenerator.Format format)
+            throws IOException {
+        if (format == ReportGenerator.Format.HTML) {
+            parser.parseHtml(report);
+        } else {
+            parser.parseNdjsonBytes(ByteBuffer.wrap(report.getBytes(StandardCharsets.UTF_8)));
+        }
+        return parser;
+    }
+}
@@ -0,0 +1,75 @@
+package com.example;
+
+import com.example.CucumberHtmlParser.ScenarioData;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class HtmlReportWriterTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testWriteSingle_escapesCellsAndEndsWithHtml() throws Exception {
+        List<ScenarioData> rows = new ArrayList<>();
+        rows.add(StatsAccumulatorTest.row("GET", "/search?q=<script>&x=1", "PASSED", 0.5));
+        Path html = temporaryFolder.getRoot().toPath().resolve("result.html");
+
+        HtmlReportWriter.writeSingle(html, rows, StatsAccumulator.calculate(rows));
+
+        String content = new String(Files.readAllBytes(html), StandardCharsets.UTF_8);
+        assertTrue(content.contains("<td>/search?q=&lt;script&gt;&amp;x=1</td><td>0.500</td>"));
+        assertFalse(content.contains("<script>"));
+        assertTrue(content.contains("<h3>통계</h3>"));
+        assertTrue(content.endsWith("</body>\n</html>\n"));
+    }
+
+    @Test
+    public void testWritePaged_splitsRowsAndLinksPages() throws Exception {
+        List<ScenarioData> rows = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            rows.add(StatsAccumulatorTest.row("GET", "/e" + i, "PASSED", i));
+        }
+        Path index = temporaryFolder.getRoot().toPath().resolve("result.html");
+
+        int pages = HtmlReportWriter.writePaged(index, rows, rows.size(), 10, StatsAccumulator.calculate(rows));
+
+        assertEquals(3, pages);
+        String indexContent = new String(Files.readAllBytes(index), StandardCharsets.UTF_8);
+        assertTrue(indexContent.contains("href=\"result-page-0003.html\""));
+        assertFalse(indexContent.contains("<table"));
+        String lastPage = new String(Files.readAllBytes(HtmlReportWriter.pagePath(index, 3)), StandardCharsets.UTF_8);
+        assertEquals(5, lastPage.split("<tr><td>", -1).length - 1);
+        assertTrue(lastPage.contains("href=\"result-page-0002.html\""));
+    }
+
+    @Test
+    public void testWritePaged_removesPagesFromLargerEarlierRun() throws Exception {
+        List<ScenarioData> rows = new ArrayList<>();
+        for (int i = 0; i < 45; i++) {
+            rows.add(StatsAccumulatorTest.row("GET", "/e" + i, "PASSED", i));
+        }
+        Path index = temporaryFolder.getRoot().toPath().resolve("result.html");
+        Path other = temporaryFolder.getRoot().toPath().resolve("other-page-0004.html");
+        Files.write(other, new byte[0]);
+        assertEquals(5, HtmlReportWriter.writePaged(index, rows, rows.size(), 10, StatsAccumulator.calculate(rows)));
+
+        List<ScenarioData> fewer = rows.subList(0, 15);
+        assertEquals(2, HtmlReportWriter.writePaged(index, fewer, fewer.size(), 10, StatsAccumulator.calculate(fewer)));
+        assertTrue(Files.exists(HtmlReportWriter.pagePath(index, 2)));
+        for (int page = 3; page <= 5; page++) {
+            assertFalse(Files.exists(HtmlReportWriter.pagePath(index, page)));
+        }
+        // 다른 이름의 페이지는 건드리지 않는다
+        assertTrue(Files.exists(other));
+    }
+}
@@ -0,0 +1,54 @@
+package com.example;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.Assert.*;
+
+public class IdDictionaryTest {
+
+    @Test
+    public void testIntern_denseCodesAcrossRehash() {
+        IdDictionary dictionary = new IdDictionary();
+        String[] ids = new String[10_000];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = UUID.randomUUID().toString();
+            assertEquals(i, dictionary.intern(ids[i]));
+        }
+        assertEquals(ids.length, dictionary.size());
+        for (int i = 0; i < ids.length; i++) {
+            assertEquals(i, dictionary.intern(new String(ids[i])));
+            assertEquals(i, dictionary.find(ids[i]));
+            assertSame(ids[i], dictionary.idOf(i));
+        }
+        assertEquals(-1, dictionary.find("missing"));
+        assertEquals(-1, dictionary.intern(null));
+        assertNull(dictionary.idOf(-1));
+    }
+
+    @Test
+    public void testCodeMapView_behavesLikeMap() {
+        IdDictionary keys = new IdDictionary();
+        IdDictionary values = new IdDictionary();
+        CodeMapView view = new CodeMapView(keys, new IntColumn(), values);
+        assertTrue(view.isEmpty());
+
+        assertNull(view.put("run-1", "tc-1"));
+        assertNull(view.put("run-2", "tc-1"));
+        assertEquals("tc-1", view.put("run-1", "tc-2"));
+        // 값 쪽에만 등록된 코드는 key 로 보이지 않는다
+        keys.intern("run-3");
+
+        Map<String, String> expected = new HashMap<>();
+        expected.put("run-1", "tc-2");
+        expected.put("run-2", "tc-1");
+        assertEquals(expected, view);
+        assertEquals(2, view.size());
+        assertTrue(view.containsKey("run-2"));
+        assertFalse(view.containsKey("run-3"));
+        assertNull(view.get(42));
+    }
+}
@@ -0,0 +1,77 @@
+package com.example;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void testPercentiles_withinRelativeError() {
+        Random random = new Random(7);
+        double[] samples = new double[20_000];
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < samples.length; i++) {
+            // 1ms ~ 약 20s 범위의 log-uniform 분포
+            samples[i] = Math.exp(Math.log(0.001) + random.nextDouble() * Math.log(20_000));
+            histogram.recordSeconds(samples[i]);
+        }
+        Arrays.sort(samples);
+
+        assertEquals(samples.length, histogram.getTotalCount());
+        for (double percentile : LatencyHistogram.REPORTED_PERCENTILES) {
+            double exact = samples[(int) Math.ceil(percentile / 100.0 * samples.length) - 1];
+            double approx = histogram.getPercentileSeconds(percentile);
+            assertEquals("p" + percentile, exact, approx, exact * 0.035);
+        }
+        assertEquals(samples[samples.length - 1], histogram.getMaxSeconds(), 1e-6);
+        assertEquals(samples[samples.length - 1], histogram.getPercentileSeconds(100), 1e-6);
+    }
+
+    @Test
+    public void testMerge_sameAsRecordingEverything() {
+        LatencyHistogram all = new LatencyHistogram();
+        LatencyHistogram left = new LatencyHistogram();
+        LatencyHistogram right = new LatencyHistogram();
+        Random random = new Random(11);
+        for (int i = 0; i < 5_000; i++) {
+            double seconds = random.nextDouble() * 3.0;
+            all.recordSeconds(seconds);
+            (i % 3 == 0 ? left : right).recordSeconds(seconds);
+        }
+        LatencyHistogram merged = new LatencyHistogram();
+        merged.merge(left);
+        merged.merge(new LatencyHistogram());
+        merged.merge(right);
+
+        assertEquals(all.getTotalCount(), merged.getTotalCount());
+        assertEquals(all.appendSummary(new StringBuilder(), ",").toString(),
+                merged.appendSummary(new StringBuilder(), ",").toString());
+    }
+
+    @Test
+    public void testEmptyAndSummaryFormat() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0.0, histogram.getPercentileSeconds(50), 0.0);
+        assertEquals("p50=0.000 p90=0.000 p95=0.000 p99=0.000 max=0.000",
+                histogram.appendSummary(new StringBuilder(), " ").toString());
+
+        histogram.recordSeconds(1.5);
+        assertEquals("p50=1.500,p90=1.500,p95=1.500,p99=1.500,max=1.500",
+                histogram.appendSummary(new StringBuilder(), ",").toString());
+    }
+
+    @Test
+    public void testBucketBoundaries() {
+        long[] values = {0, 1, 15, 16, 17, 31, 32, 33, 1_000, 999_999, 1_000_000, 123_456_789_012L};
+        for (long micros : values) {
+            int index = LatencyHistogram.bucketIndex(micros);
+            assertTrue(micros + " >= lower", micros >= LatencyHistogram.bucketLowerBound(index));
+            assertTrue(micros + " < next lower", micros < LatencyHistogram.bucketLowerBound(index + 1));
+        }
+        assertTrue(LatencyHistogram.bucketIndex(16) > LatencyHistogram.bucketIndex(15));
+    }
+}
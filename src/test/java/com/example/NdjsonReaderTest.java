@@ -0,0 +1,116 @@
+package com.example;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class NdjsonReaderTest {
+
+    private final String testHtmlPath = "src/test/resources/Cucumber.html";
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    // 테스트용 HTML 의 메시지 배열을 한 줄에 하나씩 쓴 NDJSON
+    private Path writeNdjsonFixture(String lineSeparator) throws IOException {
+        CucumberHtmlParser parser = new CucumberHtmlParser();
+        String html = new String(Files.readAllBytes(Paths.get(testHtmlPath)), StandardCharsets.UTF_8);
+        ObjectMapper objectMapper = new ObjectMapper();
+        StringBuilder ndjson = new StringBuilder();
+        for (Object message : parser.readJsonArray(parser.extractCucumberMessagesJson(html))) {
+            ndjson.append(objectMapper.writeValueAsString(message)).append(lineSeparator);
+        }
+        Path path = temporaryFolder.newFile("messages.ndjson").toPath();
+        Files.write(path, ndjson.toString().getBytes(StandardCharsets.UTF_8));
+        return path;
+    }
+
+    @Test
+    public void testParseNdjsonFile_sameAsParseFile() throws Exception {
+        CucumberHtmlParser htmlParser = new CucumberHtmlParser();
+        htmlParser.parseFile(testHtmlPath);
+        Path ndjson = writeNdjsonFixture("\n");
+
+        CucumberHtmlParser ndjsonParser = new CucumberHtmlParser();
+        ndjsonParser.parseNdjsonFile(ndjson.toString());
+
+        CucumberHtmlParserIntegrationTest.assertSameRows(
+                htmlParser.getRowIdToScenarioData(), ndjsonParser.getRowIdToScenarioData());
+        assertEquals(htmlParser.getScenarioStatus(), ndjsonParser.getScenarioStatus());
+    }
+
+    @Test
+    public void testSmallChunksAndThreads_sameAsSingleChunk() throws Exception {
+        Path ndjson = writeNdjsonFixture("\r\n\n");
+
+        List<Envelope> single = new ArrayList<>();
+        new NdjsonReader(1, Integer.MAX_VALUE).read(ndjson, single::add);
+
+        // 청크 크기가 한 줄보다 작아도 줄 단위로 잘려야 한다
+        for (int chunkSize : new int[]{1, 64, 1000}) {
+            List<Envelope> chunked = new ArrayList<>();
+            new NdjsonReader(4, chunkSize).read(ndjson, chunked::add);
+            assertEquals(single.size(), chunked.size());
+            for (int i = 0; i < single.size(); i++) {
+                assertEquals(describe(single.get(i)), describe(chunked.get(i)));
+            }
+        }
+        assertFalse(single.isEmpty());
+    }
+
+    @Test
+    public void testSplitLines_alignsToLineBoundaries() throws Exception {
+        Path path = temporaryFolder.newFile("lines.ndjson").toPath();
+        Files.write(path, "{\"a\":1}\n{\"b\":22}\n{\"c\":333}".getBytes(StandardCharsets.US_ASCII));
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            List<long[]> chunks = NdjsonReader.splitLines(channel, 3);
+            assertEquals(3, chunks.size());
+            assertArrayEquals(new long[]{0, 8}, chunks.get(0));
+            assertArrayEquals(new long[]{8, 17}, chunks.get(1));
+            assertArrayEquals(new long[]{17, 26}, chunks.get(2));
+
+            assertEquals(1, NdjsonReader.splitLines(channel, 1000).size());
+        }
+    }
+
+    @Test
+    public void testMalformedLine_throwsWithOffset() throws Exception {
+        Path path = temporaryFolder.newFile("broken.ndjson").toPath();
+        Files.write(path, "{\"testCase\":{\"id\":\"t1\",\"pickleId\":\"p1\"}}\n{\"pickle\":\n".getBytes(StandardCharsets.UTF_8));
+        try {
+            new NdjsonReader(2, 8).read(path, envelope -> { });
+            fail("expected IOException");
+        } catch (IOException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("offset 41"));
+        }
+    }
+
+    private static String describe(Envelope envelope) {
+        if (envelope.testCase != null) {
+            return "testCase:" + envelope.testCase.id;
+        }
+        if (envelope.pickle != null) {
+            return "pickle:" + envelope.pickle.id;
+        }
+        if (envelope.testCaseStarted != null) {
+            return "testCaseStarted:" + envelope.testCaseStarted.id;
+        }
+        if (envelope.testStepFinished != null) {
+            return "testStepFinished:" + envelope.testStepFinished.testStepResult.status;
+        }
+        return "gherkinDocument";
+    }
+}
@@ -0,0 +1,101 @@
+package com.example;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class NdjsonTailerTest {
+
+    private final String testHtmlPath = "src/test/resources/Cucumber.html";
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private List<String> fixtureLines() throws Exception {
+        CucumberHtmlParser parser = new CucumberHtmlParser();
+        String html = new String(Files.readAllBytes(Paths.get(testHtmlPath)), StandardCharsets.UTF_8);
+        ObjectMapper objectMapper = new ObjectMapper();
+        List<String> lines = new ArrayList<>();
+        for (Object message : parser.readJsonArray(parser.extractCucumberMessagesJson(html))) {
+            lines.add(objectMapper.writeValueAsString(message) + "\n");
+        }
+        return lines;
+    }
+
+    private static void append(Path path, String text) throws Exception {
+        Files.write(path, text.getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+    }
+
+    @Test
+    public void testPoll_appliesOnlyCompleteLinesAndMatchesFullParse() throws Exception {
+        List<String> lines = fixtureLines();
+        Path path = temporaryFolder.newFile("growing.ndjson").toPath();
+        CucumberHtmlParser followed = new CucumberHtmlParser();
+        NdjsonTailer tailer = new NdjsonTailer(path, followed);
+        assertEquals(0, tailer.poll());
+
+        int half = lines.size() / 2;
+        StringBuilder firstHalf = new StringBuilder();
+        for (int i = 0; i < half; i++) {
+            firstHalf.append(lines.get(i));
+        }
+        String splitLine = lines.get(half);
+        int cut = splitLine.length() / 2;
+        append(path, firstHalf + splitLine.substring(0, cut));
+
+        tailer.poll();
+        // 끝나지 않은 줄은 다음 poll 로 미룬다
+        assertEquals(firstHalf.toString().getBytes(StandardCharsets.UTF_8).length, tailer.getPosition());
+        assertEquals(0, tailer.poll());
+
+        StringBuilder rest = new StringBuilder(splitLine.substring(cut));
+        for (int i = half + 1; i < lines.size(); i++) {
+            rest.append(lines.get(i));
+        }
+        append(path, rest.toString());
+        tailer.poll();
+        assertEquals(Files.size(path), tailer.getPosition());
+
+        CucumberHtmlParser whole = new CucumberHtmlParser();
+        whole.parseNdjsonFile(path.toString());
+        CucumberHtmlParserIntegrationTest.assertSameRows(whole.getRowIdToScenarioData(), followed.getRowIdToScenarioData());
+        assertEquals(whole.getStats().passedCount, followed.getStats().passedCount);
+    }
+
+    @Test
+    public void testFollow_stopsAtTestRunFinished() throws Exception {
+        Path path = temporaryFolder.newFile("run.ndjson").toPath();
+        append(path, "{\"testCase\":{\"id\":\"t1\",\"pickleId\":\"p1\"}}\n");
+        CucumberHtmlParser parser = new CucumberHtmlParser();
+        NdjsonTailer tailer = new NdjsonTailer(path, parser);
+        AtomicInteger reports = new AtomicInteger();
+
+        Thread writer = new Thread(() -> {
+            try {
+                Thread.sleep(50);
+                append(path, "{\"testRunFinished\":{\"success\":true}}\n");
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        writer.start();
+        tailer.follow(10, 0, reports::incrementAndGet);
+        writer.join();
+
+        assertTrue(tailer.isRunFinished());
+        assertTrue(reports.get() >= 1);
+        assertEquals(Files.size(path), tailer.getPosition());
+    }
+}
@@ -0,0 +1,126 @@
+package com.example;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.StringWriter;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+public class ParseMetricsTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private static ReportGenerator.Options options() {
+        ReportGenerator.Options options = new ReportGenerator.Options();
+        options.scenarioCount = 600;
+        options.stepsPerScenario = 2;
+        options.scenariosPerDocument = 200;
+        return options;
+    }
+
+    private static void assertEnvelopeCounts(ParseMetrics.Snapshot snapshot) {
+        assertEquals(3L, (long) snapshot.envelopeCounts.get(ParseMetrics.EnvelopeType.GHERKIN_DOCUMENT));
+        assertEquals(600L, (long) snapshot.envelopeCounts.get(ParseMetrics.EnvelopeType.PICKLE));
+        assertEquals(600L, (long) snapshot.envelopeCounts.get(ParseMetrics.EnvelopeType.TEST_CASE));
+        assertEquals(600L, (long) snapshot.envelopeCounts.get(ParseMetrics.EnvelopeType.TEST_CASE_STARTED));
+        assertEquals(1200L, (long) snapshot.envelopeCounts.get(ParseMetrics.EnvelopeType.TEST_STEP_FINISHED));
+        assertEquals(1L, (long) snapshot.envelopeCounts.get(ParseMetrics.EnvelopeType.TEST_RUN_FINISHED));
+        // meta + testCaseFinished
+        assertEquals(601L, (long) snapshot.envelopeCounts.get(ParseMetrics.EnvelopeType.OTHER));
+        assertEquals(600, snapshot.rows);
+        assertEquals(0, snapshot.unresolvedReferences);
+    }
+
+    @Test
+    public void testHtmlPaths_countPhasesAndEnvelopes() throws Exception {
+        Path html = temporaryFolder.getRoot().toPath().resolve("report.html");
+        new ReportGenerator(options()).write(html, ReportGenerator.Format.HTML);
+
+        CucumberHtmlParser parser = new CucumberHtmlParser();
+        parser.parseFile(html.toString());
+        ParseMetrics.Snapshot afterParse = parser.getMetrics();
+        assertEnvelopeCounts(afterParse);
+        assertEquals(html.toFile().length(), afterParse.bytesRead);
+        assertTrue(afterParse.phaseNanos.get(ParseMetrics.Phase.JSON_DECODE) > 0);
+        assertTrue(afterParse.phaseNanos.get(ParseMetrics.Phase.CORRELATION) > 0);
+        assertEquals(0L, (long) afterParse.phaseNanos.get(ParseMetrics.Phase.STATS));
+
+        parser.exportResultsToCsv(temporaryFolder.getRoot().toPath().resolve("result.csv").toString());
+        parser.exportResultsToHtml(temporaryFolder.getRoot().toPath().resolve("result.html").toString());
+        ParseMetrics.Snapshot afterExport = parser.getMetrics();
+        assertEquals(1200, afterExport.rowsExported);
+        assertTrue(afterExport.phaseNanos.get(ParseMetrics.Phase.STATS) > 0);
+        assertTrue(afterExport.phaseNanos.get(ParseMetrics.Phase.EXPORT_CSV) > 0);
+        assertTrue(afterExport.phaseNanos.get(ParseMetrics.Phase.EXPORT_HTML) > 0);
+        assertTrue(afterExport.formatBreakdown().contains("EXPORT_HTML"));
+
+        CucumberHtmlParser streaming = new CucumberHtmlParser();
+        streaming.parseFileStreaming(html.toString());
+        assertEnvelopeCounts(streaming.getMetrics());
+    }
+
+    @Test
+    public void testNdjsonPath_countsEnvelopes() throws Exception {
+        Path ndjson = temporaryFolder.getRoot().toPath().resolve("report.ndjson");
+        new ReportGenerator(options()).write(ndjson, ReportGenerator.Format.NDJSON);
+
+        CucumberHtmlParser parser = new CucumberHtmlParser();
+        parser.parseNdjsonFile(ndjson.toString(), 2);
+        ParseMetrics.Snapshot snapshot = parser.getMetrics();
+        assertEnvelopeCounts(snapshot);
+        assertEquals(ndjson.toFile().length(), snapshot.bytesRead);
+    }
+
+    @Test
+    public void testUnresolvedReferences() {
+        CucumberHtmlParser parser = new CucumberHtmlParser();
+        parser.registerTestCaseStarted("run-1", "tc-1");
+        parser.registerStepFinished("run-1", "PASSED", 1, 0);
+        parser.updateFinalStatuses();
+        assertEquals(parser.getPendingReferenceCount(), parser.getMetrics().unresolvedReferences);
+        assertTrue(parser.getMetrics().unresolvedReferences > 0);
+    }
+
+    @Test
+    public void testJfrEvents() throws Exception {
+        StringWriter writer = new StringWriter();
+        new ReportGenerator(options()).write(writer, ReportGenerator.Format.HTML);
+        Path recordingPath = temporaryFolder.getRoot().toPath().resolve("parse.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("com.example.ParsePhase");
+            recording.enable("com.example.ParseSummary");
+            recording.start();
+            new CucumberHtmlParser().parseHtml(writer.toString());
+            recording.stop();
+            recording.dump(recordingPath);
+        }
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents(recordingPath);
+        Set<String> phases = new HashSet<>();
+        RecordedEvent summary = null;
+        for (RecordedEvent event : events) {
+            if ("com.example.ParsePhase".equals(event.getEventType().getName())) {
+                phases.add(event.getString("phase"));
+            } else if ("com.example.ParseSummary".equals(event.getEventType().getName())) {
+                summary = event;
+            }
+        }
+        assertTrue(phases.contains("MARKER_SEARCH"));
+        assertTrue(phases.contains("JSON_DECODE"));
+        assertTrue(phases.contains("CORRELATION"));
+        assertTrue(phases.contains("FINAL_STATUS"));
+        assertNotNull(summary);
+        assertEquals(600L, summary.getLong("rows"));
+        assertEquals(3605L, summary.getLong("envelopes"));
+    }
+}
@@ -0,0 +1,132 @@
+package com.example;
+
+import com.example.CucumberHtmlParser.ScenarioData;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.*;
+
+public class ParserEngineTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private static String report(ReportGenerator.Format format, long seed) throws Exception {
+        ReportGenerator.Options options = GeneratedReports.options(400, 0.3, seed);
+        options.interleaving = ReportGenerator.Interleaving.SHUFFLED;
+        return GeneratedReports.render(options, format);
+    }
+
+    @Test
+    public void testConcurrentCallsOnOneEngine_matchSingleThreadedParser() throws Exception {
+        ParserEngine engine = new ParserEngine();
+        List<String> reports = new ArrayList<>();
+        for (int seed = 1; seed <= 4; seed++) {
+            reports.add(report(ReportGenerator.Format.HTML, seed));
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<ParseResult>> futures = new ArrayList<>();
+            for (int i = 0; i < 32; i++) {
+                String html = reports.get(i % reports.size());
+                futures.add(executor.submit(() -> engine.parseHtml(html)));
+            }
+            for (int i = 0; i < futures.size(); i++) {
+                CucumberHtmlParser expected = GeneratedReports.parse(reports.get(i % reports.size()), ReportGenerator.Format.HTML);
+                ParseResult result = futures.get(i).get();
+                CucumberHtmlParserIntegrationTest.assertSameRows(expected.getRowIdToScenarioData(), result.getRows());
+                assertEquals(expected.getStats().failedCount, result.getStats().failedCount);
+                assertEquals(expected.getScenarioStatus(), result.getTestCaseStatus());
+                assertEquals(0, result.getPendingReferenceCount());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testAllInputsGiveSameRows() throws Exception {
+        ParserEngine engine = new ParserEngine(2);
+        String html = report(ReportGenerator.Format.HTML, 7);
+        String ndjson = report(ReportGenerator.Format.NDJSON, 7);
+        Path ndjsonPath = temporaryFolder.getRoot().toPath().resolve("run.ndjson");
+        Files.write(ndjsonPath, ndjson.getBytes(StandardCharsets.UTF_8));
+
+        ParseResult fromString = engine.parseHtml(html);
+        ByteBuffer htmlBytes = ByteBuffer.wrap(html.getBytes(StandardCharsets.UTF_8));
+        ParseResult fromBytes = engine.parseBytes(htmlBytes);
+        ParseResult fromNdjsonBytes = engine.parseBytes(ByteBuffer.wrap(ndjson.getBytes(StandardCharsets.UTF_8)));
+        ParseResult fromFile = engine.parseFile(ndjsonPath);
+        ParseResult fromReader = engine.parseStream(new StringReader(html));
+
+        assertEquals(400, fromString.getRows().size());
+        assertEquals(0, htmlBytes.position());
+        CucumberHtmlParserIntegrationTest.assertSameRows(fromString.getRows(), fromBytes.getRows());
+        CucumberHtmlParserIntegrationTest.assertSameRows(fromString.getRows(), fromNdjsonBytes.getRows());
+        CucumberHtmlParserIntegrationTest.assertSameRows(fromString.getRows(), fromFile.getRows());
+        CucumberHtmlParserIntegrationTest.assertSameRows(fromString.getRows(), fromReader.getRows());
+    }
+
+    private static boolean isNdjson(int... bytes) {
+        byte[] content = new byte[bytes.length];
+        for (int i = 0; i < bytes.length; i++) {
+            content[i] = (byte) bytes[i];
+        }
+        return ParserEngine.isNdjson(ByteBuffer.wrap(content));
+    }
+
+    @Test
+    public void testIsNdjson_skipsOnlyLeadingBomAndWhitespace() {
+        assertTrue(isNdjson('{'));
+        assertTrue(isNdjson(' ', '\n', '{'));
+        assertTrue(isNdjson(0xEF, 0xBB, 0xBF, '{'));
+        assertTrue(isNdjson(0xEF, 0xBB, 0xBF, '\r', '\n', '{'));
+        assertFalse(isNdjson('<', 'h'));
+        assertFalse(isNdjson());
+        // BOM 조각, 순서가 다른 BOM, 공백 뒤 BOM 은 건너뛰지 않는다
+        assertFalse(isNdjson(0xBB, 0xBF, '{'));
+        assertFalse(isNdjson(0xBF, 0xBB, 0xEF, '{'));
+        assertFalse(isNdjson(0xEF, 0xBB, 0xBF, 0xEF, 0xBB, 0xBF, '{'));
+        assertFalse(isNdjson(' ', 0xEF, 0xBB, 0xBF, '{'));
+    }
+
+    @Test
+    public void testResultIsReadOnlyAndStatsAreMemoized() throws Exception {
+        ParseResult result = new ParserEngine().parseHtml(report(ReportGenerator.Format.HTML, 3));
+        try {
+            result.getRows().put("row", new ScenarioData());
+            fail();
+        } catch (UnsupportedOperationException expected) {
+        }
+        try {
+            result.getPickleIdToRowId().clear();
+            fail();
+        } catch (UnsupportedOperationException expected) {
+        }
+        // 밖으로 나간 행은 복사본이므로 고쳐도 결과(와 캐시된 통계)는 그대로다
+        ScenarioData leaked = result.getRowList().get(0);
+        String rowId = result.getRows().keySet().iterator().next();
+        double duration = leaked.totalDurationSeconds;
+        leaked.totalDurationSeconds = duration + 1000;
+        leaked.finalStatus = "MUTATED";
+        result.getRows().get(rowId).testcaseId = "MUTATED";
+        assertEquals(duration, result.getRows().get(rowId).totalDurationSeconds, 0.0);
+        assertNotEquals("MUTATED", result.getRowList().get(0).finalStatus);
+        assertNotEquals("MUTATED", result.getRows().get(rowId).testcaseId);
+        assertSame(result.getStats(), result.getStats());
+        assertEquals(400, result.getStats().totalCount);
+        assertTrue(result.estimatedBytes() > 400 * 48);
+    }
+}
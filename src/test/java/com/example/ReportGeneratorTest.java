@@ -0,0 +1,98 @@
+package com.example;
+
+import com.example.CucumberHtmlParser.ScenarioData;
+import com.example.CucumberHtmlParser.StatsResult;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.StringWriter;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+public class ReportGeneratorTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private static ReportGenerator.Options options(ReportGenerator.Interleaving interleaving) {
+        ReportGenerator.Options options = new ReportGenerator.Options();
+        options.scenarioCount = 2500;
+        options.stepsPerScenario = 4;
+        options.failureRate = 0.1;
+        options.endpointCount = 7;
+        options.methodCount = 3;
+        options.scenariosPerDocument = 1000;
+        options.shuffleWindow = 300;
+        options.interleaving = interleaving;
+        return options;
+    }
+
+    private static CucumberHtmlParser parseHtml(ReportGenerator.Options options) throws Exception {
+        StringWriter writer = new StringWriter();
+        new ReportGenerator(options).write(writer, ReportGenerator.Format.HTML);
+        CucumberHtmlParser parser = new CucumberHtmlParser();
+        parser.parseHtml(writer.toString());
+        return parser;
+    }
+
+    @Test
+    public void testHtml_parsesWithConfiguredShape() throws Exception {
+        CucumberHtmlParser parser = parseHtml(options(ReportGenerator.Interleaving.GROUPED));
+
+        assertEquals(2500, parser.getRowIdToScenarioData().size());
+        assertEquals(0, parser.getPendingReferenceCount());
+        StatsResult stats = parser.getStats();
+        assertEquals(3, stats.methodStatsMap.size());
+        assertEquals(21, stats.totalApiCount);
+        // 실패율 10% 근처
+        assertTrue(String.valueOf(stats.failedCount), stats.failedCount > 170 && stats.failedCount < 330);
+        Set<String> testcaseIds = new HashSet<>();
+        for (ScenarioData row : parser.getRowIdToScenarioData().values()) {
+            testcaseIds.add(row.testcaseId);
+            assertTrue(row.totalDurationSeconds >= 0);
+        }
+        assertEquals(2500, testcaseIds.size());
+    }
+
+    @Test
+    public void testInterleavingAndFormat_doNotChangeResults() throws Exception {
+        CucumberHtmlParser grouped = parseHtml(options(ReportGenerator.Interleaving.GROUPED));
+        CucumberHtmlParser interleaved = parseHtml(options(ReportGenerator.Interleaving.INTERLEAVED));
+        CucumberHtmlParser shuffled = parseHtml(options(ReportGenerator.Interleaving.SHUFFLED));
+
+        Path ndjson = temporaryFolder.getRoot().toPath().resolve("generated.ndjson");
+        new ReportGenerator(options(ReportGenerator.Interleaving.SHUFFLED)).write(ndjson, ReportGenerator.Format.NDJSON);
+        CucumberHtmlParser fromNdjson = new CucumberHtmlParser();
+        fromNdjson.parseNdjsonFile(ndjson.toString(), 2);
+
+        CucumberHtmlParserIntegrationTest.assertSameRows(grouped.getRowIdToScenarioData(), interleaved.getRowIdToScenarioData());
+        CucumberHtmlParserIntegrationTest.assertSameRows(grouped.getRowIdToScenarioData(), shuffled.getRowIdToScenarioData());
+        CucumberHtmlParserIntegrationTest.assertSameRows(grouped.getRowIdToScenarioData(), fromNdjson.getRowIdToScenarioData());
+        assertEquals(0, shuffled.getPendingReferenceCount());
+    }
+
+    @Test
+    public void testDurationDistributions_meanNearConfigured() throws Exception {
+        for (ReportGenerator.DurationDistribution distribution : ReportGenerator.DurationDistribution.values()) {
+            ReportGenerator.Options options = options(ReportGenerator.Interleaving.INTERLEAVED);
+            options.failureRate = 0.0;
+            options.durationDistribution = distribution;
+            options.meanStepSeconds = 0.1;
+            StatsResult stats = parseHtml(options).getStats();
+            // 스텝 4 개, 엔드포인트 계수 평균 (0.5 ~ 2.0 의 평균 1.25)
+            double expected = 4 * 0.1 * 1.25;
+            assertEquals(distribution.name(), expected, stats.avgTimePerTc, expected * 0.1);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidOptions() {
+        ReportGenerator.Options options = new ReportGenerator.Options();
+        options.failureRate = 1.5;
+        new ReportGenerator(options);
+    }
+}
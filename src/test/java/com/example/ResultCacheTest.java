@@ -0,0 +1,47 @@
+package com.example;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ResultCacheTest {
+
+    @Test
+    public void testEvictsLeastRecentlyUsedBySize() {
+        ResultCache<String, String> cache = new ResultCache<>(100);
+        assertTrue(cache.put("a", "A", 40));
+        assertTrue(cache.put("b", "B", 40));
+        assertEquals("A", cache.get("a"));
+
+        // b 가 가장 오래 쓰이지 않았다
+        assertTrue(cache.put("c", "C", 40));
+        assertNull(cache.get("b"));
+        assertEquals("A", cache.get("a"));
+        assertEquals("C", cache.get("c"));
+        assertEquals(80, cache.getTotalBytes());
+        assertEquals(1, cache.getEvictions());
+        assertEquals(3, cache.getHits());
+        assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    public void testOversizedValueIsNotStored() {
+        ResultCache<String, String> cache = new ResultCache<>(100);
+        cache.put("a", "A", 60);
+        assertFalse(cache.put("big", "BIG", 101));
+        assertNull(cache.peek("big"));
+        assertEquals("A", cache.peek("a"));
+        assertEquals(60, cache.getTotalBytes());
+    }
+
+    @Test
+    public void testReplaceUpdatesSize() {
+        ResultCache<String, String> cache = new ResultCache<>(100);
+        cache.put("a", "A1", 70);
+        cache.put("a", "A2", 20);
+        assertEquals(1, cache.size());
+        assertEquals(20, cache.getTotalBytes());
+        assertEquals("A2", cache.peek("a"));
+        assertEquals(0, cache.getHits() + cache.getMisses());
+    }
+}
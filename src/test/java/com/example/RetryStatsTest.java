@@ -0,0 +1,114 @@
+package com.example;
+
+import com.example.CucumberHtmlParser.ScenarioData;
+import org.junit.Test;
+
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class RetryStatsTest {
+
+    private static CucumberHtmlParser parse(ReportGenerator.Interleaving interleaving, ReportGenerator.Format format)
+            throws Exception {
+        ReportGenerator.Options options = GeneratedReports.options(2000, 0.3, 13);
+        options.maxRetries = 2;
+        options.endpointCount = 9;
+        options.interleaving = interleaving;
+        return GeneratedReports.parse(GeneratedReports.render(options, format), format);
+    }
+
+    private static Map<String, Object> testCaseStarted(String runId, String testCaseId, int attempt) {
+        return Map.of("testCaseStarted", Map.of("id", runId, "testCaseId", testCaseId, "attempt", attempt));
+    }
+
+    // 실패한 첫 시도 뒤 재시도가 통과하면 PASSED, 첫 시도 시간은 낭비 시간 (시도가 도착한 순서와 무관)
+    @Test
+    public void testRetryThatPasses_finalStatusFromLastAttempt() {
+        for (boolean retryFirst : new boolean[]{false, true}) {
+            CucumberHtmlParser parser = new CucumberHtmlParser();
+            parser.addScenarioRow("row-1", new String[]{"TC-1", "get", "/api/a", "200"});
+            parser.getPickleIdToRowId().put("pickle-1", "row-1");
+            parser.registerTestCase("tc-1", "pickle-1");
+            if (retryFirst) {
+                parser.markTestCaseStart(testCaseStarted("run-b", "tc-1", 1));
+                parser.registerStepFinished("run-b", "PASSED", 1, 500_000_000);
+            }
+            parser.markTestCaseStart(testCaseStarted("run-a", "tc-1", 0));
+            parser.registerStepFinished("run-a", "FAILED", 2, 0);
+            if (!retryFirst) {
+                assertEquals("FAILED", parser.getScenarioStatus().get("tc-1"));
+                parser.markTestCaseStart(testCaseStarted("run-b", "tc-1", 1));
+                parser.registerStepFinished("run-b", "PASSED", 1, 500_000_000);
+            }
+            parser.updateFinalStatuses();
+
+            assertEquals("PASSED", parser.getScenarioStatus().get("tc-1"));
+            ScenarioData row = parser.getRowIdToScenarioData().get("row-1");
+            assertEquals("PASSED", row.finalStatus);
+            assertEquals(3.5, row.totalDurationSeconds, 1e-9);
+
+            RetryStats retryStats = parser.getRetryStats();
+            assertEquals(2, retryStats.total.attemptCount);
+            assertEquals(1, retryStats.total.retriedCount);
+            assertEquals(1, retryStats.total.passedOnRetryCount);
+            assertEquals(2.0, retryStats.total.wastedTimeSec, 1e-9);
+            RetryStats.Counts endpoint = retryStats.endpointStatsMap.get("GET /api/a");
+            assertNotNull(endpoint);
+            assertEquals(2.0, endpoint.wastedTimeSec, 1e-9);
+        }
+    }
+
+    @Test
+    public void testGeneratedRetries_countsAndOrderIndependence() throws Exception {
+        CucumberHtmlParser grouped = parse(ReportGenerator.Interleaving.GROUPED, ReportGenerator.Format.HTML);
+        RetryStats stats = grouped.getRetryStats();
+        RetryStats.Counts total = stats.total;
+        assertEquals(2000, total.scenarioCount);
+        assertTrue(total.retriedCount > 0);
+        assertTrue(total.passedOnRetryCount > 0);
+
+        // 재시도를 다 써도 실패한 시나리오만 FAILED (3번 시도), 나머지 재시도 시나리오는 통과
+        int failed = 0;
+        double rowSeconds = 0.0;
+        for (ScenarioData row : grouped.getRowIdToScenarioData().values()) {
+            if ("FAILED".equals(row.finalStatus)) {
+                failed++;
+            }
+            rowSeconds += row.totalDurationSeconds;
+        }
+        assertEquals(failed, grouped.getStats().failedCount);
+        assertEquals(total.retriedCount, total.passedOnRetryCount + failed);
+        assertEquals(total.attemptCount, 2000 + total.passedOnRetryCount + failed * 2
+                + countRetriedTwiceThenPassed(grouped));
+        assertEquals(rowSeconds, total.totalTimeSec, 1e-6);
+        assertTrue(total.wastedTimeSec > 0 && total.wastedTimeSec < total.totalTimeSec);
+
+        RetryStats.Counts sum = new RetryStats.Counts();
+        for (RetryStats.Counts counts : stats.endpointStatsMap.values()) {
+            sum.merge(counts);
+        }
+        assertEquals(total.attemptCount, sum.attemptCount);
+        assertEquals(total.wastedTimeSec, sum.wastedTimeSec, 1e-6);
+        assertEquals(grouped.getStats().endpointStatsMap.keySet(), stats.endpointStatsMap.keySet());
+
+        CucumberHtmlParser shuffled = parse(ReportGenerator.Interleaving.SHUFFLED, ReportGenerator.Format.NDJSON);
+        RetryStats.Counts shuffledTotal = shuffled.getRetryStats().total;
+        assertEquals(total.attemptCount, shuffledTotal.attemptCount);
+        assertEquals(total.passedOnRetryCount, shuffledTotal.passedOnRetryCount);
+        assertEquals(total.wastedTimeSec, shuffledTotal.wastedTimeSec, 1e-6);
+        assertEquals(grouped.getStats().passedCount, shuffled.getStats().passedCount);
+    }
+
+    // 두 번째 재시도(attempt 2)에서야 통과한 시나리오 수: 통과한 재시도 시나리오 중 시도가 3번인 것
+    private static int countRetriedTwiceThenPassed(CucumberHtmlParser parser) {
+        int count = 0;
+        for (Map.Entry<String, String> entry : parser.getRunIdToTestCaseId().entrySet()) {
+            if (entry.getKey().matches("started-\\d+-2")
+                    && "PASSED".equals(parser.getScenarioStatus().get(entry.getValue()))) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
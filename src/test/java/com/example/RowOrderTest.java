@@ -0,0 +1,141 @@
+package com.example;
+
+import com.example.CucumberHtmlParser.ScenarioData;
+import com.example.CucumberHtmlParser.TimeStats;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class RowOrderTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private static String report() throws Exception {
+        ReportGenerator.Options options = GeneratedReports.options(2000, 0.3, 21);
+        options.endpointCount = 7;
+        return GeneratedReports.render(options, ReportGenerator.Format.HTML);
+    }
+
+    // 비교자 기준 안정 정렬 결과와 같아야 한다
+    private static void assertOrder(CucumberHtmlParser parser, RowOrder order, Comparator<ScenarioData> comparator) {
+        List<ScenarioData> expected = new ArrayList<>(parser.getRowIdToScenarioData().values());
+        expected.sort(comparator);
+        parser.setRowOrder(order);
+        List<ScenarioData> actual = new ArrayList<>(parser.getOrderedRows());
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(order + " #" + i, expected.get(i).testcaseId, actual.get(i).testcaseId);
+            assertEquals(expected.get(i).totalDurationSeconds, actual.get(i).totalDurationSeconds, 0.0);
+        }
+    }
+
+    @Test
+    public void testRowsInOrder_matchesStableSortInMemoryAndSpilled() throws Exception {
+        String html = report();
+        CucumberHtmlParser inMemory = GeneratedReports.parse(html, ReportGenerator.Format.HTML);
+        CucumberHtmlParser spilled = new CucumberHtmlParser();
+        spilled.setMemoryBudget(16 << 10, temporaryFolder.getRoot().toPath());
+        GeneratedReports.parse(spilled, html, ReportGenerator.Format.HTML);
+        assertTrue(spilled.getSpilledRowCount() > 0);
+
+        Comparator<String> nullsFirst = Comparator.nullsFirst(Comparator.naturalOrder());
+        for (CucumberHtmlParser parser : Arrays.asList(inMemory, spilled)) {
+            assertOrder(parser, RowOrder.TESTCASE_ID, Comparator.comparing((ScenarioData row) -> row.testcaseId, nullsFirst));
+            assertOrder(parser, RowOrder.DURATION, Comparator.comparingDouble((ScenarioData row) -> row.totalDurationSeconds).reversed());
+            assertOrder(parser, RowOrder.STATUS, Comparator.comparing((ScenarioData row) -> row.finalStatus, nullsFirst));
+            assertOrder(parser, RowOrder.ENDPOINT, Comparator.comparing((ScenarioData row) -> row.apiEndpoint, nullsFirst)
+                    .thenComparing(row -> row.method, nullsFirst));
+        }
+        assertEquals(RowOrder.TESTCASE_ID, RowOrder.parse("testcase"));
+        assertEquals(RowOrder.ENDPOINT, RowOrder.parse("Endpoint"));
+    }
+
+    // 샤드를 합친 결과의 입력 순서는 (리포트 번호, 리포트 안 순서) 이므로 키가 같은 행의 순서도 실행마다 같다
+    @Test
+    public void testBatchRowsInOrder_tiesFollowReportOrder() throws Exception {
+        Path dir = temporaryFolder.newFolder("shards").toPath();
+        int[] sizes = {1500, 30, 700, 10};
+        List<ScenarioData> inputOrder = new ArrayList<>();
+        for (int i = 0; i < sizes.length; i++) {
+            ReportGenerator.Options options = GeneratedReports.options(sizes[i], 0.3, 70 + i);
+            options.endpointCount = 3;
+            String html = GeneratedReports.render(options, ReportGenerator.Format.HTML);
+            Files.write(dir.resolve("shard-" + i + ".html"), html.getBytes(StandardCharsets.UTF_8));
+            inputOrder.addAll(GeneratedReports.parse(html, ReportGenerator.Format.HTML).getRowIdToScenarioData().values());
+        }
+        List<ScenarioData> expected = new ArrayList<>(inputOrder);
+        expected.sort(Comparator.comparing((ScenarioData row) -> row.finalStatus));
+        for (int run = 0; run < 2; run++) {
+            CucumberHtmlParser combined = new BatchAnalyzer(3).analyze(BatchAnalyzer.resolveReports(dir.toString()));
+            combined.setRowOrder(RowOrder.STATUS);
+            List<ScenarioData> actual = new ArrayList<>(combined.getOrderedRows());
+            assertEquals(expected.size(), actual.size());
+            for (int i = 0; i < expected.size(); i++) {
+                assertEquals("#" + i, expected.get(i).testcaseId, actual.get(i).testcaseId);
+                assertEquals(expected.get(i).totalDurationSeconds, actual.get(i).totalDurationSeconds, 0.0);
+            }
+        }
+    }
+
+    @Test
+    public void testTopK_matchesFullSort() throws Exception {
+        CucumberHtmlParser parser = GeneratedReports.parse(report(), ReportGenerator.Format.HTML);
+
+        List<ScenarioData> sorted = new ArrayList<>(parser.getRowIdToScenarioData().values());
+        sorted.sort(TopK.BY_DURATION.reversed());
+        List<ScenarioData> slowest = parser.getSlowestScenarios(25);
+        assertEquals(sorted.subList(0, 25), slowest);
+
+        List<Map.Entry<String, TimeStats>> endpoints = new ArrayList<>(parser.getStats().endpointStatsMap.entrySet());
+        endpoints.sort(TopK.BY_P95.reversed());
+        List<Map.Entry<String, TimeStats>> slowestEndpoints = parser.getSlowestEndpoints(3);
+        assertEquals(3, slowestEndpoints.size());
+        for (int i = 0; i < 3; i++) {
+            assertEquals(endpoints.get(i).getKey(), slowestEndpoints.get(i).getKey());
+        }
+        assertEquals(endpoints.size(), parser.getSlowestEndpoints(1000).size());
+        assertTrue(parser.getSlowestScenarios(0).isEmpty());
+    }
+
+    @Test
+    public void testTopK_tiesKeepFirstSeen() {
+        List<Integer> values = Arrays.asList(5, 1, 5, 3, 5, 2);
+        List<Integer> positions = new ArrayList<>();
+        for (int i = 0; i < values.size(); i++) {
+            positions.add(i);
+        }
+        List<Integer> top = TopK.largest(positions, 2, Comparator.comparing(values::get));
+        assertEquals(Arrays.asList(0, 2), top);
+    }
+
+    @Test
+    public void testIntSort_isStable() {
+        Random random = new Random(3);
+        int count = 10_000;
+        int[] keys = new int[count];
+        int[] values = new int[count];
+        for (int i = 0; i < count; i++) {
+            keys[i] = random.nextInt(50);
+            values[i] = i;
+        }
+        IntSort.stableSort(values, count, (a, b) -> Integer.compare(keys[a], keys[b]));
+        for (int i = 1; i < count; i++) {
+            int previous = values[i - 1];
+            int current = values[i];
+            assertTrue(keys[previous] < keys[current] || keys[previous] == keys[current] && previous < current);
+        }
+    }
+}
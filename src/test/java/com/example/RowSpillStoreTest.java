@@ -0,0 +1,164 @@
+package com.example;
+
+import com.example.CucumberHtmlParser.ScenarioData;
+import com.example.CucumberHtmlParser.StatsResult;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class RowSpillStoreTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private static String report(long seed) throws Exception {
+        ReportGenerator.Options options = GeneratedReports.options(3000, 0.3, seed);
+        options.interleaving = ReportGenerator.Interleaving.SHUFFLED;
+        options.scenariosPerDocument = 100;
+        return GeneratedReports.render(options, ReportGenerator.Format.HTML);
+    }
+
+    @Test
+    public void testSpilledParse_givesIdenticalResultsAndExports() throws Exception {
+        String html = report(11);
+        CucumberHtmlParser expected = GeneratedReports.parse(html, ReportGenerator.Format.HTML);
+        CucumberHtmlParser spilled = new CucumberHtmlParser();
+        spilled.setMemoryBudget(32 << 10, temporaryFolder.getRoot().toPath());
+        GeneratedReports.parse(spilled, html, ReportGenerator.Format.HTML);
+
+        assertTrue(spilled.getSpilledRowCount() > 2000);
+        CucumberHtmlParserIntegrationTest.assertSameRows(expected.getRowIdToScenarioData(), spilled.getRowIdToScenarioData());
+        assertEquals(new ArrayList<>(expected.getRowIdToScenarioData().keySet()),
+                new ArrayList<>(spilled.getRowIdToScenarioData().keySet()));
+
+        StatsResult expectedStats = expected.getStats();
+        StatsResult spilledStats = spilled.getStats();
+        assertEquals(expectedStats.totalCount, spilledStats.totalCount);
+        assertEquals(expectedStats.failedCount, spilledStats.failedCount);
+        assertEquals(expectedStats.totalTimeSec, spilledStats.totalTimeSec, 0.0);
+        assertEquals(expectedStats.endpointStatsMap.keySet(), spilledStats.endpointStatsMap.keySet());
+
+        // 페이지 링크가 파일 이름을 담으므로 같은 이름으로 다른 디렉터리에 쓴다
+        Path expectedDir = temporaryFolder.newFolder("expected").toPath();
+        Path spilledDir = temporaryFolder.newFolder("spilled").toPath();
+        expected.exportResultsToCsv(expectedDir.resolve("result.csv").toString());
+        spilled.exportResultsToCsv(spilledDir.resolve("result.csv").toString());
+        expected.exportResultsToHtml(expectedDir.resolve("result.html").toString(), 500);
+        spilled.exportResultsToHtml(spilledDir.resolve("result.html").toString(), 500);
+        for (String name : Arrays.asList("result.csv", "result.html", "result-page-0006.html")) {
+            assertArrayEquals(name, Files.readAllBytes(expectedDir.resolve(name)), Files.readAllBytes(spilledDir.resolve(name)));
+        }
+        spilled.closeSpill();
+    }
+
+    @Test
+    public void testBudget_countsIdDictionariesNotJustRows() throws Exception {
+        String html = report(5);
+        CucumberHtmlParser unbounded = GeneratedReports.parse(html, ReportGenerator.Format.HTML);
+        long unspillable = unbounded.getUnspillableBytes();
+        // ID 4종 x 3000 (UUID 가 아닌 짧은 ID 라도 문자열/배열만 수백 KB)
+        assertTrue(unspillable > 3000 * 4 * 40);
+
+        // 행만 세면 넘지 않는 예산이라도 사전/컬럼까지 세면 넘으므로 행을 내보낸다
+        long rowsOnly = 3000L * 80;
+        CucumberHtmlParser bounded = new CucumberHtmlParser();
+        bounded.setMemoryBudget(Math.max(rowsOnly * 2, unspillable / 2), temporaryFolder.getRoot().toPath());
+        GeneratedReports.parse(bounded, html, ReportGenerator.Format.HTML);
+        assertTrue(bounded.getSpilledRowCount() > 0);
+        CucumberHtmlParserIntegrationTest.assertSameRows(unbounded.getRowIdToScenarioData(), bounded.getRowIdToScenarioData());
+        bounded.closeSpill();
+    }
+
+    @Test
+    public void testSpilledRows_keepLateUpdatesAndReplacements() throws Exception {
+        CorrelationEngine engine = new CorrelationEngine();
+        // 행 하나만 넣어도 예산을 넘는다
+        engine.setMemoryBudget(1, temporaryFolder.getRoot().toPath());
+        engine.addScenarioRow("row-a", row("TC-A", "GET"));
+        engine.addScenarioRow("row-b", row("TC-B", "POST"));
+        engine.linkPickle("pickle-a", Arrays.asList("step-1", "row-a"));
+        engine.registerTestCase("tc-a", "pickle-a");
+        engine.registerTestCaseStarted("run-a", "tc-a");
+        engine.registerStepFinished("run-a", "PASSED", 1.5);
+        engine.registerStepFinished("run-a", "FAILED", 0.25);
+        engine.updateFinalStatuses();
+        assertEquals(2, engine.spilledRowCount());
+
+        Map<String, ScenarioData> rows = engine.rowIdToScenarioData();
+        ScenarioData a = rows.get("row-a");
+        assertEquals("TC-A", a.testcaseId);
+        assertEquals("FAILED", a.finalStatus);
+        assertEquals(1.75, a.totalDurationSeconds, 0.0);
+
+        // 같은 rowId 로 다시 넣으면 디스크의 옛 레코드는 버려진다
+        engine.addScenarioRow("row-b", row("TC-B2", "PUT"));
+        assertEquals(2, rows.size());
+        List<String> testcaseIds = new ArrayList<>();
+        for (ScenarioData scenarioData : rows.values()) {
+            testcaseIds.add(scenarioData.testcaseId);
+        }
+        assertEquals(Arrays.asList("TC-A", "TC-B2"), testcaseIds);
+        assertEquals("PUT", rows.get("row-b").method);
+        assertNull(rows.get("row-c"));
+        engine.closeSpill();
+    }
+
+    @Test
+    public void testSortedRows_writeOrderedSpillOncePerChange() throws Exception {
+        CorrelationEngine engine = new CorrelationEngine();
+        engine.setMemoryBudget(1, temporaryFolder.getRoot().toPath());
+        for (int i = 0; i < 200; i++) {
+            engine.addScenarioRow("row-" + i, row("TC-" + ((i * 37) % 200), "GET"));
+        }
+        assertEquals(200, engine.spilledRowCount());
+
+        // 출력/CSV/HTML 처럼 같은 순서로 여러 번 순회해도 순위 순 임시 파일은 하나만 만든다
+        List<String> first = testcaseIds(engine.rowsInOrder(RowOrder.TESTCASE_ID));
+        assertEquals(1, engine.orderedSpillCount());
+        assertSame(engine.rowsInOrder(RowOrder.TESTCASE_ID), engine.rowsInOrder(RowOrder.TESTCASE_ID));
+        for (int pass = 0; pass < 3; pass++) {
+            assertEquals(first, testcaseIds(engine.rowsInOrder(RowOrder.TESTCASE_ID)));
+        }
+        assertEquals(1, engine.orderedSpillCount());
+        List<String> sorted = new ArrayList<>(first);
+        sorted.sort(null);
+        assertEquals(sorted, first);
+
+        // 행이 바뀌면 다시 정렬하고 이전 파일은 닫는다
+        engine.addScenarioRow("row-200", row("TC-000", "GET"));
+        assertEquals(0, engine.orderedSpillCount());
+        List<String> changed = testcaseIds(engine.rowsInOrder(RowOrder.TESTCASE_ID));
+        assertEquals(201, changed.size());
+        assertEquals("TC-0", changed.get(0));
+        assertEquals("TC-000", changed.get(1));
+        assertEquals(1, engine.orderedSpillCount());
+        engine.closeSpill();
+        assertEquals(0, engine.orderedSpillCount());
+    }
+
+    private static List<String> testcaseIds(Iterable<ScenarioData> rows) {
+        List<String> testcaseIds = new ArrayList<>();
+        for (ScenarioData scenarioData : rows) {
+            testcaseIds.add(scenarioData.testcaseId);
+        }
+        return testcaseIds;
+    }
+
+    private static ScenarioData row(String testcaseId, String method) {
+        ScenarioData scenarioData = new ScenarioData();
+        scenarioData.testcaseId = testcaseId;
+        scenarioData.method = method;
+        scenarioData.apiEndpoint = "/api/" + testcaseId;
+        scenarioData.statusCode = "200";
+        return scenarioData;
+    }
+}
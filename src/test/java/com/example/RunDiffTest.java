@@ -0,0 +1,85 @@
+package com.example;
+
+import com.example.CucumberHtmlParser.ScenarioData;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class RunDiffTest {
+
+    private static ScenarioData row(String testcaseId, String endpoint, String status, double seconds) {
+        ScenarioData data = new ScenarioData();
+        data.testcaseId = testcaseId;
+        data.method = "GET";
+        data.apiEndpoint = endpoint;
+        data.finalStatus = status;
+        data.totalDurationSeconds = seconds;
+        return data;
+    }
+
+    @Test
+    public void testCompare_classifiesTestCases() {
+        List<ScenarioData> baseline = Arrays.asList(
+                row("TC-1", "/a", "PASSED", 1.0),
+                row("TC-2", "/a", "FAILED", 1.0),
+                row("TC-3", "/a", "PASSED", 1.0),
+                row("TC-4", "/a", "PASSED", 1.0));
+        List<ScenarioData> current = Arrays.asList(
+                row("TC-1", "/a", "FAILED", 1.0),
+                row("TC-2", "/a", "PASSED", 1.0),
+                row("TC-4", "/a", "PASSED", 1.0),
+                // 같은 TC 의 행이 하나라도 실패하면 실패
+                row("TC-4", "/a", "FAILED", 1.0),
+                row("TC-5", "/a", "PASSED", 1.0));
+
+        RunDiff.Result diff = new RunDiff(20.0, 0.0).compare(baseline, current);
+
+        assertEquals(Arrays.asList("TC-1", "TC-4"), diff.newlyFailing);
+        assertEquals(Collections.singletonList("TC-2"), diff.newlyPassing);
+        assertEquals(Collections.singletonList("TC-3"), diff.missing);
+        assertEquals(Collections.singletonList("TC-5"), diff.added);
+        assertTrue(diff.passRateRegressed);
+        assertTrue(diff.isRegression());
+    }
+
+    @Test
+    public void testCompare_endpointLatencyThreshold() {
+        List<ScenarioData> baseline = new ArrayList<>();
+        List<ScenarioData> current = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            baseline.add(row("A-" + i, "/slow", "PASSED", 1.0));
+            current.add(row("A-" + i, "/slow", "PASSED", 1.5));
+            baseline.add(row("B-" + i, "/steady", "PASSED", 2.0));
+            current.add(row("B-" + i, "/steady", "PASSED", 2.1));
+        }
+        current.add(row("C-0", "/new", "PASSED", 9.0));
+
+        RunDiff.Result diff = new RunDiff(20.0, 0.0).compare(baseline, current);
+
+        assertFalse(diff.passRateRegressed);
+        assertEquals(2, diff.endpointDeltas.size());
+        RunDiff.EndpointDelta slow = diff.endpointDeltas.get(0);
+        assertEquals("GET /slow", slow.endpoint);
+        assertEquals(50.0, slow.latencyChangePercent, 0.5);
+        assertTrue(slow.regressed);
+        assertFalse(diff.endpointDeltas.get(1).regressed);
+        assertTrue(diff.isRegression());
+
+        assertFalse(new RunDiff(60.0, 0.0).compare(baseline, current).isRegression());
+    }
+
+    @Test
+    public void testCompare_identicalRuns() {
+        List<ScenarioData> rows = Arrays.asList(row("TC-1", "/a", "PASSED", 1.0), row("TC-2", "/b", "FAILED", 0.2));
+        RunDiff.Result diff = new RunDiff(0.0, 0.0).compare(rows, rows);
+        assertTrue(diff.newlyFailing.isEmpty());
+        assertTrue(diff.missing.isEmpty());
+        assertTrue(diff.added.isEmpty());
+        assertFalse(diff.isRegression());
+    }
+}
@@ -0,0 +1,108 @@
+package com.example;
+
+import com.example.CucumberHtmlParser.ScenarioData;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class RunHistoryStoreTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private static ScenarioData row(String testcaseId, String method, String endpoint, String status, double seconds) {
+        ScenarioData data = new ScenarioData();
+        data.testcaseId = testcaseId;
+        data.method = method;
+        data.apiEndpoint = endpoint;
+        data.finalStatus = status;
+        data.totalDurationSeconds = seconds;
+        return data;
+    }
+
+    private static List<ScenarioData> run(double tc1Seconds, double tc2Seconds) {
+        List<ScenarioData> rows = new ArrayList<>();
+        rows.add(row("TC-1", "GET", "/users", "PASSED", tc1Seconds));
+        rows.add(row("TC-2", "post", "/users", "FAILED", tc2Seconds));
+        rows.add(row(null, null, null, "PASSED", 0.5));
+        return rows;
+    }
+
+    @Test
+    public void testAppendAndReopen_queriesOverRecentRuns() throws Exception {
+        Path dir = temporaryFolder.getRoot().toPath().resolve("history");
+        RunHistoryStore store = new RunHistoryStore(dir);
+        store.append(1000L, "run-1", run(1.0, 2.0));
+        store.append(2000L, "run-2", run(1.0, 2.0));
+        store.append(3000L, "run-3", run(1.5, 2.1));
+
+        RunHistoryStore reopened = new RunHistoryStore(dir);
+        assertEquals(3, reopened.getRuns().size());
+        assertEquals("run-2", reopened.getRuns().get(1).label);
+        assertEquals(3, reopened.getRuns().get(1).firstRow);
+        assertEquals(3000L, reopened.getRuns().get(2).startedAtMillis);
+
+        Map<String, LatencyHistogram> lastTwo = reopened.endpointLatency(2);
+        assertEquals(2, lastTwo.get("GET /users").getTotalCount());
+        assertEquals(1.5, lastTwo.get("GET /users").getPercentileSeconds(95), 1e-6);
+        assertEquals(2, lastTwo.get("POST /users").getTotalCount());
+        assertEquals(2, lastTwo.get(" ").getTotalCount());
+        assertEquals(9, reopened.endpointLatency(100).values().stream().mapToLong(LatencyHistogram::getTotalCount).sum());
+
+        // TC-1: 1.0 -> 1.5 (+50%), TC-2: 2.0 -> 2.1 (+5%)
+        List<RunHistoryStore.DurationChange> regressions = reopened.durationRegressions(2, 20.0);
+        assertEquals(1, regressions.size());
+        assertEquals("TC-1", regressions.get(0).testcaseId);
+        assertEquals(1.0, regressions.get(0).baselineSeconds, 1e-9);
+        assertEquals(50.0, regressions.get(0).changePercent, 1e-9);
+        assertEquals(2, reopened.durationRegressions(2, 1.0).size());
+
+        List<ScenarioData> restored = reopened.readRun(2);
+        assertEquals(3, restored.size());
+        assertEquals("TC-2", restored.get(1).testcaseId);
+        assertEquals("post", restored.get(1).method);
+        assertEquals("FAILED", restored.get(1).finalStatus);
+        assertEquals(2.1, restored.get(1).totalDurationSeconds, 0.0);
+        assertNull(restored.get(2).apiEndpoint);
+    }
+
+    @Test
+    public void testInterruptedAppend_isIgnoredAndOverwritten() throws Exception {
+        Path dir = temporaryFolder.getRoot().toPath().resolve("history");
+        RunHistoryStore store = new RunHistoryStore(dir);
+        store.append(1000L, "run-1", run(1.0, 2.0));
+
+        // 인덱스에 기록되기 전에 끊긴 쓰기를 흉내낸다
+        Files.write(dir.resolve(RunHistoryStore.DURATION_COLUMN), new byte[5], StandardOpenOption.APPEND);
+        Files.write(dir.resolve(RunHistoryStore.DICTIONARY_FILE), new byte[]{0, 0, 0, 9, 'x'}, StandardOpenOption.APPEND);
+        Files.write(dir.resolve(RunHistoryStore.RUN_INDEX_FILE), new byte[7], StandardOpenOption.APPEND);
+
+        RunHistoryStore reopened = new RunHistoryStore(dir);
+        assertEquals(1, reopened.getRuns().size());
+        reopened.append(2000L, "run-2", run(3.0, 2.0));
+
+        RunHistoryStore again = new RunHistoryStore(dir);
+        assertEquals(2, again.getRuns().size());
+        assertEquals("run-2", again.getRuns().get(1).label);
+        assertEquals(6 * Double.BYTES, Files.size(dir.resolve(RunHistoryStore.DURATION_COLUMN)));
+        assertEquals(3.0, again.endpointLatency(1).get("GET /users").getMaxSeconds(), 1e-9);
+        assertEquals("TC-1", again.durationRegressions(1, 100.0).get(0).testcaseId);
+    }
+
+    @Test
+    public void testEmptyStore() throws Exception {
+        RunHistoryStore store = new RunHistoryStore(temporaryFolder.getRoot().toPath());
+        assertTrue(store.getRuns().isEmpty());
+        assertTrue(store.endpointLatency(10).isEmpty());
+        assertTrue(store.durationRegressions(10, 20.0).isEmpty());
+    }
+}
@@ -0,0 +1,93 @@
+package com.example;
+
+import com.example.CucumberHtmlParser.ScenarioData;
+import com.example.CucumberHtmlParser.StatsResult;
+import com.example.CucumberHtmlParser.TimeStats;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class StatsAccumulatorTest {
+
+    @Test
+    public void testCalculate_methodAndEndpointStats() {
+        List<ScenarioData> rows = new ArrayList<>();
+        rows.add(row("GET", "/a", "PASSED", 1.0));
+        rows.add(row("get", "/a", "FAILED", 3.0));
+        rows.add(row("GET", "/b", "PASSED", 2.0));
+        rows.add(row("POST", "/a", "PASSED", 4.0));
+
+        StatsResult result = StatsAccumulator.calculate(rows);
+
+        assertEquals(4, result.totalCount);
+        assertEquals(3, result.passedCount);
+        assertEquals(1, result.failedCount);
+        assertEquals(75.0, result.passRate, 1e-9);
+        assertEquals(10.0, result.totalTimeSec, 1e-9);
+        assertEquals(3, result.totalApiCount);
+
+        TimeStats get = result.methodStatsMap.get("GET");
+        assertEquals(3, get.totalCount);
+        assertEquals(2, get.distinctApiCount);
+        // GET /a: 50%, 2.0s / GET /b: 100%, 2.0s
+        assertEquals(75.0, get.avgApiPassRate, 1e-9);
+        assertEquals(2.0, get.avgApiExecTime, 1e-9);
+
+        TimeStats getA = result.endpointStatsMap.get("GET /a");
+        assertEquals(2, getA.totalCount);
+        assertEquals(1, getA.failedCount);
+        assertEquals(2.0, getA.avgTimeSec, 1e-9);
+        assertEquals(2, getA.latency.getTotalCount());
+        assertEquals(3.0, getA.latency.getMaxSeconds(), 1e-9);
+        assertEquals(3, get.latency.getTotalCount());
+        assertEquals(4, result.latency.getTotalCount());
+        assertEquals(4.0, result.latency.getPercentileSeconds(99), 1e-9);
+        // (50 + 100 + 100) / 3
+        assertEquals(250.0 / 3, result.avgApiPassRate, 1e-9);
+    }
+
+    @Test
+    public void testMerge_sameAsSinglePass() {
+        Random random = new Random(1);
+        List<ScenarioData> rows = new ArrayList<>();
+        String[] methods = {"GET", "post", null, "PUT"};
+        for (int i = 0; i < 1000; i++) {
+            rows.add(row(methods[random.nextInt(methods.length)], "/e" + random.nextInt(7),
+                    random.nextInt(5) == 0 ? "FAILED" : "PASSED", random.nextDouble()));
+        }
+        StatsAccumulator whole = new StatsAccumulator();
+        StatsAccumulator left = new StatsAccumulator();
+        StatsAccumulator right = new StatsAccumulator();
+        for (int i = 0; i < rows.size(); i++) {
+            whole.add(rows.get(i));
+            (i < 400 ? left : right).add(rows.get(i));
+        }
+        StatsResult expected = whole.toResult();
+        StatsResult merged = left.merge(right).toResult();
+
+        assertEquals(expected.totalCount, merged.totalCount);
+        assertEquals(expected.passedCount, merged.passedCount);
+        assertEquals(expected.totalTimeSec, merged.totalTimeSec, 1e-9);
+        assertEquals(expected.avgApiPassRate, merged.avgApiPassRate, 1e-9);
+        assertEquals(expected.endpointStatsMap.keySet(), merged.endpointStatsMap.keySet());
+        for (String method : expected.methodStatsMap.keySet()) {
+            assertEquals(expected.methodStatsMap.get(method).distinctApiCount,
+                    merged.methodStatsMap.get(method).distinctApiCount);
+            assertEquals(expected.methodStatsMap.get(method).avgApiExecTime,
+                    merged.methodStatsMap.get(method).avgApiExecTime, 1e-9);
+        }
+    }
+
+    static ScenarioData row(String method, String endpoint, String status, double seconds) {
+        ScenarioData data = new ScenarioData();
+        data.method = method;
+        data.apiEndpoint = endpoint;
+        data.finalStatus = status;
+        data.totalDurationSeconds = seconds;
+        return data;
+    }
+}
@@ -0,0 +1,136 @@
+package com.example;
+
+import com.example.CucumberHtmlParser.ScenarioData;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class StepTimingStoreTest {
+
+    private static CucumberHtmlParser parse(ReportGenerator.Interleaving interleaving, ReportGenerator.Format format)
+            throws Exception {
+        CucumberHtmlParser parser = new CucumberHtmlParser();
+        parser.setStepTimingEnabled(true);
+        return GeneratedReports.parse(parser, report(interleaving, format), format);
+    }
+
+    private static String report(ReportGenerator.Interleaving interleaving, ReportGenerator.Format format) throws Exception {
+        ReportGenerator.Options options = GeneratedReports.options(1000, 0.2, 9);
+        options.stepsPerScenario = 5;
+        options.interleaving = interleaving;
+        return GeneratedReports.render(options, format);
+    }
+
+    private static Map<String, Long> totalsByStep(CucumberHtmlParser parser) {
+        Map<String, Long> totals = new HashMap<>();
+        for (StepTimingStore.StepStats stats : parser.getSlowestSteps(100)) {
+            totals.put(stats.step, stats.totalNanos);
+        }
+        return totals;
+    }
+
+    @Test
+    public void testStepTotals_addUpToScenarioDurations() throws Exception {
+        CucumberHtmlParser parser = parse(ReportGenerator.Interleaving.GROUPED, ReportGenerator.Format.HTML);
+        List<StepTimingStore.StepStats> steps = parser.getSlowestSteps(100);
+        assertEquals(5, steps.size());
+        long totalNanos = 0;
+        for (int i = 0; i < steps.size(); i++) {
+            StepTimingStore.StepStats stats = steps.get(i);
+            assertTrue(stats.step.startsWith("I call step "));
+            assertEquals(1000, stats.count);
+            if (i > 0) {
+                assertTrue(steps.get(i - 1).totalNanos >= stats.totalNanos);
+            }
+            totalNanos += stats.totalNanos;
+        }
+        double rowSeconds = 0.0;
+        for (ScenarioData row : parser.getRowIdToScenarioData().values()) {
+            rowSeconds += row.totalDurationSeconds;
+        }
+        assertEquals(rowSeconds, totalNanos / 1e9, 1e-6);
+
+        List<StepTimingStore.StepTiming> timings = parser.getStepTimings("row-17");
+        assertEquals(5, timings.size());
+        double seconds = 0.0;
+        for (StepTimingStore.StepTiming timing : timings) {
+            seconds += timing.getSeconds();
+        }
+        assertEquals(parser.getRowIdToScenarioData().get("row-17").totalDurationSeconds, seconds, 1e-9);
+        assertEquals("I call step 0", timings.get(0).step);
+    }
+
+    @Test
+    public void testShuffledNdjson_sameAsGroupedHtml() throws Exception {
+        Map<String, Long> grouped = totalsByStep(parse(ReportGenerator.Interleaving.GROUPED, ReportGenerator.Format.HTML));
+        CucumberHtmlParser shuffled = parse(ReportGenerator.Interleaving.SHUFFLED, ReportGenerator.Format.NDJSON);
+        assertEquals(grouped, totalsByStep(shuffled));
+        assertEquals(0, shuffled.getPendingReferenceCount());
+    }
+
+    @Test
+    public void testOutOfOrderMessagesAndHooks() {
+        CorrelationEngine engine = new CorrelationEngine();
+        engine.setStepTimingEnabled(true);
+        // 스텝 결과 -> testCaseStarted -> testCase -> pickle 순 (참조가 모두 뒤에서 도착)
+        engine.registerStepFinished("run-1", "ts-2", "PASSED", 2.0, 2_000_000_000L);
+        engine.registerStepFinished("run-1", "ts-hook", "PASSED", 0.5, 500_000_000L);
+        engine.registerTestCaseStarted("run-1", "tc-1");
+        engine.registerStepFinished("run-1", "ts-1", "PASSED", 1.0, 1_000_000_000L);
+        engine.registerTestSteps("tc-1", "pickle-1", Arrays.asList("ts-hook", "ts-1", "ts-2"),
+                Arrays.asList(null, "ps-1", "ps-2"));
+        engine.registerTestCase("tc-1", "pickle-1");
+        engine.registerPickleSteps("pickle-1", Arrays.asList("ps-1", "ps-2"), Arrays.asList("I log in", "I call the API"));
+        // 재시도: 같은 testCase 의 두 번째 실행
+        engine.registerTestCaseStarted("run-2", "tc-1");
+        engine.registerStepFinished("run-2", "ts-2", "PASSED", 3.0, 3_000_000_000L);
+
+        Map<String, StepTimingStore.StepStats> byStep = new HashMap<>();
+        for (StepTimingStore.StepStats stats : engine.stepStats()) {
+            byStep.put(stats.step, stats);
+        }
+        assertEquals(3, byStep.size());
+        assertEquals(5_000_000_000L, byStep.get("I call the API").totalNanos);
+        assertEquals(1_000_000_000L, byStep.get("I log in").totalNanos);
+        assertEquals(500_000_000L, byStep.get(StepTimingStore.HOOK_STEP).totalNanos);
+    }
+
+    @Test
+    public void testRealReport_resolvesEveryStep() throws Exception {
+        CucumberHtmlParser parser = new CucumberHtmlParser();
+        parser.setStepTimingEnabled(true);
+        parser.parseFile("src/test/resources/Cucumber.html");
+        List<StepTimingStore.StepStats> steps = parser.getSlowestSteps(10);
+        assertFalse(steps.isEmpty());
+        for (StepTimingStore.StepStats stats : steps) {
+            assertFalse(stats.step.isEmpty());
+            assertTrue(stats.count > 0);
+        }
+        for (Map.Entry<String, ScenarioData> entry : parser.getRowIdToScenarioData().entrySet()) {
+            double seconds = 0.0;
+            for (StepTimingStore.StepTiming timing : parser.getStepTimings(entry.getKey())) {
+                seconds += timing.getSeconds();
+            }
+            assertEquals(entry.getValue().totalDurationSeconds, seconds, 1e-6);
+        }
+    }
+
+    // 기본은 기록하지 않는다: 결과 행/시간은 같고 스텝 배열은 자라지 않는다
+    @Test
+    public void testStepTimingOffByDefault() throws Exception {
+        CucumberHtmlParser enabled = parse(ReportGenerator.Interleaving.GROUPED, ReportGenerator.Format.HTML);
+        CucumberHtmlParser disabled = GeneratedReports.parse(report(ReportGenerator.Interleaving.GROUPED,
+                ReportGenerator.Format.HTML), ReportGenerator.Format.HTML);
+
+        assertTrue(disabled.getSlowestSteps(10).isEmpty());
+        assertTrue(disabled.getStepTimings("row-17").isEmpty());
+        assertEquals(enabled.getRowIdToScenarioData().get("row-17").totalDurationSeconds,
+                disabled.getRowIdToScenarioData().get("row-17").totalDurationSeconds, 1e-9);
+        assertTrue(enabled.getUnspillableBytes() - disabled.getUnspillableBytes() >= 16L * 5000);
+    }
+}